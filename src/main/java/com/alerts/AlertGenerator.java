@@ -1,24 +1,38 @@
 package com.alerts;
 
+import com.alerts.cep.CompoundEventEngine;
+import com.alerts.cep.CompoundRule;
 import com.alerts.decorators.BasicAlert;
+import com.alerts.dispatch.AlertDispatcher;
 import com.alerts.strategies.*;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
-import com.data_management.PatientRecord;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * The {@code AlertGenerator} class is responsible for monitoring patient data
  * and generating alerts when certain predefined conditions are met. This class
  * relies on a {@link DataStorage} instance to access patient data and evaluate
  * it against specific health criteria.
+ * <p>
+ * Evaluations keep their alerts in buffers of their own, so one generator can evaluate several
+ * patients at the same time; {@link #evaluateAll()} evaluates the whole ward on a fork/join pool.
+ * {@code alert_generation.ParallelEvaluationBenchmark} (under {@code src/test/java}) measures how it
+ * scales with the pool size.
  */
 public class AlertGenerator {
     private final DataStorage dataStorage;
-    private final List<BasicAlert> basicAlerts = new LinkedList<>();
+    private static final int PATIENTS_PER_TASK = 16; // below this a task evaluates its patients itself
+
+    private volatile List<BasicAlert> basicAlerts = new LinkedList<>(); // of the latest evaluateData call
+    private final StrategyRegistry strategyRegistry;
+    private final CompoundEventEngine compoundEngine = new CompoundEventEngine();
+    private final AlertStateTracker stateTracker = new AlertStateTracker();
     private AlertStrategy alertStrategy;
+    private volatile AlertDispatcher alertDispatcher; // null: alerts are printed on the evaluating thread
 
     /**
      * Constructs an {@code AlertGenerator} with a specified {@code DataStorage}.
@@ -29,7 +43,46 @@ public class AlertGenerator {
      *                    data
      */
     public AlertGenerator(DataStorage dataStorage) {
+        this(dataStorage, defaultStrategies(dataStorage));
+    }
+
+    /**
+     * Constructs an {@code AlertGenerator} that runs the strategies of the given registry.
+     *
+     * @param dataStorage      the data storage system that provides access to patient
+     *                         data
+     * @param strategyRegistry the strategies to evaluate patients with
+     */
+    public AlertGenerator(DataStorage dataStorage, StrategyRegistry strategyRegistry) {
         this.dataStorage = dataStorage;
+        this.strategyRegistry = strategyRegistry;
+        compoundEngine.addRule(new CompoundRule("Hypotensive Hypoxemia Alert", 6_000, true,
+                "SystolicPressure critical value reached", "Low Saturation of oxygen in blood"));
+    }
+
+    /**
+     * Creates a registry holding the built-in strategies.
+     *
+     * @param dataStorage the data storage the strategies read from when used on their own
+     * @return the registry
+     */
+    public static StrategyRegistry defaultStrategies(DataStorage dataStorage) {
+        StrategyRegistry registry = new StrategyRegistry();
+        registry.register(new TriggeredAlertStrategy(dataStorage));
+        registry.register(new BloodPressureStrategy(dataStorage));
+        registry.register(new OxygenSaturationStrategy(dataStorage));
+        registry.register(new ECGStrategy(dataStorage));
+        registry.register(new HeartRateStrategy(dataStorage));
+        return registry;
+    }
+
+    /**
+     * Returns the strategies this generator runs, to which more can be added.
+     *
+     * @return the strategy registry
+     */
+    public StrategyRegistry getStrategyRegistry() {
+        return strategyRegistry;
     }
 
     /**
@@ -43,6 +96,35 @@ public class AlertGenerator {
         this.alertStrategy = alertStrategy;
     }
 
+    /**
+     * Returns the engine matching the compound alerts, to which more rules can be added.
+     *
+     * @return the compound alert engine
+     */
+    public CompoundEventEngine getCompoundEngine() {
+        return compoundEngine;
+    }
+
+    /**
+     * Returns the tracker deciding which alerts reach the staff, through which alerts
+     * can be acknowledged.
+     *
+     * @return the alert state tracker
+     */
+    public AlertStateTracker getAlertStateTracker() {
+        return stateTracker;
+    }
+
+    /**
+     * Sets the dispatcher that delivers the alerts to its sinks, off the evaluating thread.
+     * Without one, alerts are printed to the console as they are triggered.
+     *
+     * @param alertDispatcher the dispatcher, or null to print alerts directly
+     */
+    public void setAlertDispatcher(AlertDispatcher alertDispatcher) {
+        this.alertDispatcher = alertDispatcher;
+    }
+
     /**
      * Evaluates the specified patient's data to determine if any alert conditions
      * are met. If a condition is met, an alert is triggered.
@@ -54,68 +136,112 @@ public class AlertGenerator {
             System.err.println("Null or no patient provided");
             return;
         }
-        this.basicAlerts.clear();
-
-        for (PatientRecord record : patient.getAllRecords()) {
-            if ("Alert".equals(record.getRecordType()) && record.getMeasurementValue() == 1) {
-                basicAlerts.add(new BasicAlert(record.getPatientId(), "Triggered Alert", record.getTimestamp()));
-            }
-        }
-
-        List<AlertStrategy> strategies = Arrays.asList(
-                new BloodPressureStrategy(dataStorage),
-                new OxygenSaturationStrategy(dataStorage),
-                new ECGStrategy(dataStorage),
-                new HeartRateStrategy(dataStorage)
-        );
-
-        strategies.forEach(strategy -> basicAlerts.addAll(strategy.checkAlert(patient, 0L, Long.MAX_VALUE)));
+        Evaluation evaluation = evaluate(patient);
+        this.basicAlerts = evaluation.alerts;
+        triggerAlerts(evaluation);
+    }
 
-        basicAlerts.addAll(checkCompoundAlerts(patient, "SystolicPressure critical value reached", "Low Saturation of oxygen in blood", 0.1, "Hypotensive Hypoxemia Alert"));
-        triggerAlerts(basicAlerts);
+    /**
+     * Evaluates every patient in the data storage in parallel on the common fork/join pool
+     * and triggers the alerts found.
+     *
+     * @return the non-repeating alerts of every patient
+     */
+    public List<BasicAlert> evaluateAll() {
+        return evaluateAll(ForkJoinPool.commonPool());
     }
 
     /**
-     * Checks for compound alerts based on the provided criteria.
+     * Evaluates every patient in the data storage in parallel on the given pool. Each task
+     * collects the alerts of its patients in a buffer of its own; the buffers are merged as the
+     * tasks are joined, and the merged alerts pass the {@link AlertStateTracker} on the calling
+     * thread, so the notifications of different patients do not interleave.
      *
-     * @param patient           the patient object
-     * @param alert1            the first alert condition
-     * @param alert2            the second alert condition
-     * @param timeInterval      the time interval within which both alerts should occur
-     * @param compoundAlertName the name of the compound alert
-     * @return a list of compound alerts found
+     * @param pool the pool to evaluate on
+     * @return the non-repeating alerts of every patient
      */
-    private List<BasicAlert> checkCompoundAlerts(Patient patient, String alert1, String alert2, double timeInterval, String compoundAlertName) {
-        List<BasicAlert> alertsSpotted = new ArrayList<>();
-        List<BasicAlert> filteredList = basicAlerts.stream()
-                .filter(alert -> alert.getCondition().equals(alert1) || alert.getCondition().equals(alert2))
-                .collect(Collectors.toList());
+    public List<BasicAlert> evaluateAll(ForkJoinPool pool) {
+        List<Patient> patients = dataStorage.getAllPatients();
+        List<Evaluation> evaluations = pool.invoke(new EvaluationTask(this, patients, 0, patients.size()));
+        List<BasicAlert> first = new ArrayList<>();
+        for (Evaluation evaluation : evaluations) {
+            first.addAll(nonRepeating(evaluation.alerts));
+            triggerAlerts(evaluation);
+        }
+        return first;
+    }
 
-        List<BasicAlert> sortedFilteredBasicAlerts = filteredList.stream()
-                .sorted(Comparator.comparing(BasicAlert::getTimestamp))
-                .collect(Collectors.toList());
+    /**
+     * Runs the strategies and the compound checks on one patient.
+     *
+     * @param patient the patient to evaluate
+     * @return every alert found, repeating ones included, and the time of the newest record of each type
+     */
+    private Evaluation evaluate(Patient patient) {
+        // Every record type is fetched once and shared by the strategies reading it
+        Map<String, Long> latest = new HashMap<>();
+        List<BasicAlert> alerts = strategyRegistry.evaluate(patient, 0L, Long.MAX_VALUE, latest);
 
-        for (int i = 0; i < sortedFilteredBasicAlerts.size() - 1; i++) {
-            long currentTimestamp = sortedFilteredBasicAlerts.get(i).getTimestamp();
-            long nextTimestamp = sortedFilteredBasicAlerts.get(i + 1).getTimestamp();
+        // Alerts matched by a compound rule are replaced by the compound alert
+        return new Evaluation(patient.getId(), compoundEngine.evaluate(alerts), latest);
+    }
 
-            if (nextTimestamp - currentTimestamp <= timeInterval * 60 * 1000) {
-                this.basicAlerts.remove(sortedFilteredBasicAlerts.get(i));
-                this.basicAlerts.remove(sortedFilteredBasicAlerts.get(i + 1));
+    /**
+     * Notifies staff about the triggered alerts, unless the alert state tracker suppresses
+     * them as ongoing, and resolves the conditions that have cleared. Only an alert newer than
+     * those of earlier evaluations counts, since the history they scanned is scanned again; a
+     * condition clears once records of its types newer than its last alert have arrived without
+     * raising it. Vitals arrive at their own rates, so an evaluation without new records of a
+     * condition's types leaves the condition as it is. The notifications go through the alert
+     * dispatcher when one is set.
+     *
+     * @param evaluation the evaluation of one patient
+     */
+    private void triggerAlerts(Evaluation evaluation) {
+        for (BasicAlert basicAlert : latest(evaluation.alerts)) {
+            if (!stateTracker.isCurrent(basicAlert)) {
+                continue; // only history already seen
+            }
+            BasicAlert notification = stateTracker.onAlert(basicAlert);
+            if (notification == null) {
+                continue;
+            }
+            AlertDispatcher dispatcher = alertDispatcher;
+            if (dispatcher != null) {
+                dispatcher.dispatch(notification);
+            } else {
+                notification.triggerAlert();
+            }
+        }
+        stateTracker.resolveCleared(evaluation.patientId, condition -> dataTime(condition, evaluation.latest));
+    }
 
-                BasicAlert basicAlert = new BasicAlert(patient.getId(), compoundAlertName, currentTimestamp);
-                alertsSpotted.add(basicAlert);
+    /**
+     * Returns the time of the newest record of the types a condition is raised from, the types of
+     * its components for a compound alert.
+     */
+    private long dataTime(String condition, Map<String, Long> latest) {
+        long time = Long.MIN_VALUE;
+        for (String recordType : strategyRegistry.getRecordTypes(condition)) {
+            time = Math.max(time, latest.getOrDefault(recordType, Long.MIN_VALUE));
+        }
+        for (CompoundRule rule : compoundEngine.getRules()) {
+            if (rule.getName().equals(condition)) {
+                for (String component : rule.getConditions()) {
+                    time = Math.max(time, dataTime(component, latest));
+                }
             }
         }
-        return alertsSpotted;
+        return time;
     }
 
     /**
-     * Notifies staff about the triggered alerts.
+     * Keeps the first alert of every condition.
      *
-     * @param basicAlerts the list of basic alerts
+     * @param basicAlerts the alerts of one patient
+     * @return a list of non-repeating alerts
      */
-    private void triggerAlerts(List<BasicAlert> basicAlerts) {
+    private static List<BasicAlert> nonRepeating(List<BasicAlert> basicAlerts) {
         Map<String, BasicAlert> alertMap = new HashMap<>();
 
         for (BasicAlert basicAlert : basicAlerts) {
@@ -124,9 +250,22 @@ public class AlertGenerator {
             }
         }
 
-        for (BasicAlert basicAlert : alertMap.values()) {
-            basicAlert.triggerAlert();
+        return new LinkedList<>(alertMap.values());
+    }
+
+    /**
+     * Keeps the newest alert of every condition.
+     *
+     * @param basicAlerts the alerts of one patient
+     * @return the newest alert of each condition
+     */
+    private static List<BasicAlert> latest(List<BasicAlert> basicAlerts) {
+        Map<String, BasicAlert> alertMap = new LinkedHashMap<>();
+        for (BasicAlert basicAlert : basicAlerts) {
+            alertMap.merge(basicAlert.getCondition(), basicAlert,
+                    (kept, next) -> next.getTimestamp() > kept.getTimestamp() ? next : kept);
         }
+        return new ArrayList<>(alertMap.values());
     }
 
     /**
@@ -135,15 +274,7 @@ public class AlertGenerator {
      * @return a list of non-repeating alerts
      */
     public List<BasicAlert> getAlerts() {
-        Map<String, BasicAlert> alertMap = new HashMap<>();
-
-        for (BasicAlert basicAlert : basicAlerts) {
-            if (!alertMap.containsKey(basicAlert.getCondition())) {
-                alertMap.put(basicAlert.getCondition(), basicAlert);
-            }
-        }
-
-        return new LinkedList<>(alertMap.values());
+        return nonRepeating(basicAlerts);
     }
 
     /**
@@ -152,13 +283,57 @@ public class AlertGenerator {
      * @return a list of non-repeating alerts
      */
     public List<BasicAlert> getAlerts_Junit() {
-        Map<String, BasicAlert> alertMap = new HashMap<>();
-        for (BasicAlert basicAlert : basicAlerts) {
-            if (!alertMap.containsKey(basicAlert.getCondition())) {
-                alertMap.put(basicAlert.getCondition(), basicAlert);
-            }
+        return nonRepeating(basicAlerts);
+    }
+
+    /**
+     * The alerts found for one patient, and the time of the newest record of each type.
+     */
+    private static final class Evaluation {
+        private final String patientId;
+        private final List<BasicAlert> alerts;
+        private final Map<String, Long> latest;
+
+        private Evaluation(String patientId, List<BasicAlert> alerts, Map<String, Long> latest) {
+            this.patientId = patientId;
+            this.alerts = alerts;
+            this.latest = latest;
         }
+    }
 
-        return new LinkedList<>(alertMap.values());
+    /**
+     * Evaluates a slice of the patients, splitting it while it is large.
+     */
+    private static final class EvaluationTask extends RecursiveTask<List<Evaluation>> {
+        private static final long serialVersionUID = 1L;
+
+        private final AlertGenerator generator;
+        private final List<Patient> patients;
+        private final int from;
+        private final int to;
+
+        private EvaluationTask(AlertGenerator generator, List<Patient> patients, int from, int to) {
+            this.generator = generator;
+            this.patients = patients;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Evaluation> compute() {
+            if (to - from <= PATIENTS_PER_TASK) {
+                List<Evaluation> buffer = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    buffer.add(generator.evaluate(patients.get(i)));
+                }
+                return buffer;
+            }
+            int middle = (from + to) >>> 1;
+            EvaluationTask right = new EvaluationTask(generator, patients, middle, to);
+            right.fork();
+            List<Evaluation> evaluations = new EvaluationTask(generator, patients, from, middle).compute();
+            evaluations.addAll(right.join()); // each buffer is only touched by the task that owns it
+            return evaluations;
+        }
     }
-}
\ No newline at end of file
+}
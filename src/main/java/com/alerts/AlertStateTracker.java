@@ -0,0 +1,274 @@
+package com.alerts;
+
+import com.alerts.decorators.BasicAlert;
+import com.alerts.decorators.PriorityAlertDecorator;
+import com.alerts.decorators.RepeatedAlertDecorator;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * Remembers the alerts raised for every patient between evaluations, so that an ongoing condition
+ * does not page the staff on every evaluation cycle. Each condition of a patient moves through
+ * three states:
+ * <ul>
+ *     <li>{@link State#ACTIVE}: raised. The alert is repeated at most once per cooldown while the
+ *     condition persists, as a {@link RepeatedAlertDecorator}; from the configured repeat on it is
+ *     escalated with a {@link PriorityAlertDecorator}.</li>
+ *     <li>{@link State#ACKNOWLEDGED}: staff know about it, so it is not repeated.</li>
+ *     <li>{@link State#RESOLVED}: the condition has cleared; the next alert starts afresh.</li>
+ * </ul>
+ * Evaluations rescan a patient's history, so the same alert comes back on every cycle. The tracker
+ * keeps the timestamp of the newest alert it has seen for each condition, and only an alert newer than
+ * that one shows that the condition still holds; an older one is stale and ignored. Time is the time
+ * of the alerts, that is of the data, so the cooldown means the same in a replay as in a live run.
+ * <p>
+ * The state of one condition of one patient is packed into a single {@code long} (state, repeat
+ * count and the time it last fired), next to the time of the newest alert seen, and conditions are
+ * numbered once for all patients, so a patient costs two small arrays of longs.
+ */
+public class AlertStateTracker {
+    /** The default minimum time between two notifications of an active condition. */
+    public static final long DEFAULT_COOLDOWN_MILLIS = 5 * 60 * 1000;
+    /** The default repeat from which an active condition is escalated. */
+    public static final int DEFAULT_ESCALATE_AFTER = 3;
+
+    /**
+     * The state of one condition of one patient.
+     */
+    public enum State {
+        ACTIVE, ACKNOWLEDGED, RESOLVED
+    }
+
+    private static final int STATE_SHIFT = 62;
+    private static final int REPEATS_SHIFT = 48;
+    private static final long REPEATS_MAX = (1L << (STATE_SHIFT - REPEATS_SHIFT)) - 1;
+    private static final long TIME_MASK = (1L << REPEATS_SHIFT) - 1;
+    private static final State[] STATES = State.values();
+
+    private final long cooldownMillis;
+    private final int escalateAfter;
+    private final Map<String, Integer> conditionIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextConditionId = new AtomicInteger();
+    private final Map<String, Slots> patients = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an AlertStateTracker with the default cooldown and escalation.
+     */
+    public AlertStateTracker() {
+        this(DEFAULT_COOLDOWN_MILLIS, DEFAULT_ESCALATE_AFTER);
+    }
+
+    /**
+     * Constructs an AlertStateTracker.
+     *
+     * @param cooldownMillis the minimum time between the alerts of two notifications of an active condition
+     * @param escalateAfter  the repeat from which an active condition is escalated
+     */
+    public AlertStateTracker(long cooldownMillis, int escalateAfter) {
+        this.cooldownMillis = cooldownMillis;
+        this.escalateAfter = escalateAfter;
+    }
+
+    /**
+     * Returns whether an alert is newer than every alert seen for its condition, which shows
+     * that the condition still holds. An evaluation only counts such alerts as raised.
+     *
+     * @param alert the alert raised
+     * @return false if the alert, or a newer one, was already seen
+     */
+    public boolean isCurrent(BasicAlert alert) {
+        Integer id = conditionIds.get(alert.getCondition());
+        Slots patient = patients.get(alert.getPatientId());
+        if (id == null || patient == null) {
+            return true;
+        }
+        synchronized (patient) {
+            return id >= patient.slots.length || state(patient.slots[id]) == null
+                    || alert.getTimestamp() > patient.seen[id];
+        }
+    }
+
+    /**
+     * Records that an evaluation raised an alert and decides whether to notify the staff.
+     * A stale alert, no newer than one already seen for its condition, is suppressed and changes nothing.
+     *
+     * @param alert the alert raised
+     * @return the alert to trigger, decorated if it is a repeat, or null if it is suppressed
+     */
+    public BasicAlert onAlert(BasicAlert alert) {
+        int condition = conditionId(alert.getCondition());
+        long now = alert.getTimestamp();
+        Slots patient = patients.computeIfAbsent(alert.getPatientId(), id -> new Slots());
+        synchronized (patient) {
+            long[] slots = patient.ensureCapacity(condition);
+            long slot = slots[condition];
+            State state = state(slot);
+            if (state != null && now <= patient.seen[condition]) {
+                return null;
+            }
+            patient.seen[condition] = now;
+            if (state == null || state == State.RESOLVED) {
+                slots[condition] = pack(State.ACTIVE, 0, now);
+                return alert;
+            }
+            if (state == State.ACKNOWLEDGED || now - lastFired(slot) < cooldownMillis) {
+                return null;
+            }
+            long repeats = Math.min(REPEATS_MAX, repeats(slot) + 1);
+            slots[condition] = pack(State.ACTIVE, repeats, now);
+            BasicAlert repeated = new RepeatedAlertDecorator(alert, (int) repeats);
+            return repeats >= escalateAfter ? new PriorityAlertDecorator(repeated) : repeated;
+        }
+    }
+
+    /**
+     * Marks an active condition as acknowledged, which stops its repeats until it resolves.
+     *
+     * @param patientId the patient
+     * @param condition the condition of the alert
+     */
+    public void acknowledge(String patientId, String condition) {
+        setState(patientId, condition, State.ACKNOWLEDGED, true);
+    }
+
+    /**
+     * Marks a condition as resolved, so that its next alert is raised as a new one.
+     *
+     * @param patientId the patient
+     * @param condition the condition of the alert
+     */
+    public void resolve(String patientId, String condition) {
+        setState(patientId, condition, State.RESOLVED, false);
+    }
+
+    /**
+     * Resolves every condition of a patient except the given ones, for a caller that knows the
+     * others have cleared.
+     *
+     * @param patientId the patient
+     * @param raised    the conditions of the alerts the evaluation raised
+     */
+    public void resolveAbsent(String patientId, Collection<String> raised) {
+        Slots patient = patients.get(patientId);
+        if (patient == null) {
+            return;
+        }
+        synchronized (patient) {
+            for (Map.Entry<String, Integer> entry : conditionIds.entrySet()) {
+                int condition = entry.getValue();
+                if (condition < patient.slots.length && state(patient.slots[condition]) != null
+                        && !raised.contains(entry.getKey())) {
+                    patient.slots[condition] = withState(patient.slots[condition], State.RESOLVED);
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves every active or acknowledged condition of a patient whose data has moved on without it:
+     * records of the types the condition is raised from arrived after its newest alert, and raised no
+     * newer one. A condition whose data has not moved on since its alert is left as it is.
+     *
+     * @param patientId the patient
+     * @param dataTime  the timestamp of the newest record a condition is raised from, or
+     *                  {@link Long#MIN_VALUE} if it is not known
+     */
+    public void resolveCleared(String patientId, ToLongFunction<String> dataTime) {
+        Slots patient = patients.get(patientId);
+        if (patient == null) {
+            return;
+        }
+        synchronized (patient) {
+            for (Map.Entry<String, Integer> entry : conditionIds.entrySet()) {
+                int condition = entry.getValue();
+                if (condition < patient.slots.length) {
+                    State state = state(patient.slots[condition]);
+                    if ((state == State.ACTIVE || state == State.ACKNOWLEDGED)
+                            && dataTime.applyAsLong(entry.getKey()) > patient.seen[condition]) {
+                        patient.slots[condition] = withState(patient.slots[condition], State.RESOLVED);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the state of a condition of a patient.
+     *
+     * @param patientId the patient
+     * @param condition the condition of the alert
+     * @return the state, or null if the condition was never raised for the patient
+     */
+    public State getState(String patientId, String condition) {
+        Integer id = conditionIds.get(condition);
+        Slots patient = patients.get(patientId);
+        if (id == null || patient == null) {
+            return null;
+        }
+        synchronized (patient) {
+            return id < patient.slots.length ? state(patient.slots[id]) : null;
+        }
+    }
+
+    private void setState(String patientId, String condition, State state, boolean onlyActive) {
+        Integer id = conditionIds.get(condition);
+        Slots patient = patients.get(patientId);
+        if (id == null || patient == null) {
+            return;
+        }
+        synchronized (patient) {
+            State current = id < patient.slots.length ? state(patient.slots[id]) : null;
+            if (current != null && (!onlyActive || current == State.ACTIVE)) {
+                patient.slots[id] = withState(patient.slots[id], state);
+            }
+        }
+    }
+
+    private int conditionId(String condition) {
+        return conditionIds.computeIfAbsent(condition, c -> nextConditionId.getAndIncrement());
+    }
+
+    private static long pack(State state, long repeats, long lastFired) {
+        return ((long) (state.ordinal() + 1) << STATE_SHIFT) | (repeats << REPEATS_SHIFT) | (lastFired & TIME_MASK);
+    }
+
+    private static State state(long slot) {
+        int value = (int) (slot >>> STATE_SHIFT);
+        return value == 0 ? null : STATES[value - 1];
+    }
+
+    private static long repeats(long slot) {
+        return (slot >>> REPEATS_SHIFT) & REPEATS_MAX;
+    }
+
+    private static long lastFired(long slot) {
+        return slot & TIME_MASK;
+    }
+
+    private static long withState(long slot, State state) {
+        return pack(state, repeats(slot), lastFired(slot));
+    }
+
+    /**
+     * The packed states of one patient's conditions, indexed by condition ID; 0 for conditions never raised.
+     * Next to each, the timestamp of the newest alert seen for the condition.
+     */
+    private final class Slots {
+        private long[] slots = new long[0];
+        private long[] seen = new long[0];
+
+        private long[] ensureCapacity(int condition) {
+            if (condition >= slots.length) {
+                int length = Math.max(condition + 1, nextConditionId.get());
+                slots = Arrays.copyOf(slots, length);
+                seen = Arrays.copyOf(seen, length);
+            }
+            return slots;
+        }
+    }
+}
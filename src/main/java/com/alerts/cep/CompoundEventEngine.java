@@ -0,0 +1,220 @@
+package com.alerts.cep;
+
+import com.alerts.decorators.BasicAlert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * Matches alerts against {@link CompoundRule}s. For every patient and rule the engine keeps the
+ * pending alerts of each of the rule's conditions in a buffer; alerts older than the rule's time
+ * span, measured from the newest alert, expire from it. When every buffer of a rule holds an alert,
+ * the oldest alert of each is taken for a {@link CompoundMatch}, so an alert takes part in at most
+ * one match per rule.
+ * <p>
+ * Rules are indexed by condition, so an alert only touches the buffers of the rules that mention
+ * its condition: the cost per alert depends on those rules, not on how many rules there are.
+ * Alerts of one patient must be passed in timestamp order; {@link #evaluate(List)} sorts them.
+ */
+public class CompoundEventEngine {
+    private final List<CompoundRule> rules = new ArrayList<>();
+    private final Map<String, List<Slot>> slotsByCondition = new HashMap<>();
+    private final Map<String, PatientBuffers> patients = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a rule. Must be called before alerts are passed to {@link #onAlert}.
+     *
+     * @param rule the rule
+     * @throws IllegalStateException if alerts have already been passed to {@link #onAlert}
+     */
+    public synchronized void addRule(CompoundRule rule) {
+        if (!patients.isEmpty()) {
+            throw new IllegalStateException("Rules must be added before alerts arrive");
+        }
+        int ruleIndex = rules.size();
+        rules.add(rule);
+        List<String> conditions = rule.getConditions();
+        for (int component = 0; component < conditions.size(); component++) {
+            slotsByCondition.computeIfAbsent(conditions.get(component), c -> new ArrayList<>())
+                    .add(new Slot(ruleIndex, component));
+        }
+    }
+
+    /**
+     * Returns the rules.
+     *
+     * @return the rules in the order they were added
+     */
+    public List<CompoundRule> getRules() {
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * Passes one alert to the engine, keeping it pending for later alerts of the same patient.
+     * Alerts of different patients may be passed from different threads.
+     *
+     * @param alert   the alert
+     * @param matches receives the matches the alert completes
+     */
+    public void onAlert(BasicAlert alert, Consumer<CompoundMatch> matches) {
+        List<Slot> slots = slotsByCondition.get(alert.getCondition());
+        if (slots == null) {
+            return;
+        }
+        PatientBuffers buffers = patients.computeIfAbsent(alert.getPatientId(), id -> new PatientBuffers());
+        synchronized (buffers) {
+            buffers.add(alert, slots, matches);
+        }
+    }
+
+    /**
+     * Drops the pending alerts that can no longer be matched at the given time.
+     *
+     * @param timestamp the current time
+     */
+    public void expire(long timestamp) {
+        for (PatientBuffers buffers : patients.values()) {
+            synchronized (buffers) {
+                for (int rule = 0; rule < rules.size(); rule++) {
+                    buffers.expire(rule, timestamp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Matches a finished list of alerts, independently of the pending alerts of {@link #onAlert}.
+     *
+     * @param alerts the alerts, in any order
+     * @return the alerts not replaced by a compound alert, in their original order, followed by
+     *         the compound alerts
+     */
+    public List<BasicAlert> evaluate(List<BasicAlert> alerts) {
+        List<BasicAlert> sorted = new ArrayList<>(alerts);
+        sorted.sort(comparingLong(BasicAlert::getTimestamp));
+        Map<String, PatientBuffers> buffersByPatient = new HashMap<>();
+        List<BasicAlert> compounds = new ArrayList<>();
+        Set<BasicAlert> replaced = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BasicAlert alert : sorted) {
+            List<Slot> slots = slotsByCondition.get(alert.getCondition());
+            if (slots != null) {
+                buffersByPatient.computeIfAbsent(alert.getPatientId(), id -> new PatientBuffers())
+                        .add(alert, slots, match -> {
+                            compounds.add(match.getAlert());
+                            if (match.getRule().replacesComponents()) {
+                                replaced.addAll(match.getComponents());
+                            }
+                        });
+            }
+        }
+
+        List<BasicAlert> result = new ArrayList<>(alerts.size() + compounds.size());
+        for (BasicAlert alert : alerts) {
+            if (!replaced.contains(alert)) {
+                result.add(alert);
+            }
+        }
+        result.addAll(compounds);
+        return result;
+    }
+
+    /**
+     * A condition's position in a rule.
+     */
+    private static final class Slot {
+        private final int rule;
+        private final int component;
+
+        private Slot(int rule, int component) {
+            this.rule = rule;
+            this.component = component;
+        }
+    }
+
+    /**
+     * The pending alerts of one patient, per rule and condition.
+     */
+    private final class PatientBuffers {
+        private final ArrayDeque<BasicAlert>[][] pending;
+        private final int[] filled; // per rule, the number of conditions with a pending alert
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private PatientBuffers() {
+            pending = new ArrayDeque[rules.size()][];
+            filled = new int[rules.size()];
+        }
+
+        private void add(BasicAlert alert, List<Slot> slots, Consumer<CompoundMatch> matches) {
+            for (Slot slot : slots) {
+                if (pending[slot.rule] == null) {
+                    pending[slot.rule] = newBuffers(rules.get(slot.rule).getConditions().size());
+                }
+                expire(slot.rule, alert.getTimestamp());
+                ArrayDeque<BasicAlert> buffer = pending[slot.rule][slot.component];
+                if (buffer.isEmpty()) {
+                    filled[slot.rule]++;
+                }
+                buffer.addLast(alert);
+                if (filled[slot.rule] == pending[slot.rule].length) {
+                    matches.accept(match(slot.rule));
+                }
+            }
+        }
+
+        private void expire(int rule, long timestamp) {
+            if (pending[rule] == null) {
+                return;
+            }
+            long oldest = timestamp - rules.get(rule).getWithinMillis();
+            for (ArrayDeque<BasicAlert> buffer : pending[rule]) {
+                if (buffer.isEmpty()) {
+                    continue;
+                }
+                while (!buffer.isEmpty() && buffer.peekFirst().getTimestamp() < oldest) {
+                    buffer.pollFirst();
+                }
+                if (buffer.isEmpty()) {
+                    filled[rule]--;
+                }
+            }
+        }
+
+        /**
+         * Takes the oldest pending alert of every condition of a rule.
+         */
+        private CompoundMatch match(int rule) {
+            List<BasicAlert> components = new ArrayList<>(pending[rule].length);
+            long earliest = Long.MAX_VALUE;
+            for (ArrayDeque<BasicAlert> buffer : pending[rule]) {
+                BasicAlert component = buffer.pollFirst();
+                components.add(component);
+                earliest = Math.min(earliest, component.getTimestamp());
+                if (buffer.isEmpty()) {
+                    filled[rule]--;
+                }
+            }
+            CompoundRule compoundRule = rules.get(rule);
+            BasicAlert alert = new BasicAlert(components.get(0).getPatientId(), compoundRule.getName(), earliest);
+            return new CompoundMatch(compoundRule, alert, Collections.unmodifiableList(components));
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private ArrayDeque<BasicAlert>[] newBuffers(int count) {
+            ArrayDeque<BasicAlert>[] buffers = new ArrayDeque[count];
+            for (int i = 0; i < count; i++) {
+                buffers[i] = new ArrayDeque<>();
+            }
+            return buffers;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.alerts.cep;
+
+import com.alerts.decorators.BasicAlert;
+
+import java.util.List;
+
+/**
+ * A compound alert raised by a {@link CompoundRule}, together with the alerts it was built from.
+ */
+public class CompoundMatch {
+    private final CompoundRule rule;
+    private final BasicAlert alert;
+    private final List<BasicAlert> components;
+
+    CompoundMatch(CompoundRule rule, BasicAlert alert, List<BasicAlert> components) {
+        this.rule = rule;
+        this.alert = alert;
+        this.components = components;
+    }
+
+    public CompoundRule getRule() {
+        return rule;
+    }
+
+    /**
+     * Returns the compound alert, stamped with the time of the earliest matched alert.
+     *
+     * @return the compound alert
+     */
+    public BasicAlert getAlert() {
+        return alert;
+    }
+
+    /**
+     * Returns the matched alerts, one per condition of the rule, in the rule's order.
+     *
+     * @return the matched alerts
+     */
+    public List<BasicAlert> getComponents() {
+        return components;
+    }
+}
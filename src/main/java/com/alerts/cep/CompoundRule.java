@@ -0,0 +1,54 @@
+package com.alerts.cep;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compound alert rule: "A and B (and C ...) within a time span for the same patient". When alerts
+ * of every listed condition have been raised for a patient no further apart than the span, the
+ * {@link CompoundEventEngine} raises one alert with the rule's name.
+ */
+public class CompoundRule {
+    private final String name;
+    private final long withinMillis;
+    private final boolean replacesComponents;
+    private final List<String> conditions;
+
+    /**
+     * Constructs a CompoundRule.
+     *
+     * @param name               The condition of the compound alert.
+     * @param withinMillis       The largest time between the earliest and the latest matched alert.
+     * @param replacesComponents Whether the matched alerts are dropped in favour of the compound one.
+     * @param conditions         The conditions of the alerts to match, at least two and all different.
+     */
+    public CompoundRule(String name, long withinMillis, boolean replacesComponents, String... conditions) {
+        if (conditions.length < 2 || Arrays.stream(conditions).distinct().count() != conditions.length) {
+            throw new IllegalArgumentException("A compound rule needs at least two different conditions");
+        }
+        if (withinMillis < 0) {
+            throw new IllegalArgumentException("Time span must not be negative: " + withinMillis);
+        }
+        this.name = name;
+        this.withinMillis = withinMillis;
+        this.replacesComponents = replacesComponents;
+        this.conditions = Collections.unmodifiableList(Arrays.asList(conditions.clone()));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getWithinMillis() {
+        return withinMillis;
+    }
+
+    public boolean replacesComponents() {
+        return replacesComponents;
+    }
+
+    public List<String> getConditions() {
+        return conditions;
+    }
+}
@@ -26,6 +26,13 @@ public interface Alert {
      */
     long getTimestamp();
 
+    /**
+     * Retrieves the text this alert shows when triggered.
+     *
+     * @return The message, e.g. {@code "Alert: 1 Abnormal Heart Rate 1716653778734"}.
+     */
+    String getMessage();
+
     /**
      * Triggers the alert.
      */
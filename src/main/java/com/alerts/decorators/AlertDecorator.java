@@ -5,21 +5,46 @@ package com.alerts.decorators;
  */
 public class AlertDecorator extends BasicAlert {
 
-    private Alert decoratedAlert;
+    private final Alert decoratedAlert;
 
     /**
-     * Constructs a new AlertDecorator object.
+     * Constructs a new AlertDecorator object wrapping another alert.
+     *
+     * @param decoratedAlert the alert to decorate
+     */
+    public AlertDecorator(Alert decoratedAlert) {
+        super(decoratedAlert.getPatientId(), decoratedAlert.getCondition(), decoratedAlert.getTimestamp());
+        this.decoratedAlert = decoratedAlert;
+    }
+
+    /**
+     * Constructs a new AlertDecorator object decorating a basic alert.
      */
     public AlertDecorator(String patientId, String condition, long timestamp) {
-        super(patientId, condition, timestamp);
+        this(new BasicAlert(patientId, condition, timestamp));
+    }
+
+    /**
+     * Returns the decorated alert.
+     *
+     * @return the decorated alert
+     */
+    public Alert getDecoratedAlert() {
+        return decoratedAlert;
+    }
+
+    @Override
+    public String getMessage() {
+        return decoratedAlert.getMessage();
     }
 
     /**
      * Triggers the alert.
-     * This method delegates the triggering of the alert to the decorated alert object.
+     * The message of every decorator in the chain is printed as a single line, so alerts
+     * triggered from several threads do not interleave.
      */
     @Override
     public void triggerAlert() {
-        decoratedAlert.triggerAlert();
+        System.out.println(getMessage());
     }
 }
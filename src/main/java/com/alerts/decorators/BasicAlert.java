@@ -33,11 +33,16 @@ public class BasicAlert implements Alert {
         return timestamp;
     }
 
+    @Override
+    public String getMessage() {
+        return "Alert: " + this.patientId + " " + this.condition + " " + this.timestamp;
+    }
+
     /**
      * Triggers the alert.
      */
     @Override
     public void triggerAlert() {
-        System.out.println("Alert: " + this.patientId + " " + this.condition + " " + this.timestamp);
+        System.out.println(getMessage());
     }
 }
@@ -1,12 +1,23 @@
 package com.alerts.decorators;
 
+/**
+ * A decorator for alerts that need attention first, such as a condition that keeps repeating.
+ */
 public class PriorityAlertDecorator extends AlertDecorator implements Alert{
+    /**
+     * Constructs a new PriorityAlertDecorator object wrapping another alert.
+     *
+     * @param decoratedAlert the alert to decorate
+     */
+    public PriorityAlertDecorator(Alert decoratedAlert) {
+        super(decoratedAlert);
+    }
+
     public PriorityAlertDecorator(String patientId, String condition, long timestamp) {
         super(patientId, condition, timestamp);
     }
     @Override
-    public void triggerAlert() {
-        System.out.print("Priority ");
-        super.triggerAlert();
+    public String getMessage() {
+        return "Priority " + super.getMessage();
     }
 }
@@ -5,19 +5,38 @@ package com.alerts.decorators;
  */
 public class RepeatedAlertDecorator extends AlertDecorator {
 
+    private final int repeats;
+
+    /**
+     * Constructs a new RepeatedAlertDecorator object wrapping another alert.
+     *
+     * @param decoratedAlert the alert to decorate
+     * @param repeats        how many times the alert has been repeated, counting this one
+     */
+    public RepeatedAlertDecorator(Alert decoratedAlert, int repeats) {
+        super(decoratedAlert);
+        this.repeats = repeats;
+    }
+
     /**
      * Constructs a new RepeatedAlertDecorator object.
      */
     public RepeatedAlertDecorator(String patientId, String condition, long timestamp) {
         super(patientId, condition, timestamp);
+        this.repeats = 1;
     }
 
     /**
-     * Triggers the alert with a "Repeated" prefix.
+     * Returns how many times the alert has been repeated.
+     *
+     * @return the repeat count
      */
+    public int getRepeats() {
+        return repeats;
+    }
+
     @Override
-    public void triggerAlert() {
-        System.out.print("Repeated ");
-        super.triggerAlert();
+    public String getMessage() {
+        return "Repeated (" + repeats + "x) " + super.getMessage();
     }
 }
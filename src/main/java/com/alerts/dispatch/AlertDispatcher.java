@@ -0,0 +1,326 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorators.Alert;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Takes the triggering of alerts off the evaluating threads. {@link #dispatch(Alert)} only puts the
+ * alert on a lock-free queue; a dispatcher thread drains the queue in batches and hands each batch
+ * to every {@link AlertSink}, which delivers it on a thread of its own.
+ * <p>
+ * Each sink has a bounded queue of batches. A sink that cannot keep up fills its queue, after which
+ * the batches it misses are dropped and counted for that sink only, so a stalled nurse station does
+ * not hold up the console or the log. For every sink the dispatcher counts the delivered and dropped
+ * alerts and measures the delivery latency, from {@code dispatch} until the sink returned.
+ */
+public class AlertDispatcher {
+    private static final int DEFAULT_MAX_BATCH = 256;
+    private static final int DEFAULT_SINK_QUEUE = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100); // dispatch() and close() wake it sooner
+
+    private final Queue<Envelope> queue = new ConcurrentLinkedQueue<>();
+    private final List<Sink> sinks = new CopyOnWriteArrayList<>();
+    private final int maxBatch;
+    private final int sinkQueueCapacity;
+    private final ThreadFactory threadFactory;
+    private final Thread dispatcher;
+    private final LongAdder dispatched = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    /**
+     * Constructs an AlertDispatcher with default batch and queue sizes.
+     */
+    public AlertDispatcher() {
+        this(DEFAULT_MAX_BATCH, DEFAULT_SINK_QUEUE, Thread::new);
+    }
+
+    /**
+     * Constructs an AlertDispatcher.
+     *
+     * @param maxBatch          The largest number of alerts handed to a sink at once.
+     * @param sinkQueueCapacity The number of batches a sink may fall behind before it drops alerts.
+     * @param threadFactory     Creates the dispatcher thread and the thread of each sink.
+     */
+    public AlertDispatcher(int maxBatch, int sinkQueueCapacity, ThreadFactory threadFactory) {
+        if (maxBatch < 1 || sinkQueueCapacity < 1) {
+            throw new IllegalArgumentException("Batch size and sink queue capacity must be positive");
+        }
+        this.maxBatch = maxBatch;
+        this.sinkQueueCapacity = sinkQueueCapacity;
+        this.threadFactory = threadFactory;
+        this.dispatcher = newDaemonThread(this::run, "alert-dispatcher");
+        dispatcher.start();
+    }
+
+    /**
+     * Registers a sink and starts its thread. A sink only receives alerts dispatched after it was added.
+     *
+     * @param name The name used for this sink in the metrics and its thread.
+     * @param sink The sink.
+     */
+    public synchronized void addSink(String name, AlertSink sink) {
+        Sink added = new Sink(name, sink);
+        sinks.add(added);
+        added.thread.start();
+    }
+
+    /**
+     * Queues an alert for delivery to every sink. Never blocks.
+     *
+     * @param alert the alert
+     */
+    public void dispatch(Alert alert) {
+        if (!running) {
+            System.err.println("Alert dispatcher is closed, alert not delivered: " + alert.getMessage());
+            return;
+        }
+        queue.offer(new Envelope(alert, System.nanoTime()));
+        dispatched.increment();
+        if (idle) {
+            LockSupport.unpark(dispatcher);
+        }
+    }
+
+    /**
+     * Delivers the alerts already dispatched, then stops the threads and closes the sinks.
+     */
+    public synchronized void close() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+        join(dispatcher);
+        for (Sink sink : sinks) {
+            sink.closed = true; // not interrupted: a sink is left to finish the batch it is delivering
+            join(sink.thread);
+            sink.sink.close();
+        }
+    }
+
+    /**
+     * Returns the number of alerts dispatched so far.
+     *
+     * @return the alert count
+     */
+    public long getDispatched() {
+        return dispatched.sum();
+    }
+
+    /**
+     * Returns a snapshot of the per-sink metrics.
+     *
+     * @return one entry per sink, in registration order
+     */
+    public List<SinkMetrics> getMetrics() {
+        List<SinkMetrics> metrics = new ArrayList<>();
+        for (Sink sink : sinks) {
+            long delivered = sink.delivered.sum();
+            metrics.add(new SinkMetrics(sink.name, delivered, sink.dropped.sum(), sink.failed.sum(),
+                    delivered == 0 ? 0 : sink.latencyNanos.sum() / 1e6 / delivered, sink.maxLatencyNanos.get() / 1e6));
+        }
+        return metrics;
+    }
+
+    /**
+     * Prints the per-sink metrics to the console.
+     */
+    public void printMetrics() {
+        for (SinkMetrics metrics : getMetrics()) {
+            System.out.println(metrics);
+        }
+    }
+
+    /**
+     * The dispatcher thread: drains the queue in batches and offers them to the sinks.
+     */
+    private void run() {
+        while (true) {
+            List<Envelope> batch = new ArrayList<>(Math.min(maxBatch, 16));
+            Envelope envelope;
+            while (batch.size() < maxBatch && (envelope = queue.poll()) != null) {
+                batch.add(envelope);
+            }
+            if (!batch.isEmpty()) {
+                List<Envelope> shared = Collections.unmodifiableList(batch);
+                for (Sink sink : sinks) {
+                    if (!sink.batches.offer(shared)) {
+                        sink.dropped.add(shared.size()); // the sink is too far behind
+                    }
+                }
+                continue;
+            }
+            if (!running) {
+                return;
+            }
+            idle = true; // set before the queue is checked again, so dispatch() either sees it or is seen
+            if (queue.isEmpty() && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+            idle = false;
+        }
+    }
+
+    /**
+     * The thread of one sink: delivers its batches in order.
+     */
+    private void deliver(Sink sink) {
+        List<Alert> alerts = new ArrayList<>();
+        while (true) {
+            boolean closed = sink.closed; // read before polling, so no batch is left behind
+            List<Envelope> batch;
+            try {
+                batch = sink.batches.poll(IDLE_PARK_NANOS, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                if (closed) {
+                    return;
+                }
+                continue;
+            }
+            alerts.clear();
+            for (Envelope envelope : batch) {
+                alerts.add(envelope.alert);
+            }
+            try {
+                sink.sink.deliver(alerts);
+            } catch (Exception e) {
+                sink.failed.add(batch.size());
+                System.err.println("Alert sink " + sink.name + " failed: " + e.getMessage());
+                continue;
+            }
+            long now = System.nanoTime();
+            for (Envelope envelope : batch) {
+                long latency = now - envelope.dispatchedNanos;
+                sink.latencyNanos.add(latency);
+                sink.maxLatencyNanos.accumulateAndGet(latency, Math::max);
+            }
+            sink.delivered.add(batch.size());
+        }
+    }
+
+    private Thread newDaemonThread(Runnable task, String name) {
+        Thread thread = threadFactory.newThread(task);
+        thread.setName(name);
+        if (!thread.isDaemon()) {
+            thread.setDaemon(true); // virtual threads are always daemon threads
+        }
+        return thread;
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A dispatched alert and the time it was dispatched.
+     */
+    private static final class Envelope {
+        private final Alert alert;
+        private final long dispatchedNanos;
+
+        private Envelope(Alert alert, long dispatchedNanos) {
+            this.alert = alert;
+            this.dispatchedNanos = dispatchedNanos;
+        }
+    }
+
+    private class Sink {
+        private final String name;
+        private final AlertSink sink;
+        private final BlockingQueue<List<Envelope>> batches = new ArrayBlockingQueue<>(sinkQueueCapacity);
+        private final Thread thread;
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private volatile boolean closed;
+
+        private Sink(String name, AlertSink sink) {
+            this.name = name;
+            this.sink = sink;
+            this.thread = newDaemonThread(() -> deliver(this), "alert-sink-" + name);
+        }
+    }
+
+    /**
+     * Point-in-time metrics of one sink.
+     */
+    public static class SinkMetrics {
+        private final String name;
+        private final long delivered;
+        private final long dropped;
+        private final long failed;
+        private final double meanLatencyMillis;
+        private final double maxLatencyMillis;
+
+        private SinkMetrics(String name, long delivered, long dropped, long failed, double meanLatencyMillis,
+                            double maxLatencyMillis) {
+            this.name = name;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.failed = failed;
+            this.meanLatencyMillis = meanLatencyMillis;
+            this.maxLatencyMillis = maxLatencyMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        /**
+         * Returns how many alerts were dropped because the sink's queue was full.
+         *
+         * @return the dropped alert count
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Returns how many alerts were in batches the sink failed to deliver.
+         *
+         * @return the failed alert count
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        public double getMeanLatencyMillis() {
+            return meanLatencyMillis;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Alert sink: %s, delivered: %d, dropped: %d, failed: %d, latency: %.2f ms mean, %.2f ms max",
+                    name, delivered, dropped, failed, meanLatencyMillis, maxLatencyMillis);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorators.Alert;
+
+import java.util.List;
+
+/**
+ * A destination of the alerts an {@link AlertDispatcher} delivers, such as the console, a log file
+ * or the nurse stations. Each sink is called from a thread of its own, one batch at a time.
+ */
+public interface AlertSink {
+    /**
+     * Delivers a batch of alerts.
+     *
+     * @param alerts the alerts, oldest first
+     * @throws Exception if the alerts could not be delivered; the dispatcher reports it and goes on
+     */
+    void deliver(List<Alert> alerts) throws Exception;
+
+    /**
+     * Releases the resources of the sink after the last batch.
+     */
+    default void close() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorators.Alert;
+
+import java.util.List;
+
+/**
+ * Prints alerts to the console, a whole batch with a single write so that the lines of
+ * different alerts never interleave.
+ */
+public class ConsoleAlertSink implements AlertSink {
+
+    @Override
+    public void deliver(List<Alert> alerts) {
+        StringBuilder lines = new StringBuilder();
+        for (Alert alert : alerts) {
+            lines.append(alert.getMessage()).append(System.lineSeparator());
+        }
+        System.out.print(lines);
+        System.out.flush();
+    }
+}
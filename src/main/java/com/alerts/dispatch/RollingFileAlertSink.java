@@ -0,0 +1,77 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorators.Alert;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Appends alerts to {@code alerts-<millis>.log} files in a directory, starting a new file when the
+ * current one exceeds a size or an age. Every batch is flushed, so a crash loses at most the batch
+ * being written.
+ */
+public class RollingFileAlertSink implements AlertSink {
+    private final Path directory;
+    private final long maxBytes;
+    private final long maxMillis;
+    private BufferedWriter writer;
+    private long bytes;
+    private long openedMillis;
+
+    /**
+     * Constructs a RollingFileAlertSink.
+     *
+     * @param directory The directory of the log files, created if missing.
+     * @param maxBytes  The size after which a new file is started, or 0 for no limit.
+     * @param maxMillis The age after which a new file is started, or 0 for no limit.
+     * @throws IOException If the directory cannot be created.
+     */
+    public RollingFileAlertSink(Path directory, long maxBytes, long maxMillis) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        this.maxMillis = maxMillis;
+    }
+
+    @Override
+    public void deliver(List<Alert> alerts) throws IOException {
+        long now = System.currentTimeMillis();
+        if (writer == null || (maxBytes > 0 && bytes >= maxBytes) || (maxMillis > 0 && now - openedMillis >= maxMillis)) {
+            roll(now);
+        }
+        for (Alert alert : alerts) {
+            String line = alert.getMessage();
+            writer.write(line);
+            writer.newLine();
+            bytes += line.length() + 1;
+        }
+        writer.flush();
+    }
+
+    private void roll(long now) throws IOException {
+        close();
+        Path file = directory.resolve("alerts-" + now + ".log");
+        for (int suffix = 1; Files.exists(file); suffix++) {
+            file = directory.resolve("alerts-" + now + "-" + suffix + ".log");
+        }
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        bytes = 0;
+        openedMillis = now;
+    }
+
+    @Override
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing alert log: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.alerts.dispatch;
+
+import com.alerts.decorators.Alert;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Pushes alerts to the nurse stations connected over WebSocket. Every batch is sent to every
+ * station as one text frame of newline-separated alert messages. While no station is connected,
+ * a batch fails to deliver, so the dispatcher counts its alerts as failed rather than delivered.
+ */
+public class WebSocketAlertSink implements AlertSink {
+    private final StationServer server;
+
+    /**
+     * Constructs a WebSocketAlertSink and starts listening.
+     *
+     * @param port The port the nurse stations connect to.
+     */
+    public WebSocketAlertSink(int port) {
+        server = new StationServer(new InetSocketAddress(port));
+        server.setTcpNoDelay(true);
+        server.start();
+    }
+
+    /**
+     * Sends a batch of alerts to every connected station.
+     *
+     * @param alerts The alerts to send.
+     * @throws IllegalStateException If no nurse station is connected.
+     */
+    @Override
+    public void deliver(List<Alert> alerts) {
+        if (server.getConnections().isEmpty()) {
+            throw new IllegalStateException("No nurse station connected, " + alerts.size() + " alert(s) not delivered");
+        }
+        StringBuilder frame = new StringBuilder();
+        for (Alert alert : alerts) {
+            frame.append(frame.length() == 0 ? "" : "\n").append(alert.getMessage());
+        }
+        server.broadcast(frame.toString());
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.stop(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class StationServer extends WebSocketServer {
+
+        private StationServer(InetSocketAddress address) {
+            super(address);
+        }
+
+        @Override
+        public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            System.out.println("Nurse station connected: " + conn.getRemoteSocketAddress());
+        }
+
+        @Override
+        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            System.out.println("Nurse station disconnected: " + conn.getRemoteSocketAddress());
+        }
+
+        @Override
+        public void onMessage(WebSocket conn, String message) {
+            // stations only listen
+        }
+
+        @Override
+        public void onError(WebSocket conn, Exception ex) {
+            System.err.println("Alert WebSocket error: " + ex.getMessage());
+        }
+
+        @Override
+        public void onStart() {
+            System.out.println("Alert WebSocket server listening on port " + getPort());
+        }
+    }
+}
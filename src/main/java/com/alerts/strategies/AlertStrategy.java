@@ -4,6 +4,7 @@ import com.alerts.decorators.BasicAlert;
 import com.data_management.Patient;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * An interface for alert strategies.
@@ -18,4 +19,20 @@ public interface AlertStrategy {
      * @return A list of BasicAlert objects representing the alerts found.
      */
     List<BasicAlert> checkAlert(Patient patient, long startTime, long endTime);
+
+    /**
+     * Returns the record types this strategy reads.
+     *
+     * @return The record types, e.g. {@code "ECG"}.
+     */
+    Set<String> getRecordTypes();
+
+    /**
+     * Checks for alerts in series that have already been fetched, as done by a {@link StrategyRegistry}.
+     *
+     * @param patientId The ID of the patient the series belong to.
+     * @param series    The patient's records, containing at least the types of {@link #getRecordTypes()}.
+     * @return A list of BasicAlert objects representing the alerts found.
+     */
+    List<BasicAlert> checkSeries(String patientId, RecordSeries series);
 }
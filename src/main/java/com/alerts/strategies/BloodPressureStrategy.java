@@ -6,9 +6,9 @@ import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import static java.util.Comparator.comparingLong;
-import static java.util.stream.Collectors.toList;
+import java.util.Set;
 
 /**
  * An alert strategy for monitoring blood pressure.
@@ -46,20 +46,27 @@ public class BloodPressureStrategy implements AlertStrategy {
      * @return A list of BasicAlert objects representing the blood pressure alerts found.
      */
     private List<BasicAlert> checkBloodPressure(Patient patient, long startTime, long endTime) {
-        String patientId = patient.getId();
+        return checkSeries(patient.getId(),
+                RecordSeries.of(dataStorage.getRecords(patient.getId(), startTime, endTime), getRecordTypes()));
+    }
 
-        // Get systolic and diastolic records within the specified time range
-        List<PatientRecord> systolicRecords = dataStorage.getRecords(patientId, startTime, endTime)
-                .parallelStream()
-                .filter(record -> "SystolicPressure".equals(record.getRecordType()))
-                .sorted(comparingLong(PatientRecord::getTimestamp).reversed())
-                .collect(toList());
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("SystolicPressure", "DiastolicPressure");
+    }
 
-        List<PatientRecord> diastolicRecords = dataStorage.getRecords(patientId, startTime, endTime)
-                .parallelStream()
-                .filter(record -> "DiastolicPressure".equals(record.getRecordType()))
-                .sorted(comparingLong(PatientRecord::getTimestamp).reversed())
-                .collect(toList());
+    /**
+     * Checks the systolic and diastolic series for critical values and trends.
+     *
+     * @param patientId The ID of the patient the series belong to.
+     * @param series    The patient's records.
+     * @return A list of BasicAlert objects representing the blood pressure alerts found.
+     */
+    @Override
+    public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
+        // The checks walk the readings from the newest to the oldest
+        List<PatientRecord> systolicRecords = newestFirst(series.get("SystolicPressure"));
+        List<PatientRecord> diastolicRecords = newestFirst(series.get("DiastolicPressure"));
 
         // Variables for threshold values and trend detection
         final double TREND_THRESHOLD = 10;
@@ -79,6 +86,13 @@ public class BloodPressureStrategy implements AlertStrategy {
 
         return alerts;
     }
+
+    private static List<PatientRecord> newestFirst(List<PatientRecord> records) {
+        List<PatientRecord> reversed = new ArrayList<>(records);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
     /**
      * Checks for blood pressure alerts based on the given records and thresholds.
      *
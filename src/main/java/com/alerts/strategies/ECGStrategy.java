@@ -7,9 +7,7 @@ import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static java.util.Comparator.comparingLong;
+import java.util.Set;
 
 /**
  * A strategy for monitoring ECG data to detect abnormalities.
@@ -51,12 +49,18 @@ public class ECGStrategy implements AlertStrategy {
      * @return a list of BasicAlert objects representing the ECG alerts found
      */
     private List<BasicAlert> checkECG(Patient patient, long startTime, long endTime) {
-        String patientId = patient.getId();
-        List<PatientRecord> ECGRecords = dataStorage.getRecords(patientId, startTime, endTime)
-                .stream()
-                .filter(record -> "ECG".equals(record.getRecordType()))
-                .sorted(comparingLong(PatientRecord::getTimestamp))
-                .collect(Collectors.toList());
+        return checkSeries(patient.getId(),
+                RecordSeries.of(dataStorage.getRecords(patient.getId(), startTime, endTime), getRecordTypes()));
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("ECG");
+    }
+
+    @Override
+    public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
+        List<PatientRecord> ECGRecords = series.get("ECG");
 
         List<BasicAlert> basicAlerts = new ArrayList<>();
 
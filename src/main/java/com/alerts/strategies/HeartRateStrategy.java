@@ -1,32 +1,46 @@
 package com.alerts.strategies;
 
 import com.alerts.decorators.BasicAlert;
-import com.alerts.AlertGenerator;
+import com.alerts.streaming.HeartRateWindow;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static java.util.Comparator.comparingLong;
+import java.util.Set;
 
 /**
- * An alert strategy for monitoring heart rate abnormalities.
+ * An alert strategy for monitoring heart rate abnormalities. The rate is taken from the ECG
+ * records, one per beat, within a sliding time window.
  */
-public class HeartRateStrategy extends AlertGenerator implements AlertStrategy {
+public class HeartRateStrategy implements AlertStrategy {
 
     private final DataStorage dataStorage;
+    private final long windowMillis;
+    private final int minBeats;
 
     /**
-     * Constructs a HeartRateStrategy with the specified data storage.
+     * Constructs a HeartRateStrategy with the specified data storage, averaging the rate
+     * over the last minute.
      *
      * @param dataStorage the data storage system that provides access to patient data
      */
     public HeartRateStrategy(DataStorage dataStorage) {
-        super(dataStorage);
+        this(dataStorage, HeartRateWindow.DEFAULT_DURATION_MILLIS, HeartRateWindow.DEFAULT_MIN_BEATS);
+    }
+
+    /**
+     * Constructs a HeartRateStrategy with the specified data storage and window.
+     *
+     * @param dataStorage  the data storage system that provides access to patient data
+     * @param windowMillis the time over which the heart rate is averaged
+     * @param minBeats     the number of beats needed in the window before the rate is checked
+     */
+    public HeartRateStrategy(DataStorage dataStorage, long windowMillis, int minBeats) {
         this.dataStorage = dataStorage;
+        this.windowMillis = windowMillis;
+        this.minBeats = minBeats;
     }
 
     /**
@@ -51,57 +65,34 @@ public class HeartRateStrategy extends AlertGenerator implements AlertStrategy {
      * @return a list of basic alerts indicating any detected abnormalities
      */
     private List<BasicAlert> checkHeartRate(Patient patient, long startTime, long endTime) {
-        final int windowSize = 10;
+        return checkSeries(patient.getId(),
+                RecordSeries.of(dataStorage.getRecords(patient.getId(), startTime, endTime), getRecordTypes()));
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("ECG");
+    }
+
+    @Override
+    public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
         final double heartRateLowerBound = 50;
         final double heartRateUpperBound = 100;
 
-        String patientId = patient.getId();
-        List<PatientRecord> ECGRecords = dataStorage.getRecords(patientId, startTime, endTime)
-                .stream()
-                .filter(record -> "ECG".equals(record.getRecordType()))
-                .sorted(comparingLong(PatientRecord::getTimestamp))
-                .collect(Collectors.toList());
-
         List<BasicAlert> basicAlerts = new ArrayList<>();
 
-        // Abnormal Heart Rate Detection
-        int windowStart = 0;
-        for (int i = 0; i < ECGRecords.size(); i++) {
-            // Check if window is filled
-            if (i >= windowSize - 1) {
-                // Calculate BPM within the window
-                double bpm = calculateBPM(ECGRecords.subList(windowStart, i + 1));
-
-                // Check for abnormal heart rate
+        // Abnormal Heart Rate Detection: each record enters the window once and leaves it once
+        HeartRateWindow window = new HeartRateWindow(windowMillis, minBeats);
+        for (PatientRecord record : series.get("ECG")) {
+            window.add(record.getTimestamp());
+            if (window.isReady()) {
+                double bpm = window.getBpm();
                 if (bpm < heartRateLowerBound || bpm > heartRateUpperBound) {
-                    PatientRecord record = ECGRecords.get(i);
-                    BasicAlert basicAlert = new BasicAlert(patient.getId(), "Abnormal Heart Rate", record.getTimestamp());
-                    basicAlerts.add(basicAlert);
+                    basicAlerts.add(new BasicAlert(patientId, "Abnormal Heart Rate", record.getTimestamp()));
                 }
-                // Move the window by one data point
-                windowStart++;
             }
         }
 
         return basicAlerts;
     }
-
-    /**
-     * Calculates the beats per minute (BPM) for the given ECG data.
-     *
-     * @param ecgData the ECG data records
-     * @return the BPM calculated from the ECG data
-     */
-    public double calculateBPM(List<PatientRecord> ecgData) {
-        if (ecgData.isEmpty()) {
-            return 0;
-        }
-        long startTime = ecgData.get(0).getTimestamp();
-        long endTime = ecgData.get(ecgData.size() - 1).getTimestamp();
-        double durationMinutes = (endTime - startTime) / (1000.0 * 60.0);
-        if (durationMinutes == 0) {
-            return 0; // Prevent division by zero
-        }
-        return (ecgData.size() / durationMinutes); // returns bpm
-    }
 }
@@ -1,21 +1,19 @@
 package com.alerts.strategies;
 
 import com.alerts.decorators.BasicAlert;
-import com.alerts.AlertGenerator;
+import com.alerts.streaming.MonotonicWindow;
 import com.data_management.DataStorage;
 import com.data_management.Patient;
 import com.data_management.PatientRecord;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-
-import static java.util.Comparator.comparingLong;
+import java.util.Set;
 
 /**
  * An alert strategy for monitoring oxygen saturation levels.
  */
-public class OxygenSaturationStrategy extends AlertGenerator implements AlertStrategy {
+public class OxygenSaturationStrategy implements AlertStrategy {
 
     private final DataStorage dataStorage;
 
@@ -25,7 +23,6 @@ public class OxygenSaturationStrategy extends AlertGenerator implements AlertStr
      * @param dataStorage the data storage system that provides access to patient data
      */
     public OxygenSaturationStrategy(DataStorage dataStorage) {
-        super(dataStorage);
         this.dataStorage = dataStorage;
     }
 
@@ -51,43 +48,43 @@ public class OxygenSaturationStrategy extends AlertGenerator implements AlertStr
      * @return a list of basic alerts indicating any detected abnormalities
      */
     private List<BasicAlert> checkBloodSaturation(Patient patient, long startTime, long endTime) {
-        String patientId = patient.getId();
-        List<PatientRecord> saturationRecords = dataStorage.getRecords(patientId, startTime, endTime)
-                .stream()
-                .filter(record -> "Saturation".equals(record.getRecordType()))
-                .sorted(comparingLong(PatientRecord::getTimestamp))
-                .collect(Collectors.toList());
+        return checkSeries(patient.getId(),
+                RecordSeries.of(dataStorage.getRecords(patient.getId(), startTime, endTime), getRecordTypes()));
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("Saturation");
+    }
+
+    @Override
+    public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
+        List<PatientRecord> saturationRecords = series.get("Saturation");
 
         List<BasicAlert> alertsSpotted = new ArrayList<>();
         final double CRITICAL_THRESHOLD_SATURATION = 92;
         final double DROP_THRESHOLD_SATURATION = 5;
         final long WINDOW_TIME_MILLIS = 10 * 60 * 1000; // 10 minutes in milliseconds
 
-        for (int i = 0; i < saturationRecords.size(); i++) {
-            PatientRecord currentRecord = saturationRecords.get(i);
+        // The readings of the last 10 minutes, as a rolling maximum and minimum
+        MonotonicWindow window = new MonotonicWindow(WINDOW_TIME_MILLIS);
+        for (PatientRecord currentRecord : saturationRecords) {
+            double value = currentRecord.getMeasurementValue();
 
             // Check for low saturation alert
-            if (currentRecord.getMeasurementValue() < CRITICAL_THRESHOLD_SATURATION) {
+            if (value < CRITICAL_THRESHOLD_SATURATION) {
                 BasicAlert basicAlert = new BasicAlert(patientId, "Low Saturation of oxygen in blood", currentRecord.getTimestamp());
                 alertsSpotted.add(basicAlert);
             }
 
-            // Check for rapid drop in saturation within the 10-minute window
-            for (int j = i + 1; j < saturationRecords.size(); j++) {
-                PatientRecord nextRecord = saturationRecords.get(j);
-
-                // Check if the next record is within the 10-minute window
-                if (nextRecord.getTimestamp() - currentRecord.getTimestamp() > WINDOW_TIME_MILLIS) {
-                    break;
-                }
-
-                double drop = Math.abs(currentRecord.getMeasurementValue() - nextRecord.getMeasurementValue());
-                if (drop >= DROP_THRESHOLD_SATURATION) {
-                    BasicAlert basicAlert = new BasicAlert(patientId, "Rapid drop of oxygen in blood", nextRecord.getTimestamp());
-                    alertsSpotted.add(basicAlert);
-                    break; // Alert created, no need to check further within this window
-                }
+            // Check for a rapid change against the readings of the 10 minutes before; a rise
+            // is reported under the same condition, as it always has been
+            window.evict(currentRecord.getTimestamp());
+            if (window.dropTo(value) >= DROP_THRESHOLD_SATURATION || window.riseTo(value) >= DROP_THRESHOLD_SATURATION) {
+                BasicAlert basicAlert = new BasicAlert(patientId, "Rapid drop of oxygen in blood", currentRecord.getTimestamp());
+                alertsSpotted.add(basicAlert);
             }
+            window.add(currentRecord.getTimestamp(), value);
         }
         return alertsSpotted;
     }
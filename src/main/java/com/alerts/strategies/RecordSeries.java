@@ -0,0 +1,51 @@
+package com.alerts.strategies;
+
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Comparator.comparingLong;
+
+/**
+ * A patient's records split by record type, each series sorted by timestamp (oldest first).
+ * It is built in one pass over the records, so strategies sharing a record type share its series
+ * instead of each filtering and sorting the history again.
+ */
+public class RecordSeries {
+    private final Map<String, List<PatientRecord>> series = new HashMap<>();
+
+    /**
+     * Splits the given records into series.
+     *
+     * @param records     the records of one patient
+     * @param recordTypes the record types to keep; records of other types are skipped
+     * @return the series
+     */
+    public static RecordSeries of(List<PatientRecord> records, Set<String> recordTypes) {
+        RecordSeries result = new RecordSeries();
+        for (PatientRecord record : records) {
+            if (recordTypes.contains(record.getRecordType())) {
+                result.series.computeIfAbsent(record.getRecordType(), type -> new ArrayList<>()).add(record);
+            }
+        }
+        for (List<PatientRecord> list : result.series.values()) {
+            list.sort(comparingLong(PatientRecord::getTimestamp)); // nearly free when already in order
+        }
+        return result;
+    }
+
+    /**
+     * Returns the records of one type.
+     *
+     * @param recordType the record type, e.g. {@code "ECG"}
+     * @return the records sorted by timestamp, empty if there are none; not to be modified
+     */
+    public List<PatientRecord> get(String recordType) {
+        return series.getOrDefault(recordType, Collections.emptyList());
+    }
+}
@@ -0,0 +1,99 @@
+package com.alerts.strategies;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The alert strategies an {@link com.alerts.AlertGenerator} runs. Each evaluation reads the
+ * patient's records once, splits them into the series the registered strategies declared
+ * through {@link AlertStrategy#getRecordTypes()}, and hands the same series to every strategy.
+ * Strategies are kept across evaluations, so they must not hold per-evaluation state.
+ * The registry remembers which record types each alert condition was raised from.
+ */
+public class StrategyRegistry {
+    private final List<AlertStrategy> strategies = new ArrayList<>();
+    private final Set<String> recordTypes = new HashSet<>();
+    private final Map<String, Set<String>> conditionTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a strategy; strategies run in the order they were added.
+     *
+     * @param strategy the strategy
+     */
+    public void register(AlertStrategy strategy) {
+        strategies.add(strategy);
+        recordTypes.addAll(strategy.getRecordTypes());
+    }
+
+    /**
+     * Returns the registered strategies.
+     *
+     * @return the strategies in the order they run
+     */
+    public List<AlertStrategy> getStrategies() {
+        return Collections.unmodifiableList(strategies);
+    }
+
+    /**
+     * Runs every strategy on the patient's records within a time range.
+     *
+     * @param patient   the patient to evaluate
+     * @param startTime the start of the time range
+     * @param endTime   the end of the time range
+     * @return the alerts of all strategies, in strategy order
+     */
+    public List<BasicAlert> evaluate(Patient patient, long startTime, long endTime) {
+        return evaluate(patient, startTime, endTime, null);
+    }
+
+    /**
+     * Runs every strategy on the patient's records within a time range, and reports the newest
+     * record of every record type the strategies read.
+     *
+     * @param patient   the patient to evaluate
+     * @param startTime the start of the time range
+     * @param endTime   the end of the time range
+     * @param latest    receives the timestamp of the newest record of each record type, or null
+     * @return the alerts of all strategies, in strategy order
+     */
+    public List<BasicAlert> evaluate(Patient patient, long startTime, long endTime, Map<String, Long> latest) {
+        RecordSeries series = RecordSeries.of(patient.getRecords(startTime, endTime), recordTypes);
+        if (latest != null) {
+            for (String recordType : recordTypes) {
+                List<PatientRecord> records = series.get(recordType);
+                if (!records.isEmpty()) {
+                    latest.put(recordType, records.get(records.size() - 1).getTimestamp());
+                }
+            }
+        }
+        List<BasicAlert> alerts = new ArrayList<>();
+        for (AlertStrategy strategy : strategies) {
+            List<BasicAlert> found = strategy.checkSeries(patient.getId(), series);
+            for (BasicAlert alert : found) {
+                conditionTypes.putIfAbsent(alert.getCondition(), strategy.getRecordTypes());
+            }
+            alerts.addAll(found);
+        }
+        return alerts;
+    }
+
+    /**
+     * Returns the record types an alert condition is raised from.
+     *
+     * @param condition the condition of an alert
+     * @return the record types of the strategy that raised the condition, or an empty set if no
+     *         strategy has raised it yet
+     */
+    public Set<String> getRecordTypes(String condition) {
+        return conditionTypes.getOrDefault(condition, Collections.emptySet());
+    }
+}
@@ -0,0 +1,49 @@
+package com.alerts.strategies;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An alert strategy for alerts triggered manually by patients or staff, which arrive as
+ * "Alert" records with the value 1.
+ */
+public class TriggeredAlertStrategy implements AlertStrategy {
+    private final DataStorage dataStorage;
+
+    /**
+     * Constructs a TriggeredAlertStrategy with the specified data storage.
+     *
+     * @param dataStorage the data storage system that provides access to patient data
+     */
+    public TriggeredAlertStrategy(DataStorage dataStorage) {
+        this.dataStorage = dataStorage;
+    }
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("Alert");
+    }
+
+    @Override
+    public List<BasicAlert> checkAlert(Patient patient, long startTime, long endTime) {
+        return checkSeries(patient.getId(),
+                RecordSeries.of(dataStorage.getRecords(patient.getId(), startTime, endTime), getRecordTypes()));
+    }
+
+    @Override
+    public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
+        List<BasicAlert> alerts = new ArrayList<>();
+        for (PatientRecord record : series.get("Alert")) {
+            if (record.getMeasurementValue() == 1) {
+                alerts.add(new BasicAlert(patientId, "Triggered Alert", record.getTimestamp()));
+            }
+        }
+        return alerts;
+    }
+}
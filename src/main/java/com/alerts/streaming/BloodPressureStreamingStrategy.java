@@ -0,0 +1,72 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming counterpart of {@link com.alerts.strategies.BloodPressureStrategy}: raises
+ * "... critical value reached" when a systolic or diastolic reading leaves the safe range, and
+ * "... dangerous trend" when three consecutive readings change by more than 10 mmHg in the same
+ * direction.
+ */
+public class BloodPressureStreamingStrategy implements StreamingStrategy {
+    private static final double TREND_THRESHOLD = 10;
+    private static final int TREND_READINGS = 3;
+
+    private final Series systolic = new Series("SystolicPressure", 90, 180);
+    private final Series diastolic = new Series("DiastolicPressure", 60, 120);
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("SystolicPressure", "DiastolicPressure");
+    }
+
+    @Override
+    public void onRecord(PatientRecord record, Consumer<BasicAlert> alerts) {
+        Series series = record.getRecordType().equals(systolic.recordType) ? systolic : diastolic;
+        series.add(record, alerts);
+    }
+
+    /**
+     * The state of one of the two pressures.
+     */
+    private static final class Series {
+        private final String recordType;
+        private final double criticalMin;
+        private final double criticalMax;
+        private final Latch critical = new Latch();
+        private boolean hasLast;
+        private double last;
+        private double lastChange;
+        private int trendCounter;
+
+        private Series(String recordType, double criticalMin, double criticalMax) {
+            this.recordType = recordType;
+            this.criticalMin = criticalMin;
+            this.criticalMax = criticalMax;
+        }
+
+        private void add(PatientRecord record, Consumer<BasicAlert> alerts) {
+            double value = record.getMeasurementValue();
+            if (critical.update(value < criticalMin || value > criticalMax)) {
+                alerts.accept(new BasicAlert(record.getPatientId(), recordType + " critical value reached",
+                        record.getTimestamp()));
+            }
+            if (hasLast) {
+                double change = value - last;
+                boolean alternated = lastChange * change < 0;
+                lastChange = change;
+                trendCounter = Math.abs(change) > TREND_THRESHOLD && !alternated ? trendCounter + 1 : 0;
+                if (trendCounter == TREND_READINGS - 1) {
+                    alerts.accept(new BasicAlert(record.getPatientId(), recordType + " dangerous trend",
+                            record.getTimestamp()));
+                }
+            }
+            hasLast = true;
+            last = value;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming counterpart of {@link com.alerts.strategies.HeartRateStrategy} and
+ * {@link com.alerts.strategies.ECGStrategy}, which both read one ECG record per beat. Raises
+ * "Abnormal Heart Rate" when the rate in a {@link HeartRateWindow} leaves 50 to 100 bpm, and
+ * "Irregular Beat Pattern" when an interval differs by more than 10 % from the mean of the intervals
+ * before it. The batch strategy compares against the mean of the whole history, which a stream only
+ * knows up to the current record. Like the other streaming alerts, each one is raised when its
+ * condition starts to hold, so a run of irregular intervals raises one alert.
+ */
+public class EcgStreamingStrategy implements StreamingStrategy {
+    private static final double HEART_RATE_LOWER_BOUND = 50;
+    private static final double HEART_RATE_UPPER_BOUND = 100;
+    private static final double ALLOWED_VARIATION = 0.1;
+    private static final int MIN_INTERVALS = 2;
+
+    private final HeartRateWindow heartRate = new HeartRateWindow();
+    private long count;
+    private long lastBeat;
+    private long intervalSum;
+    private final Latch irregularBeat = new Latch();
+    private final Latch abnormalRate = new Latch();
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("ECG");
+    }
+
+    @Override
+    public void onRecord(PatientRecord record, Consumer<BasicAlert> alerts) {
+        long timestamp = record.getTimestamp();
+        if (count > 0) {
+            long interval = timestamp - lastBeat;
+            long intervals = count - 1;
+            if (intervals >= MIN_INTERVALS) {
+                double mean = intervalSum / (double) intervals;
+                if (irregularBeat.update(Math.abs(interval - mean) > mean * ALLOWED_VARIATION)) {
+                    alerts.accept(new BasicAlert(record.getPatientId(), "Irregular Beat Pattern", timestamp));
+                }
+            }
+            intervalSum += interval;
+        }
+        lastBeat = timestamp;
+        count++;
+
+        heartRate.add(timestamp);
+        if (heartRate.isReady()) {
+            double bpm = heartRate.getBpm();
+            if (abnormalRate.update(bpm < HEART_RATE_LOWER_BOUND || bpm > HEART_RATE_UPPER_BOUND)) {
+                alerts.accept(new BasicAlert(record.getPatientId(), "Abnormal Heart Rate", timestamp));
+            }
+        }
+    }
+}
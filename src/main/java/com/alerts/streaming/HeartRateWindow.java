@@ -0,0 +1,102 @@
+package com.alerts.streaming;
+
+/**
+ * The heart rate over a sliding time window of beat timestamps. Each beat enters the window once and
+ * leaves it once, so adding a beat takes amortized constant time and the rate is read without
+ * rescanning the window. Beats must be added in timestamp order.
+ * <p>
+ * The rate is only meaningful once enough beats are in the window; {@link #isReady()} tells when.
+ * Used both by the batch {@link com.alerts.strategies.HeartRateStrategy}, which feeds it a sorted
+ * series, and by the {@link EcgStreamingStrategy}.
+ */
+public class HeartRateWindow {
+    /** The default window: the rate is averaged over the last minute. */
+    public static final long DEFAULT_DURATION_MILLIS = 60_000;
+    /** The default number of beats needed before a rate is reported, as many as the old fixed window held. */
+    public static final int DEFAULT_MIN_BEATS = 10;
+
+    private final long durationMillis;
+    private final int minBeats;
+    private long[] beats = new long[16]; // ring of the timestamps in the window
+    private int head;
+    private int size;
+
+    /**
+     * Constructs a HeartRateWindow with the default duration and minimum beat count.
+     */
+    public HeartRateWindow() {
+        this(DEFAULT_DURATION_MILLIS, DEFAULT_MIN_BEATS);
+    }
+
+    /**
+     * Constructs a HeartRateWindow.
+     *
+     * @param durationMillis Beats older than this, relative to the newest beat, leave the window.
+     * @param minBeats       The number of beats the window must hold before a rate is reported, at least 2.
+     */
+    public HeartRateWindow(long durationMillis, int minBeats) {
+        if (durationMillis <= 0 || minBeats < 2) {
+            throw new IllegalArgumentException("Need a positive duration and at least 2 beats");
+        }
+        this.durationMillis = durationMillis;
+        this.minBeats = minBeats;
+    }
+
+    /**
+     * Adds a beat and drops the beats that have left the window.
+     *
+     * @param timestamp The time of the beat.
+     */
+    public void add(long timestamp) {
+        long oldest = timestamp - durationMillis;
+        while (size > 0 && beats[head] < oldest) {
+            head = (head + 1) & (beats.length - 1);
+            size--;
+        }
+        if (size == beats.length) {
+            grow();
+        }
+        beats[(head + size) & (beats.length - 1)] = timestamp;
+        size++;
+    }
+
+    /**
+     * Returns the number of beats in the window.
+     *
+     * @return the beat count
+     */
+    public int getBeatCount() {
+        return size;
+    }
+
+    /**
+     * Returns whether the window holds enough beats for {@link #getBpm()} to be meaningful.
+     *
+     * @return true once at least the minimum number of beats is in the window
+     */
+    public boolean isReady() {
+        return size >= minBeats;
+    }
+
+    /**
+     * Returns the heart rate from the intervals between the beats in the window.
+     *
+     * @return the rate in beats per minute, or 0 if the window spans no time
+     */
+    public double getBpm() {
+        if (size < 2) {
+            return 0;
+        }
+        long span = beats[(head + size - 1) & (beats.length - 1)] - beats[head];
+        return span == 0 ? 0 : (size - 1) * 60_000.0 / span;
+    }
+
+    private void grow() {
+        long[] newBeats = new long[beats.length * 2];
+        for (int i = 0; i < size; i++) {
+            newBeats[i] = beats[(head + i) & (beats.length - 1)];
+        }
+        beats = newBeats;
+        head = 0;
+    }
+}
@@ -0,0 +1,45 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Raises "Hypotensive Hypoxemia Alert" when a systolic pressure below 90 mmHg and a saturation below
+ * 92 % are read within 6 seconds (0.1 minutes) of each other, the window the batch
+ * {@link com.alerts.AlertGenerator} uses for the compound alert.
+ */
+public class HypotensiveHypoxemiaStreamingStrategy implements StreamingStrategy {
+    private static final double SYSTOLIC_THRESHOLD = 90;
+    private static final double SATURATION_THRESHOLD = 92;
+    private static final long WINDOW_MILLIS = 6_000;
+
+    private long lastLowSystolic = Long.MIN_VALUE;
+    private long lastLowSaturation = Long.MIN_VALUE;
+    private boolean active; // raised, and both signals have stayed low since
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("SystolicPressure", "Saturation");
+    }
+
+    @Override
+    public void onRecord(PatientRecord record, Consumer<BasicAlert> alerts) {
+        long timestamp = record.getTimestamp();
+        boolean systolic = record.getRecordType().equals("SystolicPressure");
+        boolean low = record.getMeasurementValue() < (systolic ? SYSTOLIC_THRESHOLD : SATURATION_THRESHOLD);
+        if (systolic) {
+            lastLowSystolic = low ? timestamp : Long.MIN_VALUE;
+        } else {
+            lastLowSaturation = low ? timestamp : Long.MIN_VALUE;
+        }
+        if (lastLowSystolic == Long.MIN_VALUE || lastLowSaturation == Long.MIN_VALUE) {
+            active = false; // one of the signals has recovered
+        } else if (!active && Math.abs(lastLowSystolic - lastLowSaturation) <= WINDOW_MILLIS) {
+            active = true;
+            alerts.accept(new BasicAlert(record.getPatientId(), "Hypotensive Hypoxemia Alert", timestamp));
+        }
+    }
+}
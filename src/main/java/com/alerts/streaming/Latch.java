@@ -0,0 +1,21 @@
+package com.alerts.streaming;
+
+/**
+ * Turns a condition that holds over many records into a single alert: it fires when the condition
+ * starts to hold and again only after the condition has cleared in between.
+ */
+final class Latch {
+    private boolean active;
+
+    /**
+     * Updates the latch with the condition as seen by the latest record.
+     *
+     * @param condition whether the condition holds now
+     * @return true if the condition has just started to hold
+     */
+    boolean update(boolean condition) {
+        boolean fired = condition && !active;
+        active = condition;
+        return fired;
+    }
+}
@@ -0,0 +1,175 @@
+package com.alerts.streaming;
+
+/**
+ * The minimum and maximum of the values seen within a sliding time window, kept in two monotonic
+ * deques. Adding a value and reading the extremes take amortized constant time, however many values
+ * the window holds. Values must be added in timestamp order.
+ * <p>
+ * To compare a new value with the window before it, call {@link #evict(long)} with its timestamp,
+ * read {@link #dropTo(double)} and {@link #riseTo(double)}, then {@link #add(long, double)} it.
+ */
+public class MonotonicWindow {
+    private final long spanMillis;
+    private final Deque maxima = new Deque(); // values decreasing from head to tail
+    private final Deque minima = new Deque(); // values increasing from head to tail
+
+    /**
+     * Constructs a MonotonicWindow.
+     *
+     * @param spanMillis Values older than this, relative to the newest value, leave the window.
+     */
+    public MonotonicWindow(long spanMillis) {
+        this.spanMillis = spanMillis;
+    }
+
+    /**
+     * Slides the window to a new value's timestamp and adds the value.
+     *
+     * @param timestamp The time of the value.
+     * @param value     The value.
+     */
+    public void add(long timestamp, double value) {
+        evict(timestamp);
+        while (!maxima.isEmpty() && maxima.lastValue() <= value) {
+            maxima.removeLast();
+        }
+        maxima.addLast(timestamp, value);
+        while (!minima.isEmpty() && minima.lastValue() >= value) {
+            minima.removeLast();
+        }
+        minima.addLast(timestamp, value);
+    }
+
+    /**
+     * Slides the window so that it ends at the given time, dropping older values.
+     *
+     * @param timestamp The end of the window.
+     */
+    public void evict(long timestamp) {
+        long oldest = timestamp - spanMillis;
+        while (!maxima.isEmpty() && maxima.firstTime() < oldest) {
+            maxima.removeFirst();
+        }
+        while (!minima.isEmpty() && minima.firstTime() < oldest) {
+            minima.removeFirst();
+        }
+    }
+
+    public boolean isEmpty() {
+        return maxima.isEmpty();
+    }
+
+    /**
+     * Returns the largest value in the window.
+     *
+     * @return the maximum, or NaN if the window is empty
+     */
+    public double max() {
+        return maxima.isEmpty() ? Double.NaN : maxima.firstValue();
+    }
+
+    /**
+     * Returns the smallest value in the window.
+     *
+     * @return the minimum, or NaN if the window is empty
+     */
+    public double min() {
+        return minima.isEmpty() ? Double.NaN : minima.firstValue();
+    }
+
+    /**
+     * Returns the time of the largest value in the window, the latest one if it occurs more than once.
+     *
+     * @return the timestamp, or {@code Long.MIN_VALUE} if the window is empty
+     */
+    public long maxTime() {
+        return maxima.isEmpty() ? Long.MIN_VALUE : maxima.firstTime();
+    }
+
+    /**
+     * Returns the time of the smallest value in the window, the latest one if it occurs more than once.
+     *
+     * @return the timestamp, or {@code Long.MIN_VALUE} if the window is empty
+     */
+    public long minTime() {
+        return minima.isEmpty() ? Long.MIN_VALUE : minima.firstTime();
+    }
+
+    /**
+     * Returns how far a value lies below the largest value in the window.
+     *
+     * @param value The value, typically the next one to be added.
+     * @return the drop from the maximum, or 0 if the window is empty
+     */
+    public double dropTo(double value) {
+        return maxima.isEmpty() ? 0 : maxima.firstValue() - value;
+    }
+
+    /**
+     * Returns how far a value lies above the smallest value in the window.
+     *
+     * @param value The value, typically the next one to be added.
+     * @return the rise from the minimum, or 0 if the window is empty
+     */
+    public double riseTo(double value) {
+        return minima.isEmpty() ? 0 : value - minima.firstValue();
+    }
+
+    /**
+     * A growable ring buffer of timestamp and value pairs.
+     */
+    private static final class Deque {
+        private long[] times = new long[8];
+        private double[] values = new double[8];
+        private int head;
+        private int size;
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private long firstTime() {
+            return times[head];
+        }
+
+        private double firstValue() {
+            return values[head];
+        }
+
+        private double lastValue() {
+            return values[(head + size - 1) & (times.length - 1)];
+        }
+
+        private void addLast(long time, double value) {
+            if (size == times.length) {
+                grow();
+            }
+            int index = (head + size) & (times.length - 1);
+            times[index] = time;
+            values[index] = value;
+            size++;
+        }
+
+        private void removeFirst() {
+            head = (head + 1) & (times.length - 1);
+            size--;
+        }
+
+        private void removeLast() {
+            size--;
+        }
+
+        private void grow() {
+            long[] newTimes = new long[times.length * 2];
+            double[] newValues = new double[values.length * 2];
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) & (times.length - 1);
+                newTimes[i] = times[index];
+                newValues[i] = values[index];
+            }
+            times = newTimes;
+            values = newValues;
+            head = 0;
+        }
+    }
+}
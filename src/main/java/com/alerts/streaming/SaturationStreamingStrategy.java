@@ -0,0 +1,43 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Streaming counterpart of {@link com.alerts.strategies.OxygenSaturationStrategy}: raises
+ * "Low Saturation of oxygen in blood" below 92 % and "Rapid drop of oxygen in blood" when a reading
+ * differs by 5 points or more from any reading of the previous 10 minutes. The earlier readings are
+ * kept as the minimum and maximum of a {@link MonotonicWindow}.
+ */
+public class SaturationStreamingStrategy implements StreamingStrategy {
+    private static final double CRITICAL_THRESHOLD = 92;
+    private static final double DROP_THRESHOLD = 5;
+    private static final long WINDOW_MILLIS = 10 * 60 * 1000;
+
+    private final MonotonicWindow window = new MonotonicWindow(WINDOW_MILLIS);
+    private final Latch low = new Latch();
+    private final Latch rapidDrop = new Latch();
+
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("Saturation");
+    }
+
+    @Override
+    public void onRecord(PatientRecord record, Consumer<BasicAlert> alerts) {
+        double value = record.getMeasurementValue();
+        long timestamp = record.getTimestamp();
+        if (low.update(value < CRITICAL_THRESHOLD)) {
+            alerts.accept(new BasicAlert(record.getPatientId(), "Low Saturation of oxygen in blood", timestamp));
+        }
+        window.evict(timestamp);
+        boolean changed = window.dropTo(value) >= DROP_THRESHOLD || window.riseTo(value) >= DROP_THRESHOLD;
+        if (rapidDrop.update(changed)) {
+            alerts.accept(new BasicAlert(record.getPatientId(), "Rapid drop of oxygen in blood", timestamp));
+        }
+        window.add(timestamp, value);
+    }
+}
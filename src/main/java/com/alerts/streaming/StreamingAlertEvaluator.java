@@ -0,0 +1,114 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import com.data_management.RecordListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Evaluates the alert conditions incrementally, one record at a time, as records are appended to a
+ * {@link DataStorage}. Unlike {@link com.alerts.AlertGenerator#evaluateData}, which rescans a
+ * patient's whole history on every call, each record only updates the state of the strategies
+ * consuming its type, so the cost per record does not grow with the history.
+ * <p>
+ * Every patient gets its own instances of the registered strategies when its first record arrives.
+ * Records of different patients may arrive from different threads; those of one patient are
+ * handled one at a time.
+ */
+public class StreamingAlertEvaluator implements RecordListener {
+    private final Consumer<BasicAlert> sink;
+    private final List<Supplier<StreamingStrategy>> strategies = new ArrayList<>();
+    private final Map<String, PatientState> patients = new ConcurrentHashMap<>();
+    private final LongAdder records = new LongAdder();
+
+    /**
+     * Constructs an evaluator with the default strategies that triggers every alert it raises.
+     */
+    public StreamingAlertEvaluator() {
+        this(BasicAlert::triggerAlert);
+    }
+
+    /**
+     * Constructs an evaluator with the default strategies.
+     *
+     * @param sink receives the alerts raised
+     */
+    public StreamingAlertEvaluator(Consumer<BasicAlert> sink) {
+        this.sink = sink;
+        register(BloodPressureStreamingStrategy::new);
+        register(SaturationStreamingStrategy::new);
+        register(EcgStreamingStrategy::new);
+        register(HypotensiveHypoxemiaStreamingStrategy::new);
+        register(TriggeredAlertStreamingStrategy::new);
+    }
+
+    /**
+     * Adds a strategy. Must be called before the first record arrives.
+     *
+     * @param factory creates the strategy instance of each patient
+     * @throws IllegalStateException if records have already been evaluated
+     */
+    public synchronized void register(Supplier<StreamingStrategy> factory) {
+        if (!patients.isEmpty()) {
+            throw new IllegalStateException("Strategies must be registered before records arrive");
+        }
+        strategies.add(factory);
+    }
+
+    /**
+     * Starts evaluating the records added to a storage from now on.
+     *
+     * @param storage the storage to listen to
+     */
+    public void attach(DataStorage storage) {
+        storage.addRecordListener(this);
+    }
+
+    @Override
+    public void recordAdded(PatientRecord record) {
+        PatientState state = patients.computeIfAbsent(record.getPatientId(), id -> new PatientState(strategies));
+        List<StreamingStrategy> consumers = state.byType.get(record.getRecordType());
+        if (consumers != null) {
+            synchronized (state) {
+                for (StreamingStrategy strategy : consumers) {
+                    strategy.onRecord(record, sink);
+                }
+            }
+        }
+        records.increment();
+    }
+
+    /**
+     * Returns the number of records evaluated so far.
+     *
+     * @return the record count
+     */
+    public long getRecordCount() {
+        return records.sum();
+    }
+
+    /**
+     * The strategy instances of one patient, indexed by the record types they consume.
+     */
+    private static final class PatientState {
+        private final Map<String, List<StreamingStrategy>> byType = new HashMap<>();
+
+        private PatientState(List<Supplier<StreamingStrategy>> factories) {
+            for (Supplier<StreamingStrategy> factory : factories) {
+                StreamingStrategy strategy = factory.get();
+                for (String type : strategy.getRecordTypes()) {
+                    byType.computeIfAbsent(type, t -> new ArrayList<>()).add(strategy);
+                }
+            }
+        }
+    }
+}
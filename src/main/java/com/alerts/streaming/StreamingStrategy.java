@@ -0,0 +1,30 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * An alert strategy that checks one patient's records as they arrive. An instance belongs to a
+ * single patient and keeps whatever it needs of the past (windows, counters, last values) in its
+ * own fields, so each record is handled in constant time regardless of the length of the history.
+ * Records are expected in timestamp order.
+ */
+public interface StreamingStrategy {
+    /**
+     * Returns the record types this strategy consumes; it is only called with records of these types.
+     *
+     * @return the record types, e.g. {@code "ECG"}
+     */
+    Set<String> getRecordTypes();
+
+    /**
+     * Updates the strategy with a new record of the patient.
+     *
+     * @param record the new record
+     * @param alerts receives the alerts the record raises
+     */
+    void onRecord(PatientRecord record, Consumer<BasicAlert> alerts);
+}
@@ -0,0 +1,25 @@
+package com.alerts.streaming;
+
+import com.alerts.decorators.BasicAlert;
+import com.data_management.PatientRecord;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Forwards alerts triggered by staff or patients ({@code Alert} records with value 1) as
+ * "Triggered Alert".
+ */
+public class TriggeredAlertStreamingStrategy implements StreamingStrategy {
+    @Override
+    public Set<String> getRecordTypes() {
+        return Set.of("Alert");
+    }
+
+    @Override
+    public void onRecord(PatientRecord record, Consumer<BasicAlert> alerts) {
+        if (record.getMeasurementValue() == 1) {
+            alerts.accept(new BasicAlert(record.getPatientId(), "Triggered Alert", record.getTimestamp()));
+        }
+    }
+}
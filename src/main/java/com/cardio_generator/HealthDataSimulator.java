@@ -10,15 +10,21 @@ import com.cardio_generator.generators.BloodPressureDataGenerator;
 import com.cardio_generator.generators.BloodSaturationDataGenerator;
 import com.cardio_generator.generators.BloodLevelsDataGenerator;
 import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.EcgWaveformGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
 import com.cardio_generator.outputs.ConsoleOutputStrategy;
+import com.cardio_generator.outputs.CountingOutputStrategy;
+import com.cardio_generator.outputs.FanOutOutputStrategy;
 import com.cardio_generator.outputs.FileOutputStrategy;
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.RotationPolicy;
 import com.cardio_generator.outputs.TcpOutputStrategy;
 import com.cardio_generator.outputs.WebSocketOutputStrategy;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -32,21 +38,134 @@ public class HealthDataSimulator {
     private static HealthDataSimulator instance;
 
     private static int patientCount = 100; // Default number of patients
+    private static int firstPatientId = 1; // patients firstPatientId..patientCount are simulated
+    private static boolean patientRange; // --patient-range given: one of several processes
+    private static int port = 8080; // port of network outputs given without one
+    private static long startAtMillis; // 0 starts right away; otherwise the wall clock time to start at
+    private static int statsSeconds; // 0 prints no rate statistics
+    private static CountingOutputStrategy sampleCounter;
     private static ScheduledExecutorService scheduler;
+    private static PatientScheduler patientScheduler; // null schedules every patient task on the pool
+    private static int tickWorkers; // 0 keeps one thread per patient task; otherwise workers of a TickScheduler
+    private static boolean virtualThreads;
 
     //private static OutputStrategy outputStrategy = new FileOutputStrategy("src/test/java/data_management");
-    private static OutputStrategy outputStrategy = new WebSocketOutputStrategy(8080); // Default output strategy
-    private static final Random random = new Random();
+    private static OutputStrategy outputStrategy; // Defaults to WebSocket output on port 8080
+    private static FanOutOutputStrategy fanOutStrategy; // set when several outputs are written
+    private static final List<String> outputArgs = new ArrayList<>();
+    private static FileOutputStrategy.Durability fileDurability = FileOutputStrategy.Durability.NONE;
+    private static RotationPolicy fileRotation; // null appends to a single file per label
+    private static long webSocketBatchMillis; // 0 sends every sample in its own frame
+    private static Random random = new Random();
+    private static Long seed; // null draws a fresh random stream per patient
+    private static Long startTimeMillis; // null starts at the wall clock time
+    private static SimulationClock clock = SimulationClock.SYSTEM;
+    private static Long fastRate; // null runs in real time; 0 as fast as the outputs accept
+    private static int ecgRateHz; // 0 writes one ECG value per second
+    private static double scenarioFraction; // share of patients with an injected deterioration
+    private static String groundTruthFile; // null does not write the scenarios' onsets
+    private static final long SCENARIO_ONSET_WINDOW_MILLIS = 10 * 60_000L;
+    private static final long DEFAULT_SEEDED_START_MILLIS = 1_700_000_000_000L;
 
     public static void main(String[] args) throws IOException {
         parseArguments(args);
+        if (statsSeconds > 0) {
+            sampleCounter = new CountingOutputStrategy(outputStrategy);
+            outputStrategy = sampleCounter;
+        }
 
-        scheduler = Executors.newScheduledThreadPool(patientCount * 4);
+        if (virtualThreads) {
+            patientScheduler = new VirtualThreadScheduler(outputStrategy, clock);
+        } else if (tickWorkers > 0) {
+            TickScheduler tickScheduler = new TickScheduler(outputStrategy, tickWorkers, 10, 4096, clock);
+            if (fastRate != null) {
+                tickScheduler.setFastMode(fastRate);
+                startStatsReporter(tickScheduler);
+            }
+            patientScheduler = tickScheduler;
+        } else {
+            scheduler = Executors.newScheduledThreadPool((patientCount - firstPatientId + 1) * 4);
+        }
+        stopOnExit();
 
         List<Integer> patientIds = initializePatientIds(patientCount);
-        Collections.shuffle(patientIds); // Randomize the order of patient IDs
+        Collections.shuffle(patientIds, random); // Randomize the order of patient IDs
 
+        waitForStartTime();
         scheduleTasksForPatients(patientIds);
+        if (patientScheduler != null) {
+            patientScheduler.start();
+        }
+        if (sampleCounter != null) {
+            startRateReporter();
+        }
+    }
+
+    /**
+     * Stops the simulation when the JVM exits: the scheduler first, so that no generator writes to a
+     * closed output, then the output, so that buffered samples are written and connections released.
+     * The load statistics and the fan-out metrics are printed once everything has drained.
+     */
+    private static void stopOnExit() {
+        PatientScheduler tasks = patientScheduler;
+        ScheduledExecutorService executor = scheduler;
+        OutputStrategy output = outputStrategy;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (tasks != null) {
+                tasks.close();
+            } else {
+                executor.shutdownNow();
+                try {
+                    executor.awaitTermination(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            output.close();
+            if (tasks instanceof TickScheduler && fastRate != null) {
+                ((TickScheduler) tasks).printStats();
+            }
+            if (fanOutStrategy != null) {
+                fanOutStrategy.printMetrics();
+            }
+        }, "simulator-stop"));
+    }
+
+    /**
+     * Waits until the wall clock time given with {@code --start-at}, so that the processes started by a
+     * {@link SimulatorCoordinator} begin generating together.
+     */
+    private static void waitForStartTime() {
+        long wait;
+        while ((wait = startAtMillis - System.currentTimeMillis()) > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prints the number of samples written so far every {@code --stats} seconds, as a line a
+     * {@link SimulatorCoordinator} collects.
+     */
+    private static void startRateReporter() {
+        long startNanos = System.nanoTime();
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(statsSeconds * 1000L);
+                    System.out.println(SimulatorCoordinator.formatStats(sampleCounter.getSamples(),
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "rate-stats");
+        reporter.setDaemon(true);
+        reporter.start();
     }
 
     /**
@@ -84,39 +203,164 @@ public class HealthDataSimulator {
                         }
                     }
                     break;
-                case "--output":
+                case "--patient-range":
                     if (i + 1 < args.length) {
-                        String outputArg = args[++i];
-                        if (outputArg.equals("console")) {
-                            outputStrategy = new ConsoleOutputStrategy();
-                        } else if (outputArg.startsWith("file:")) {
-                            String baseDirectory = outputArg.substring(5);
-                            Path outputPath = Paths.get(baseDirectory);
-                            if (!Files.exists(outputPath)) {
-                                Files.createDirectories(outputPath);
+                        String range = args[++i];
+                        int dash = range.indexOf('-');
+                        try {
+                            int first = Integer.parseInt(range.substring(0, dash));
+                            int last = Integer.parseInt(range.substring(dash + 1));
+                            if (first < 1 || last < first) {
+                                throw new NumberFormatException(range);
                             }
-                            outputStrategy = new FileOutputStrategy(baseDirectory);
-                        } else if (outputArg.startsWith("websocket:")) {
+                            firstPatientId = first;
+                            patientCount = last;
+                            patientRange = true;
+                        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                            System.err.println("Error: Invalid patient range. Using patients 1 to " + patientCount + ".");
+                        }
+                    }
+                    break;
+                case "--port":
+                    if (i + 1 < args.length) {
+                        try {
+                            port = Integer.parseInt(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid port. Using default value: " + port);
+                        }
+                    }
+                    break;
+                case "--start-at":
+                    if (i + 1 < args.length) {
+                        try {
+                            startAtMillis = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid start time. Starting right away.");
+                        }
+                    }
+                    break;
+                case "--stats":
+                    if (i + 1 < args.length) {
+                        try {
+                            statsSeconds = Math.max(1, Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid statistics interval. No statistics are printed.");
+                        }
+                    }
+                    break;
+                case "--output":
+                    if (i + 1 < args.length) {
+                        outputArgs.add(args[++i]);
+                    }
+                    break;
+                case "--scheduler":
+                    if (i + 1 < args.length) {
+                        String mode = args[++i];
+                        if (mode.equals("wheel")) {
+                            tickWorkers = Runtime.getRuntime().availableProcessors();
+                        } else if (mode.startsWith("wheel:")) {
                             try {
-                                int port = Integer.parseInt(outputArg.substring(10));
-                                // Initialize your WebSocket output strategy here
-                                outputStrategy = new WebSocketOutputStrategy(port);
-                                System.out.println("WebSocket output will be on port: " + port);
+                                tickWorkers = Math.max(1, Integer.parseInt(mode.substring(6)));
                             } catch (NumberFormatException e) {
-                                System.err.println(
-                                        "Invalid port for WebSocket output. Please specify a valid port number.");
+                                System.err.println("Error: Invalid worker count. Using one per processor.");
+                                tickWorkers = Runtime.getRuntime().availableProcessors();
                             }
-                        } else if (outputArg.startsWith("tcp:")) {
-                            try {
-                                int port = Integer.parseInt(outputArg.substring(4));
-                                // Initialize your TCP socket output strategy here
-                                outputStrategy = new TcpOutputStrategy(port);
-                                System.out.println("TCP socket output will be on port: " + port);
-                            } catch (NumberFormatException e) {
-                                System.err.println("Invalid port for TCP output. Please specify a valid port number.");
+                        } else if (mode.equals("virtual")) {
+                            if (VirtualThreads.isAvailable()) {
+                                virtualThreads = true;
+                            } else {
+                                System.err.println("Error: Virtual threads need Java 21 or later. Using the wheel.");
+                                tickWorkers = Runtime.getRuntime().availableProcessors();
+                            }
+                        } else if (!mode.equals("executor")) {
+                            System.err.println("Error: Unknown scheduler '" + mode + "'. Using executor.");
+                        }
+                    }
+                    break;
+                case "--websocket-batch":
+                    if (i + 1 < args.length) {
+                        try {
+                            webSocketBatchMillis = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid batch window. Sending every sample at once.");
+                        }
+                    }
+                    break;
+                case "--file-rotation":
+                    if (i + 1 < args.length) {
+                        try {
+                            fileRotation = RotationPolicy.parse(args[++i]);
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: " + e.getMessage() + ". File rotation disabled.");
+                        }
+                    }
+                    break;
+                case "--seed":
+                    if (i + 1 < args.length) {
+                        try {
+                            seed = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid seed. The run will not be reproducible.");
+                        }
+                    }
+                    break;
+                case "--scenarios":
+                    if (i + 1 < args.length) {
+                        try {
+                            scenarioFraction = Double.parseDouble(args[++i]);
+                            if (scenarioFraction < 0 || scenarioFraction > 1) {
+                                throw new NumberFormatException();
+                            }
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Scenario fraction must be between 0 and 1. No scenarios injected.");
+                            scenarioFraction = 0;
+                        }
+                    }
+                    break;
+                case "--ground-truth":
+                    if (i + 1 < args.length) {
+                        groundTruthFile = args[++i];
+                    }
+                    break;
+                case "--ecg-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            ecgRateHz = Integer.parseInt(args[++i]);
+                            if (ecgRateHz < 1 || ecgRateHz > 1000) {
+                                System.err.println("Error: ECG rate must be between 1 and 1000 Hz. Using 250 Hz.");
+                                ecgRateHz = 250;
                             }
-                        } else {
-                            System.err.println("Unknown output type. Using default (console).");
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid ECG rate. Writing one ECG value per second.");
+                        }
+                    }
+                    break;
+                case "--rate":
+                    if (i + 1 < args.length) {
+                        String rate = args[++i];
+                        try {
+                            fastRate = rate.equals("max") ? 0 : Math.max(1, Long.parseLong(rate));
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid rate. Running as fast as the outputs accept.");
+                            fastRate = 0L;
+                        }
+                    }
+                    break;
+                case "--start-time":
+                    if (i + 1 < args.length) {
+                        try {
+                            startTimeMillis = Long.parseLong(args[++i]);
+                        } catch (NumberFormatException e) {
+                            System.err.println("Error: Invalid start time. Using the current time.");
+                        }
+                    }
+                    break;
+                case "--file-durability":
+                    if (i + 1 < args.length) {
+                        try {
+                            fileDurability = FileOutputStrategy.Durability.valueOf(args[++i].toUpperCase());
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("Error: Invalid durability. Using default value: " + fileDurability);
                         }
                     }
                     break;
@@ -126,6 +370,139 @@ public class HealthDataSimulator {
                     System.exit(1);
             }
         }
+        configureClock();
+        if (outputArgs.size() == 1) {
+            outputStrategy = createOutputStrategy(outputArgs.get(0));
+        } else if (outputArgs.size() > 1) {
+            outputStrategy = createFanOutStrategy(outputArgs);
+        }
+        if (outputStrategy == null) {
+            outputStrategy = new WebSocketOutputStrategy(port); // Default output strategy
+        }
+    }
+
+    /**
+     * Sets up the simulated clock and random streams. A seed, or an explicit start time, switches to
+     * a {@link VirtualClock}, whose samples are stamped with their scheduled simulated time; the
+     * executor cannot do that, so those runs use a single-worker timing wheel instead, which also
+     * keeps the order of samples across patients fixed. A seeded run always uses that single worker, even
+     * when another scheduler was chosen. A load run ({@code --rate}) also needs simulated time and always runs
+     * on the timing wheel.
+     */
+    private static void configureClock() {
+        if (seed == null && startTimeMillis == null && fastRate == null) {
+            return;
+        }
+        if (seed != null) {
+            random = new Random(seed);
+        }
+        clock = new VirtualClock(startTimeMillis != null ? startTimeMillis
+                : seed != null ? DEFAULT_SEEDED_START_MILLIS : System.currentTimeMillis());
+        if (seed != null) {
+            if (virtualThreads || tickWorkers > 1) {
+                System.out.println("Seeded runs are only reproducible on one worker. Using '--scheduler wheel:1'.");
+            }
+            virtualThreads = false;
+            tickWorkers = 1;
+        } else if (fastRate != null && tickWorkers == 0) {
+            System.out.println("Load runs need the timing wheel. Using '--scheduler wheel'.");
+            virtualThreads = false;
+            tickWorkers = Runtime.getRuntime().availableProcessors();
+        } else if (tickWorkers == 0 && !virtualThreads) {
+            System.out.println("Simulated time needs a tick scheduler. Using '--scheduler wheel:1'.");
+            tickWorkers = 1;
+        }
+    }
+
+    /**
+     * Prints the progress of a load run every five seconds; {@link #stopOnExit} prints it once more.
+     *
+     * @param tickScheduler The scheduler running in fast mode.
+     */
+    private static void startStatsReporter(TickScheduler tickScheduler) {
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(5000);
+                    tickScheduler.printStats();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "load-stats");
+        reporter.setDaemon(true);
+        reporter.start();
+    }
+
+    /**
+     * Creates a composite strategy that writes every sample to each of the given outputs.
+     * Each output is fed by its own thread, so a slow output never blocks the generators.
+     *
+     * @param outputArgs The values of the {@code --output} options.
+     * @return The composite strategy, or null if none of the arguments is valid.
+     * @throws IOException If an output directory cannot be created.
+     */
+    private static OutputStrategy createFanOutStrategy(List<String> outputArgs) throws IOException {
+        FanOutOutputStrategy fanOut = virtualThreads
+                ? new FanOutOutputStrategy(64 * 1024, VirtualThreads.factory("fan-out-"))
+                : new FanOutOutputStrategy();
+        int sinkCount = 0;
+        for (String arg : outputArgs) {
+            OutputStrategy sink = createOutputStrategy(arg);
+            if (sink != null) {
+                fanOut.addSink(arg.replace(':', '-'), sink);
+                sinkCount++;
+            }
+        }
+        if (sinkCount == 0) {
+            return null;
+        }
+        fanOutStrategy = fanOut;
+        return fanOut;
+    }
+
+    /**
+     * Creates the output strategy described by an {@code --output} argument.
+     *
+     * @param outputArg The value of the {@code --output} option.
+     * @return The output strategy, or null if the argument is invalid.
+     * @throws IOException If the output directory cannot be created.
+     */
+    private static OutputStrategy createOutputStrategy(String outputArg) throws IOException {
+        if (outputArg.equals("console")) {
+            return new ConsoleOutputStrategy();
+        } else if (outputArg.startsWith("file:")) {
+            String baseDirectory = outputArg.substring(5);
+            Path outputPath = Paths.get(baseDirectory);
+            if (!Files.exists(outputPath)) {
+                Files.createDirectories(outputPath);
+            }
+            return new FileOutputStrategy(baseDirectory, fileDurability, fileRotation);
+        } else if (outputArg.equals("websocket") || outputArg.equals("tcp")) {
+            return createOutputStrategy(outputArg + ":" + port);
+        } else if (outputArg.startsWith("websocket:")) {
+            try {
+                int port = Integer.parseInt(outputArg.substring(10));
+                // Initialize your WebSocket output strategy here
+                System.out.println("WebSocket output will be on port: " + port);
+                return new WebSocketOutputStrategy(port, webSocketBatchMillis);
+            } catch (NumberFormatException e) {
+                System.err.println(
+                        "Invalid port for WebSocket output. Please specify a valid port number.");
+            }
+        } else if (outputArg.startsWith("tcp:")) {
+            try {
+                int port = Integer.parseInt(outputArg.substring(4));
+                // Initialize your TCP socket output strategy here
+                System.out.println("TCP socket output will be on port: " + port);
+                return new TcpOutputStrategy(port);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port for TCP output. Please specify a valid port number.");
+            }
+        } else {
+            System.err.println("Unknown output type. Using default (websocket:8080).");
+        }
+        return null;
     }
     /**
      * This method provides instructions on how to use the simulator, including command-line options.
@@ -136,11 +513,37 @@ public class HealthDataSimulator {
         System.out.println("  -h                       Show help and exit.");
         System.out.println(
                 "  --patient-count <count>  Specify the number of patients to simulate data for (default: 50).");
+        System.out.println("  --patient-range <a>-<b>  Simulate only the patients with IDs a to b, for one process of a cluster.");
+        System.out.println("  --port <port>            Port of the default WebSocket output (default: 8080).");
         System.out.println("  --output <type>          Define the output method. Options are:");
         System.out.println("                             'console' for console output,");
         System.out.println("                             'file:<directory>' for file output,");
         System.out.println("                             'websocket:<port>' for WebSocket output,");
         System.out.println("                             'tcp:<port>' for TCP socket output.");
+        System.out.println("                           'websocket' and 'tcp' without a port use the --port option.");
+        System.out.println("                           Repeat the option to write to several outputs at once.");
+        System.out.println("  --scheduler <mode>       'executor' (default) schedules every patient task on its own pool thread,");
+        System.out.println("                             'wheel[:<workers>]' drives all patients from a few timing-wheel workers,");
+        System.out.println("                             'virtual' runs every patient on its own virtual thread (Java 21+).");
+        System.out.println("  --seed <n>               Make the run reproducible: seeded per-patient random streams and");
+        System.out.println("                             simulated timestamps starting at a fixed time, on one wheel worker.");
+        System.out.println("  --start-time <millis>    Start the simulated clock at this epoch time.");
+        System.out.println("  --ecg-rate <hz>          Write a realistic ECG waveform with <hz> samples per second (250-500");
+        System.out.println("                             typical) in 100 ms blocks instead of one ECG value per second.");
+        System.out.println("  --scenarios <fraction>   Let this share of patients deteriorate (hypotensive hypoxemia, tachycardia,");
+        System.out.println("                             rapid desaturation or a blood pressure trend) within the first 10 minutes.");
+        System.out.println("  --ground-truth <file>    Write the patients, scenarios and onset times injected by --scenarios as CSV;"
+                + " with --patient-range the range is added to the file name.");
+        System.out.println("  --rate max|<samples/s>   Load run: advance simulated time as fast as the outputs accept data,");
+        System.out.println("                             or at the given sample rate, on the timing wheel.");
+        System.out.println("  --start-at <millis>      Wait until this epoch time before generating any data.");
+        System.out.println("  --stats <seconds>        Print the number of samples written every <seconds>.");
+        System.out.println("  --file-durability <mode> How often file output is forced to disk: 'none' (default),");
+        System.out.println("                             'interval' (once per second) or 'commit' (every group commit).");
+        System.out.println("  --websocket-batch <ms>   Collect WebSocket samples for <ms> and send them as one frame.");
+        System.out.println("  --file-rotation <mb>:<seconds>[:gzip]");
+        System.out.println("                           Write file output as rolling segments sealed by size or time span");
+        System.out.println("                             (0 disables a limit), optionally gzip compressed.");
         System.out.println("Example:");
         System.out.println("  java HealthDataSimulator --patient-count 100 --output websocket:8080");
         System.out.println(
@@ -150,11 +553,12 @@ public class HealthDataSimulator {
      * Initializes a list of patient IDs based on the specified patient count.
      *
      * @param patientCount The number of patients for which to generate IDs.
-     * @return A list containing patient IDs from 1 to the specified count.
+     * @return A list containing patient IDs from the first ID of {@code --patient-range} (1 by default) to the
+     *         specified count.
      */
     private static List<Integer> initializePatientIds(int patientCount) {
         List<Integer> patientIds = new ArrayList<>();
-        for (int i = 1; i <= patientCount; i++) {
+        for (int i = firstPatientId; i <= patientCount; i++) {
             patientIds.add(i);
         }
         return patientIds;
@@ -168,21 +572,110 @@ public class HealthDataSimulator {
      * @param patientIds The list of patient IDs for which tasks are to be scheduled.
      */
     private static void scheduleTasksForPatients(List<Integer> patientIds) {
-        ECGDataGenerator ecgDataGenerator = new ECGDataGenerator(patientCount);
-        BloodSaturationDataGenerator bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
-        BloodPressureDataGenerator bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
-        BloodLevelsDataGenerator bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
-        AlertGenerator alertGenerator = new AlertGenerator(patientCount);
+        PatientDataGenerator ecgDataGenerator;
+        PatientDataGenerator bloodSaturationDataGenerator;
+        PatientDataGenerator bloodPressureDataGenerator;
+        BloodLevelsDataGenerator bloodLevelsDataGenerator;
+        AlertGenerator alertGenerator;
+        if (seed != null) {
+            ecgDataGenerator = ecgRateHz > 0 ? new EcgWaveformGenerator(patientCount, ecgRateHz, seed)
+                    : new ECGDataGenerator(patientCount, seed);
+            bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount, seed);
+            bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount, seed);
+            bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount, seed);
+            alertGenerator = new AlertGenerator(patientCount, seed);
+        } else {
+            ecgDataGenerator = ecgRateHz > 0 ? new EcgWaveformGenerator(patientCount, ecgRateHz)
+                    : new ECGDataGenerator(patientCount);
+            bloodSaturationDataGenerator = new BloodSaturationDataGenerator(patientCount);
+            bloodPressureDataGenerator = new BloodPressureDataGenerator(patientCount);
+            bloodLevelsDataGenerator = new BloodLevelsDataGenerator(patientCount);
+            alertGenerator = new AlertGenerator(patientCount);
+        }
+        if (scenarioFraction > 0) {
+            ScenarioEngine scenarios = createScenarioEngine();
+            ecgDataGenerator = scenarios.overlay(ecgDataGenerator);
+            bloodSaturationDataGenerator = scenarios.overlay(bloodSaturationDataGenerator);
+            bloodPressureDataGenerator = scenarios.overlay(bloodPressureDataGenerator);
+        }
 
         for (int patientId : patientIds) {
-            scheduleTask(() -> ecgDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodSaturationDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.SECONDS);
-            scheduleTask(() -> bloodPressureDataGenerator.generate(patientId, outputStrategy), 1, TimeUnit.MINUTES);
-            scheduleTask(() -> bloodLevelsDataGenerator.generate(patientId, outputStrategy), 2, TimeUnit.MINUTES);
-            scheduleTask(() -> alertGenerator.generate(patientId, outputStrategy), 20, TimeUnit.SECONDS);
+            if (ecgRateHz > 0) {
+                scheduleTask(patientId, "ECG", ecgDataGenerator, 100, TimeUnit.MILLISECONDS);
+            } else {
+                scheduleTask(patientId, "ECG", ecgDataGenerator, 1, TimeUnit.SECONDS);
+            }
+            scheduleTask(patientId, "Saturation", bloodSaturationDataGenerator, 1, TimeUnit.SECONDS);
+            scheduleTask(patientId, "BloodPressure", bloodPressureDataGenerator, 1, TimeUnit.MINUTES);
+            scheduleTask(patientId, "BloodLevels", bloodLevelsDataGenerator, 2, TimeUnit.MINUTES);
+            scheduleTask(patientId, "Alert", alertGenerator, 20, TimeUnit.SECONDS);
         }
     }
 
+    /**
+     * Creates the scenario engine for {@code --scenarios} and the simulated patients, with onsets in the first
+     * ten minutes of the run, and writes its ground truth to the {@code --ground-truth} file if one was given.
+     * With {@code --patient-range} the file name gets the range, so every process writes a file of its own.
+     *
+     * @return the scenario engine
+     */
+    private static ScenarioEngine createScenarioEngine() {
+        ScenarioEngine scenarios = new ScenarioEngine(firstPatientId, patientCount, scenarioFraction,
+                seed != null ? seed : random.nextLong(), clock.currentTimeMillis(), SCENARIO_ONSET_WINDOW_MILLIS);
+        System.out.println("Injecting " + scenarios.getEvents().size() + " scenarios.");
+        if (groundTruthFile != null) {
+            Path file = Paths.get(groundTruthFile);
+            if (patientRange) {
+                file = ScenarioEngine.groundTruthFile(file, firstPatientId, patientCount);
+            }
+            try {
+                scenarios.writeGroundTruth(file);
+            } catch (IOException e) {
+                System.err.println("Error writing the ground truth: " + e.getMessage());
+            }
+        }
+        return scenarios;
+    }
+
+    /**
+     * Schedules a generator for one patient on the configured scheduler.
+     * On the timing wheel and on virtual threads the first run is spread over the whole period, so the load of many
+     * patients is even from tick to tick. With a seed the first run comes from {@link #startOffsetMillis}.
+     *
+     * @param patientId The ID of the patient.
+     * @param task      The name of the task, which tells the start offsets of a patient's tasks apart.
+     * @param generator The generator to run.
+     * @param period    The time interval between successive runs.
+     * @param timeUnit  The time unit of the period parameter.
+     */
+    private static void scheduleTask(int patientId, String task, PatientDataGenerator generator, long period,
+                                     TimeUnit timeUnit) {
+        if (patientScheduler != null) {
+            long periodMillis = timeUnit.toMillis(period);
+            long offset = seed != null ? startOffsetMillis(seed, patientId, task, periodMillis)
+                    : (long) (random.nextDouble() * periodMillis);
+            patientScheduler.schedule(patientId, generator, offset, periodMillis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduleTask(() -> generator.generate(patientId, outputStrategy), period, timeUnit);
+        }
+    }
+
+    /**
+     * Returns the delay of the first run of a seeded task, within its first period. It depends only
+     * on the seed, the patient and the task, so the timestamps of a patient's samples, and the values
+     * derived from them, are the same however the patients are split over processes.
+     *
+     * @param seed         The simulation seed.
+     * @param patientId    The ID of the patient.
+     * @param task         The name of the task, for example {@code "ECG"}.
+     * @param periodMillis The period of the task.
+     * @return the delay in milliseconds, from 0 to below the period
+     */
+    public static long startOffsetMillis(long seed, int patientId, String task, long periodMillis) {
+        SplittableRandom offsets = new SplittableRandom((seed ^ task.hashCode()) * 0x9E3779B97F4A7C15L + patientId);
+        return (long) (offsets.nextDouble() * periodMillis);
+    }
+
     /**
      * Schedules a task to be executed periodically with a fixed rate.
      *
@@ -0,0 +1,32 @@
+package com.cardio_generator;
+
+import java.util.concurrent.TimeUnit;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+
+/**
+ * Runs the periodic generator tasks of the simulated patients.
+ */
+public interface PatientScheduler {
+    /**
+     * Schedules a generator to run periodically for one patient. Tasks must be scheduled before
+     * {@link #start()}.
+     *
+     * @param patientId    The ID of the patient.
+     * @param generator    The generator to run.
+     * @param initialDelay The time before the first run.
+     * @param period       The time between successive runs.
+     * @param timeUnit     The time unit of the delay and period.
+     */
+    void schedule(int patientId, PatientDataGenerator generator, long initialDelay, long period, TimeUnit timeUnit);
+
+    /**
+     * Starts running the scheduled tasks.
+     */
+    void start();
+
+    /**
+     * Stops running tasks.
+     */
+    void close();
+}
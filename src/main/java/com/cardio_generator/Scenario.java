@@ -0,0 +1,43 @@
+package com.cardio_generator;
+
+/**
+ * A scripted deterioration that the {@link ScenarioEngine} overlays on a patient's generated data.
+ * Each scenario ramps up over a few minutes after its onset and names the alert condition that
+ * the monitoring side is expected to raise for it.
+ */
+public enum Scenario {
+    /** Systolic pressure falls below 90 mmHg while saturation falls below 92 %. */
+    HYPOTENSIVE_HYPOXEMIA("Hypotensive Hypoxemia Alert", 3),
+    /** The heart rate climbs to 140 bpm. */
+    TACHYCARDIA("Abnormal Heart Rate", 2),
+    /** Saturation falls by 8 points within a few minutes. */
+    RAPID_DESATURATION("Rapid drop of oxygen in blood", 4),
+    /** Systolic pressure rises or falls by 15 mmHg a minute for four minutes, diastolic by half that. */
+    BP_TREND("SystolicPressure dangerous trend", 4);
+
+    private final String expectedAlert;
+    private final long rampMillis;
+
+    Scenario(String expectedAlert, int rampMinutes) {
+        this.expectedAlert = expectedAlert;
+        this.rampMillis = rampMinutes * 60_000L;
+    }
+
+    /**
+     * Returns the condition of the alert this scenario should raise.
+     *
+     * @return the alert condition
+     */
+    public String getExpectedAlert() {
+        return expectedAlert;
+    }
+
+    /**
+     * Returns how long the scenario takes to reach full severity after its onset.
+     *
+     * @return the ramp duration in milliseconds
+     */
+    public long getRampMillis() {
+        return rampMillis;
+    }
+}
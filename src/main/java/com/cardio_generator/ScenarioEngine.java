@@ -0,0 +1,255 @@
+package com.cardio_generator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.cardio_generator.generators.EcgWaveformGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+/**
+ * Overlays scripted deteriorations ({@link Scenario}s) on the data of a fraction of the patients, so
+ * that the alert strategies have something to detect under load. Every affected patient gets one
+ * scenario with an onset drawn from a window after the start; the onsets, which are the ground truth
+ * for measuring detection latency, are available from {@link #getEvents()}.
+ * <p>
+ * The engine wraps each generator with {@link #overlay(PatientDataGenerator)}. The wrapper lets the
+ * generator write its samples and then adjusts those of an affected patient in place, so the normal
+ * variation of the signal is kept. Tachycardia sets the heart rate of an {@link EcgWaveformGenerator};
+ * the one-value-per-second ECG is read as one record per beat by the monitoring side, so for that
+ * generator extra ECG samples are added at the raised rate.
+ * <p>
+ * Which patients are affected, and how, depends only on the seed and the patient ID, so processes
+ * simulating different patient ranges agree on the ground truth. An engine built for a range only
+ * knows the scenarios of that range, and each process writes the ground truth of its own patients.
+ */
+public class ScenarioEngine {
+    private static final double TACHYCARDIA_BPM = 140;
+    private static final double HYPOTENSIVE_SYSTOLIC = 78;
+    private static final double HYPOTENSIVE_DIASTOLIC = 50;
+    private static final double HYPOXEMIC_SATURATION = 88;
+    private static final double DESATURATION_DROP = 8;
+    private static final double TREND_SYSTOLIC = 60;
+    private static final double TREND_DIASTOLIC = 30;
+    private static final long DURATION_MILLIS = 15 * 60_000L;
+
+    private final int firstPatientId;
+    private final PatientScenario[] patients;
+    private final List<ScenarioEvent> events = new ArrayList<>();
+
+    /**
+     * Constructs a ScenarioEngine for patients 1 to {@code patientCount}.
+     *
+     * @param patientCount      The highest patient ID.
+     * @param fraction          The share of patients that deteriorate, between 0 and 1.
+     * @param seed              The seed choosing the patients, scenarios and onsets.
+     * @param startMillis       The (simulated) start time of the run.
+     * @param onsetWindowMillis Onsets fall between the start and this long after it.
+     * @param scenarios         The scenarios to choose from; all of them if none are given.
+     */
+    public ScenarioEngine(int patientCount, double fraction, long seed, long startMillis, long onsetWindowMillis,
+                          Scenario... scenarios) {
+        this(1, patientCount, fraction, seed, startMillis, onsetWindowMillis, scenarios);
+    }
+
+    /**
+     * Constructs a ScenarioEngine for patients {@code firstPatientId} to {@code lastPatientId}.
+     * A patient in the range gets the same scenario as from an engine for all patients.
+     *
+     * @param firstPatientId    The lowest patient ID.
+     * @param lastPatientId     The highest patient ID.
+     * @param fraction          The share of patients that deteriorate, between 0 and 1.
+     * @param seed              The seed choosing the patients, scenarios and onsets.
+     * @param startMillis       The (simulated) start time of the run.
+     * @param onsetWindowMillis Onsets fall between the start and this long after it.
+     * @param scenarios         The scenarios to choose from; all of them if none are given.
+     */
+    public ScenarioEngine(int firstPatientId, int lastPatientId, double fraction, long seed, long startMillis,
+                          long onsetWindowMillis, Scenario... scenarios) {
+        if (firstPatientId < 1 || lastPatientId < firstPatientId - 1) {
+            throw new IllegalArgumentException("Invalid patient range: " + firstPatientId + "-" + lastPatientId);
+        }
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        if (scenarios.length == 0) {
+            scenarios = Scenario.values();
+        }
+        this.firstPatientId = firstPatientId;
+        patients = new PatientScenario[lastPatientId - firstPatientId + 1];
+        for (int patientId = firstPatientId; patientId <= lastPatientId; patientId++) {
+            SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + patientId);
+            if (random.nextDouble() >= fraction) {
+                continue;
+            }
+            Scenario scenario = scenarios[random.nextInt(scenarios.length)];
+            long onset = startMillis + (long) (random.nextDouble() * onsetWindowMillis);
+            int direction = random.nextBoolean() ? 1 : -1;
+            ScenarioEvent event = new ScenarioEvent(patientId, scenario, onset, onset + DURATION_MILLIS, direction);
+            patients[patientId - firstPatientId] = new PatientScenario(event);
+            events.add(event);
+        }
+        events.sort(Comparator.comparingLong(ScenarioEvent::getOnsetMillis));
+    }
+
+    /**
+     * Returns the injected scenarios, ordered by onset.
+     *
+     * @return the ground truth
+     */
+    public List<ScenarioEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Writes the ground truth as CSV, one {@link ScenarioEvent#toCsv()} line per scenario.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeGroundTruth(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.println("patientId,scenario,onsetMillis,endMillis,expectedAlert");
+            for (ScenarioEvent event : events) {
+                writer.println(event.toCsv());
+            }
+        }
+    }
+
+    /**
+     * Returns the ground truth file of the process simulating patients {@code firstPatientId} to
+     * {@code lastPatientId}: the given file with the range inserted before its extension, so that
+     * processes sharing one {@code --ground-truth} path do not overwrite each other.
+     *
+     * @param file           The file given for the whole population, for example {@code truth.csv}.
+     * @param firstPatientId The lowest patient ID of the process.
+     * @param lastPatientId  The highest patient ID of the process.
+     * @return the file for the range, for example {@code truth-1-250.csv}
+     */
+    public static Path groundTruthFile(Path file, int firstPatientId, int lastPatientId) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String range = "-" + firstPatientId + "-" + lastPatientId;
+        return file.resolveSibling(dot > 0 ? name.substring(0, dot) + range + name.substring(dot) : name + range);
+    }
+
+    /**
+     * Wraps a generator so that the scenarios are applied to its samples.
+     *
+     * @param generator The generator to wrap.
+     * @return a generator writing the same samples, adjusted for affected patients
+     */
+    public PatientDataGenerator overlay(PatientDataGenerator generator) {
+        return (patientId, timestamp, batch) -> {
+            int index = patientId - firstPatientId;
+            PatientScenario patient = index >= 0 && index < patients.length ? patients[index] : null;
+            if (patient == null) {
+                generator.generate(patientId, timestamp, batch);
+                return;
+            }
+            ScenarioEvent event = patient.event;
+            double severity = event.severity(timestamp);
+            if (event.getScenario() == Scenario.TACHYCARDIA && generator instanceof EcgWaveformGenerator) {
+                setHeartRate(patient, (EcgWaveformGenerator) generator, patientId, severity);
+            }
+            int from = batch.size();
+            generator.generate(patientId, timestamp, batch);
+            if (severity > 0) {
+                apply(patient, batch, from, timestamp, severity, generator instanceof EcgWaveformGenerator);
+            }
+        };
+    }
+
+    private static void setHeartRate(PatientScenario patient, EcgWaveformGenerator generator, int patientId,
+                                     double severity) {
+        if (Double.isNaN(patient.baselineHeartRate)) {
+            patient.baselineHeartRate = generator.getWaveform(patientId).getHeartRate();
+        }
+        double baseline = patient.baselineHeartRate;
+        generator.getWaveform(patientId).setHeartRate(baseline + (TACHYCARDIA_BPM - baseline) * severity);
+    }
+
+    /**
+     * Adjusts the samples a generator wrote from index {@code from} on.
+     */
+    private static void apply(PatientScenario patient, SampleBatch batch, int from, long timestamp, double severity,
+                              boolean waveform) {
+        ScenarioEvent event = patient.event;
+        int end = batch.size();
+        for (int i = from; i < end; i++) {
+            SampleType type = batch.getType(i);
+            double value = batch.getValue(i);
+            switch (event.getScenario()) {
+                case HYPOTENSIVE_HYPOXEMIA:
+                    if (type == SampleType.SYSTOLIC_PRESSURE) {
+                        batch.setValue(i, Math.round(toward(value, HYPOTENSIVE_SYSTOLIC, severity)));
+                    } else if (type == SampleType.DIASTOLIC_PRESSURE) {
+                        batch.setValue(i, Math.round(toward(value, HYPOTENSIVE_DIASTOLIC, severity)));
+                    } else if (type == SampleType.SATURATION) {
+                        batch.setValue(i, Math.round(toward(value, HYPOXEMIC_SATURATION, severity)));
+                    }
+                    break;
+                case RAPID_DESATURATION:
+                    if (type == SampleType.SATURATION) {
+                        batch.setValue(i, Math.round(value - DESATURATION_DROP * severity));
+                    }
+                    break;
+                case BP_TREND:
+                    if (type == SampleType.SYSTOLIC_PRESSURE) {
+                        batch.setValue(i, Math.round(value + event.getDirection() * TREND_SYSTOLIC * severity));
+                    } else if (type == SampleType.DIASTOLIC_PRESSURE) {
+                        batch.setValue(i, Math.round(value + event.getDirection() * TREND_DIASTOLIC * severity));
+                    }
+                    break;
+                case TACHYCARDIA:
+                    if (type == SampleType.ECG && !waveform) {
+                        addBeats(patient, batch, i, timestamp, severity);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Adds ECG records so that the one-value-per-second stream carries one record per beat at the
+     * raised heart rate.
+     */
+    private static void addBeats(PatientScenario patient, SampleBatch batch, int index, long timestamp,
+                                 double severity) {
+        double extraPerSecond = (TACHYCARDIA_BPM / 60 - 1) * severity;
+        patient.pendingBeats += extraPerSecond;
+        int beats = (int) patient.pendingBeats;
+        patient.pendingBeats -= beats;
+        for (int beat = 1; beat <= beats; beat++) {
+            batch.add(batch.getPatientId(index), timestamp + beat * 1000L / (beats + 1), SampleType.ECG,
+                    batch.getValue(index));
+        }
+    }
+
+    private static double toward(double value, double target, double severity) {
+        return value + (target - value) * severity;
+    }
+
+    /**
+     * The scenario of one patient and the state needed to apply it.
+     */
+    private static final class PatientScenario {
+        private final ScenarioEvent event;
+        private double baselineHeartRate = Double.NaN;
+        private double pendingBeats;
+
+        private PatientScenario(ScenarioEvent event) {
+            this.event = event;
+        }
+    }
+}
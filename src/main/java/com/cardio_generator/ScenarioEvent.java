@@ -0,0 +1,81 @@
+package com.cardio_generator;
+
+/**
+ * The ground truth of one injected scenario: which patient deteriorates, how, and when.
+ */
+public class ScenarioEvent {
+    private final int patientId;
+    private final Scenario scenario;
+    private final long onsetMillis;
+    private final long endMillis;
+    private final int direction;
+
+    /**
+     * Constructs a ScenarioEvent.
+     *
+     * @param patientId   The ID of the patient.
+     * @param scenario    The deterioration.
+     * @param onsetMillis The time the deterioration begins.
+     * @param endMillis   The time the patient's data returns to normal.
+     * @param direction   1 for a rising trend, -1 for a falling one.
+     */
+    public ScenarioEvent(int patientId, Scenario scenario, long onsetMillis, long endMillis, int direction) {
+        this.patientId = patientId;
+        this.scenario = scenario;
+        this.onsetMillis = onsetMillis;
+        this.endMillis = endMillis;
+        this.direction = direction;
+    }
+
+    public int getPatientId() {
+        return patientId;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public long getOnsetMillis() {
+        return onsetMillis;
+    }
+
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    public int getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns whether the scenario affects the data at the given time.
+     *
+     * @param timestamp The time of a sample.
+     * @return true between the onset and the end
+     */
+    public boolean isActive(long timestamp) {
+        return timestamp >= onsetMillis && timestamp < endMillis;
+    }
+
+    /**
+     * Returns how far the scenario has progressed at the given time.
+     *
+     * @param timestamp The time of a sample.
+     * @return 0 before the onset and after the end, rising linearly to 1 over the ramp
+     */
+    public double severity(long timestamp) {
+        if (!isActive(timestamp)) {
+            return 0;
+        }
+        return Math.min(1, (timestamp - onsetMillis) / (double) scenario.getRampMillis());
+    }
+
+    /**
+     * Formats the event as a line of the ground-truth file.
+     *
+     * @return {@code patientId,scenario,onsetMillis,endMillis,expectedAlert}
+     */
+    public String toCsv() {
+        return patientId + "," + scenario + "," + onsetMillis + "," + endMillis + "," + scenario.getExpectedAlert();
+    }
+}
@@ -0,0 +1,26 @@
+package com.cardio_generator;
+
+/**
+ * The source of time for the simulated samples.
+ * Schedulers read the start time from the clock and stamp every sample with its scheduled time,
+ * start plus the task's offset, so timestamps do not depend on how late a task actually ran.
+ */
+public interface SimulationClock {
+    /** The wall clock. */
+    SimulationClock SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Returns the current simulated time.
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * Tells the clock that the simulation has reached the given time. The wall clock ignores it.
+     *
+     * @param millis The simulated time in milliseconds since the epoch.
+     */
+    default void advanceTo(long millis) {
+    }
+}
@@ -0,0 +1,318 @@
+package com.cardio_generator;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the simulation of a large patient population as several {@link HealthDataSimulator} processes.
+ * Each process owns a contiguous range of patient IDs and its own port, and all of them start
+ * generating at the same wall clock time. With a seed the patients' data does not depend on how they
+ * are split, since every patient has random streams and task start offsets of its own
+ * ({@link HealthDataSimulator#startOffsetMillis}). Every process reports the number of
+ * samples it wrote, and the coordinator prints the combined rate.
+ * <p>
+ * Processes run on this machine by default. A launcher command such as {@code "ssh node{i}"} runs
+ * process {@code i} elsewhere instead, provided the same Java installation and class path exist there.
+ */
+public class SimulatorCoordinator {
+    private static final String STATS_PREFIX = "STATS ";
+    private static final long START_DELAY_MILLIS = 3000; // time for every JVM to start up
+
+    private final List<Simulator> simulators = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int processes = Runtime.getRuntime().availableProcessors();
+        int patientCount = 100;
+        int basePort = 8080;
+        int statsSeconds = 5;
+        long durationSeconds = 0;
+        String seed = null;
+        String launcher = null;
+        List<String> simulatorArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-h":
+                    printHelp();
+                    return;
+                case "--processes":
+                    processes = (int) number(args, i++, 1, Integer.MAX_VALUE);
+                    break;
+                case "--patient-count":
+                    patientCount = (int) number(args, i++, 1, Integer.MAX_VALUE);
+                    break;
+                case "--base-port":
+                    basePort = (int) number(args, i++, 1, 65535);
+                    break;
+                case "--seed":
+                    seed = String.valueOf(number(args, i++, Long.MIN_VALUE, Long.MAX_VALUE));
+                    break;
+                case "--stats":
+                    statsSeconds = (int) number(args, i++, 1, Integer.MAX_VALUE);
+                    break;
+                case "--duration":
+                    durationSeconds = number(args, i++, 0, Long.MAX_VALUE);
+                    break;
+                case "--launcher":
+                    launcher = value(args, i++);
+                    break;
+                case "--":
+                    simulatorArgs.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    i = args.length;
+                    break;
+                default:
+                    System.err.println("Unknown option '" + args[i] + "'");
+                    printHelp();
+                    System.exit(1);
+            }
+        }
+        if (processes < 1 || processes > patientCount) {
+            System.err.println("Error: Need between 1 and " + patientCount + " processes.");
+            System.exit(1);
+        }
+
+        SimulatorCoordinator coordinator = new SimulatorCoordinator();
+        long startAt = System.currentTimeMillis() + START_DELAY_MILLIS;
+        int[][] ranges = partition(patientCount, processes);
+        for (int i = 0; i < processes; i++) {
+            List<String> command = new ArrayList<>();
+            if (launcher != null) {
+                for (String part : launcher.replace("{i}", String.valueOf(i)).split("\\s+")) {
+                    command.add(part);
+                }
+            }
+            command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(HealthDataSimulator.class.getName());
+            command.addAll(Arrays.asList("--patient-range", ranges[i][0] + "-" + ranges[i][1],
+                    "--port", String.valueOf(basePort + i), "--start-at", String.valueOf(startAt),
+                    "--stats", String.valueOf(statsSeconds)));
+            if (seed != null) {
+                command.addAll(Arrays.asList("--seed", seed));
+            }
+            command.addAll(simulatorArgs);
+            coordinator.launch(i, ranges[i], command);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(coordinator::stop));
+
+        long endNanos = durationSeconds > 0 ? System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds) : 0;
+        Thread.sleep(START_DELAY_MILLIS);
+        while (coordinator.anyAlive() && (endNanos == 0 || System.nanoTime() < endNanos)) {
+            Thread.sleep(statsSeconds * 1000L);
+            coordinator.printStats();
+        }
+        System.exit(0); // runs the shutdown hook, which stops the simulators
+    }
+
+    /**
+     * Splits patients 1 to {@code patientCount} into contiguous ranges of nearly equal size.
+     *
+     * @param patientCount The number of patients.
+     * @param parts        The number of ranges.
+     * @return the first and last patient ID of each range
+     */
+    public static int[][] partition(int patientCount, int parts) {
+        int[][] ranges = new int[parts][2];
+        int first = 1;
+        for (int i = 0; i < parts; i++) {
+            int size = patientCount / parts + (i < patientCount % parts ? 1 : 0);
+            ranges[i][0] = first;
+            ranges[i][1] = first + size - 1;
+            first += size;
+        }
+        return ranges;
+    }
+
+    /**
+     * Formats the statistics line a simulator process prints.
+     *
+     * @param samples       The number of samples written so far.
+     * @param elapsedMillis The time since the process started generating.
+     * @return the line
+     */
+    public static String formatStats(long samples, long elapsedMillis) {
+        return STATS_PREFIX + samples + " " + elapsedMillis;
+    }
+
+    /**
+     * Parses a line printed by a simulator process.
+     *
+     * @param line The line.
+     * @return the sample count and elapsed milliseconds, or null if the line holds no statistics
+     */
+    public static long[] parseStats(String line) {
+        if (!line.startsWith(STATS_PREFIX)) {
+            return null;
+        }
+        String[] parts = line.substring(STATS_PREFIX.length()).trim().split(" ");
+        try {
+            return new long[] {Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return null;
+        }
+    }
+
+    private void launch(int index, int[] range, List<String> command) throws IOException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Simulator simulator = new Simulator(index, range, process);
+        simulators.add(simulator);
+        Thread reader = new Thread(simulator::readOutput, "simulator-" + index);
+        reader.setDaemon(true);
+        reader.start();
+        System.out.printf("Started simulator %d for patients %d-%d%n", index, range[0], range[1]);
+    }
+
+    private boolean anyAlive() {
+        for (Simulator simulator : simulators) {
+            if (simulator.process.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prints the rate of every process over the last interval, and their sum.
+     */
+    private synchronized void printStats() {
+        double total = 0;
+        long samples = 0;
+        StringBuilder perProcess = new StringBuilder();
+        for (Simulator simulator : simulators) {
+            double rate = simulator.takeRate();
+            total += rate;
+            samples += simulator.samples;
+            perProcess.append(perProcess.length() == 0 ? "" : ", ").append(String.format("%.0f", rate));
+        }
+        System.out.printf("Cluster: %.0f samples/s from %d processes (%s), %d samples in total%n",
+                total, simulators.size(), perProcess, samples);
+    }
+
+    private void stop() {
+        for (Simulator simulator : simulators) {
+            simulator.stopped = true;
+            simulator.process.destroy();
+        }
+        for (Simulator simulator : simulators) {
+            try {
+                if (!simulator.process.waitFor(5, TimeUnit.SECONDS)) {
+                    simulator.process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of the option at {@code args[i]}, or prints the usage and exits if it is missing.
+     */
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            exitWithUsage("Missing value for option '" + args[i] + "'");
+        }
+        return args[i + 1];
+    }
+
+    /**
+     * Returns the numeric value of the option at {@code args[i]}, or prints the usage and exits if it
+     * is missing, not a number or out of range.
+     */
+    private static long number(String[] args, int i, long min, long max) {
+        String value = value(args, i);
+        try {
+            long number = Long.parseLong(value);
+            if (number >= min && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        exitWithUsage("Invalid value '" + value + "' for option '" + args[i] + "'");
+        return min;
+    }
+
+    private static void exitWithUsage(String message) {
+        System.err.println("Error: " + message);
+        printHelp();
+        System.exit(1);
+    }
+
+    private static void printHelp() {
+        System.out.println("Usage: java SimulatorCoordinator [options] [-- simulator options]");
+        System.out.println("Options:");
+        System.out.println("  -h                       Show help and exit.");
+        System.out.println("  --processes <n>          Number of simulator processes (default: one per processor).");
+        System.out.println("  --patient-count <count>  Total number of patients, split into contiguous ranges (default: 100).");
+        System.out.println("  --base-port <port>       Port of the first process; process i uses port + i (default: 8080).");
+        System.out.println("  --seed <n>               Seed passed to every process.");
+        System.out.println("  --stats <seconds>        Interval of the rate statistics (default: 5).");
+        System.out.println("  --duration <seconds>     Stop the simulators after this time (default: run until stopped).");
+        System.out.println("  --launcher <command>     Prefix of every process's command, '{i}' replaced by its index,");
+        System.out.println("                             for example \"ssh node{i}\".");
+        System.out.println("Options after '--' are passed to every simulator, for example '-- --output tcp --scheduler wheel'.");
+    }
+
+    /**
+     * One simulator process and the statistics it last reported.
+     */
+    private static class Simulator {
+        private final int index;
+        private final int[] range;
+        private final Process process;
+        private volatile long samples;
+        private volatile long elapsedMillis;
+        private volatile boolean stopped;
+        private long reportedSamples;
+        private long reportedMillis;
+
+        private Simulator(int index, int[] range, Process process) {
+            this.index = index;
+            this.range = range;
+            this.process = process;
+        }
+
+        private void readOutput() {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long[] stats = parseStats(line);
+                    if (stats != null) {
+                        samples = stats[0];
+                        elapsedMillis = stats[1];
+                    } else {
+                        System.out.println("[" + index + "] " + line);
+                    }
+                }
+            } catch (IOException e) {
+                if (stopped) {
+                    return;
+                }
+                System.err.println("Lost the output of simulator " + index + " (patients " + range[0] + "-" + range[1]
+                        + "): " + e.getMessage());
+            }
+        }
+
+        /**
+         * Returns the rate since the previous call.
+         */
+        private double takeRate() {
+            long currentSamples = samples;
+            long currentMillis = elapsedMillis;
+            double rate = currentMillis > reportedMillis
+                    ? (currentSamples - reportedSamples) * 1000.0 / (currentMillis - reportedMillis) : 0;
+            reportedSamples = currentSamples;
+            reportedMillis = currentMillis;
+            return rate;
+        }
+    }
+}
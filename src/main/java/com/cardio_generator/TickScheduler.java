@@ -0,0 +1,411 @@
+package com.cardio_generator;
+
+import java.util.Arrays;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+/**
+ * Drives the periodic generator tasks of all patients from a small fixed set of worker threads.
+ * <p>
+ * Patients are partitioned across the workers by ID, so every patient's generators always run on
+ * the same thread. Each worker owns a hashed timing wheel: time is divided into ticks, every slot
+ * of the wheel holds the tasks due in that tick (plus how many more turns of the wheel they have
+ * to wait), and tasks are stored as plain ints, so memory stays flat however many patients there
+ * are. The samples produced in one tick are collected into one {@link SampleBatch} and written
+ * with a single {@link OutputStrategy#outputBatch(SampleBatch)} call.
+ * Ticks are aligned to the start time rather than to the previous tick, so delays do not add up;
+ * a worker that falls behind runs the missed ticks back to back. Samples are stamped with the
+ * simulated time of their tick, read from the {@link SimulationClock} at start.
+ * <p>
+ * In fast mode ({@link #setFastMode(long)}) ticks are not tied to the wall clock. The workers
+ * meet at a barrier after every tick, so simulated time advances in step on all of them, and
+ * run the next tick as soon as the sinks have accepted the previous one, optionally held back
+ * to a target sample rate. Each generator keeps its cadence in simulated time.
+ */
+public class TickScheduler implements PatientScheduler {
+    private static final long DEFAULT_TICK_MILLIS = 10;
+    private static final int DEFAULT_WHEEL_SIZE = 4096;
+
+    private final OutputStrategy outputStrategy;
+    private final long tickNanos;
+    private final long tickMillis;
+    private final SimulationClock clock;
+    private long startMillis;
+    private final int wheelMask;
+    private final Worker[] workers;
+    private PatientDataGenerator[] generators = new PatientDataGenerator[0];
+    private final AtomicLong maxLatenessNanos = new AtomicLong();
+    private volatile boolean running;
+    private boolean fastMode;
+    private long targetSamplesPerSecond;
+    private CyclicBarrier tickBarrier;
+    private long startNanos;
+
+    /**
+     * Constructs a TickScheduler with one worker per available processor, 10 ms ticks and a wheel
+     * of 4096 slots.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     */
+    public TickScheduler(OutputStrategy outputStrategy) {
+        this(outputStrategy, Runtime.getRuntime().availableProcessors(), DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Constructs a TickScheduler.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     * @param workerCount    The number of worker threads the patients are partitioned across.
+     * @param tickMillis     The resolution of the wheel; task periods are rounded to whole ticks.
+     * @param wheelSize      The number of slots per wheel, rounded up to a power of two.
+     */
+    public TickScheduler(OutputStrategy outputStrategy, int workerCount, long tickMillis, int wheelSize) {
+        this(outputStrategy, workerCount, tickMillis, wheelSize, SimulationClock.SYSTEM);
+    }
+
+    /**
+     * Constructs a TickScheduler.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     * @param workerCount    The number of worker threads the patients are partitioned across.
+     * @param tickMillis     The resolution of the wheel; task periods are rounded to whole ticks.
+     * @param wheelSize      The number of slots per wheel, rounded up to a power of two.
+     * @param clock          The clock providing the simulated start time.
+     */
+    public TickScheduler(OutputStrategy outputStrategy, int workerCount, long tickMillis, int wheelSize,
+                         SimulationClock clock) {
+        if (workerCount <= 0 || tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Worker count, tick and wheel size must be positive");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.outputStrategy = outputStrategy;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.tickMillis = tickMillis;
+        this.clock = clock;
+        this.wheelMask = size - 1;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i, size);
+        }
+    }
+
+    /**
+     * Schedules a generator to run periodically for one patient. Tasks must be scheduled before
+     * {@link #start()}.
+     *
+     * @param patientId    The ID of the patient.
+     * @param generator    The generator to run.
+     * @param initialDelay The time before the first run.
+     * @param period       The time between successive runs.
+     * @param timeUnit     The time unit of the delay and period.
+     */
+    @Override
+    public synchronized void schedule(int patientId, PatientDataGenerator generator, long initialDelay, long period,
+                                      TimeUnit timeUnit) {
+        if (running) {
+            throw new IllegalStateException("Tasks must be scheduled before the scheduler starts");
+        }
+        int generatorIndex = indexOf(generator);
+        int periodTicks = (int) Math.max(1, timeUnit.toNanos(period) / tickNanos);
+        long dueTick = timeUnit.toNanos(initialDelay) / tickNanos;
+        workers[Math.floorMod(patientId, workers.length)].add(patientId, generatorIndex, periodTicks, dueTick);
+    }
+
+    private int indexOf(PatientDataGenerator generator) {
+        for (int i = 0; i < generators.length; i++) {
+            if (generators[i] == generator) {
+                return i;
+            }
+        }
+        if (generators.length == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct generators");
+        }
+        generators = Arrays.copyOf(generators, generators.length + 1);
+        generators[generators.length - 1] = generator;
+        return generators.length - 1;
+    }
+
+    /**
+     * Runs the simulation faster than real time. Must be called before {@link #start()}.
+     *
+     * @param targetSamplesPerSecond The sample rate to hold the simulation to, or 0 to run as fast
+     *                               as the sinks accept data.
+     */
+    public synchronized void setFastMode(long targetSamplesPerSecond) {
+        if (running) {
+            throw new IllegalStateException("Fast mode must be set before the scheduler starts");
+        }
+        fastMode = true;
+        this.targetSamplesPerSecond = targetSamplesPerSecond;
+    }
+
+    /**
+     * Starts the worker threads. The first tick begins now.
+     */
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startMillis = clock.currentTimeMillis();
+        startNanos = System.nanoTime();
+        if (fastMode) {
+            tickBarrier = new CyclicBarrier(workers.length, this::pace);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads after their current tick.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (tickBarrier != null) {
+            tickBarrier.reset(); // releases workers waiting for the others
+        }
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+            try {
+                worker.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the largest delay observed between a tick's due time and the moment a worker
+     * started processing it.
+     *
+     * @return the maximum lateness in milliseconds
+     */
+    public long getMaxLatenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatenessNanos.get());
+    }
+
+    /**
+     * Returns the number of samples written so far.
+     *
+     * @return the sample count, summed over all workers
+     */
+    public long getSamples() {
+        long samples = 0;
+        for (Worker worker : workers) {
+            samples += worker.samples;
+        }
+        return samples;
+    }
+
+    /**
+     * Returns how long the workers have spent inside the output strategy, a measure of how much
+     * the sinks hold the simulation back.
+     *
+     * @return the time in milliseconds, summed over all workers
+     */
+    public long getSinkMillis() {
+        long nanos = 0;
+        for (Worker worker : workers) {
+            nanos += worker.sinkNanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    /**
+     * Returns how far the simulation has progressed.
+     *
+     * @return the simulated time in milliseconds since the start
+     */
+    public long getSimulatedMillis() {
+        return getTicks() * tickMillis;
+    }
+
+    /**
+     * Prints the achieved throughput and the share of worker time spent waiting for the sinks.
+     */
+    public void printStats() {
+        long wallMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        long simulatedMillis = getSimulatedMillis();
+        System.out.printf("Simulated %.1f s in %.1f s (%.1fx), %d samples, %.0f samples/s, sink back-pressure %.0f%%%n",
+                simulatedMillis / 1000.0, wallMillis / 1000.0, simulatedMillis / (double) wallMillis, getSamples(),
+                getSamples() * 1000.0 / wallMillis, 100.0 * getSinkMillis() / (wallMillis * workers.length));
+    }
+
+    /**
+     * Runs once per tick in fast mode, after every worker finished it: advances the clock and,
+     * with a target rate, waits until the samples written so far are due.
+     */
+    private void pace() {
+        long ticks = workers[0].processedTicks;
+        clock.advanceTo(startMillis + ticks * tickMillis);
+        if (targetSamplesPerSecond > 0) {
+            long dueNanos = startNanos + getSamples() * 1_000_000_000L / targetSamplesPerSecond;
+            long wait;
+            while (running && (wait = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ticks processed by the slowest worker.
+     *
+     * @return the tick count
+     */
+    public long getTicks() {
+        long ticks = Long.MAX_VALUE;
+        for (Worker worker : workers) {
+            ticks = Math.min(ticks, worker.processedTicks);
+        }
+        return ticks;
+    }
+
+    /**
+     * One worker thread with its own wheel. Task {@code t} is described by
+     * {@code taskPatients[t]}, {@code taskGenerators[t]} and {@code taskPeriods[t]};
+     * {@code taskRounds[t]} counts the turns of the wheel left before it is due.
+     */
+    private class Worker {
+        private final Thread thread;
+        private final int[][] slots;
+        private final int[] slotSizes;
+        private final SampleBatch batch = new SampleBatch(256);
+        private int[] taskPatients = new int[16];
+        private byte[] taskGenerators = new byte[16];
+        private int[] taskPeriods = new int[16];
+        private int[] taskRounds = new int[16];
+        private int taskCount;
+        private int[] due = new int[16];
+        private volatile long processedTicks;
+        private volatile long samples;
+        private volatile long sinkNanos;
+
+        private Worker(int index, int wheelSize) {
+            this.slots = new int[wheelSize][];
+            this.slotSizes = new int[wheelSize];
+            this.thread = new Thread(this::run, "tick-worker-" + index); // keeps the simulator alive, like the pool threads
+        }
+
+        private void add(int patientId, int generatorIndex, int periodTicks, long dueTick) {
+            if (taskCount == taskPatients.length) {
+                int capacity = taskCount * 2;
+                taskPatients = Arrays.copyOf(taskPatients, capacity);
+                taskGenerators = Arrays.copyOf(taskGenerators, capacity);
+                taskPeriods = Arrays.copyOf(taskPeriods, capacity);
+                taskRounds = Arrays.copyOf(taskRounds, capacity);
+            }
+            int task = taskCount++;
+            taskPatients[task] = patientId;
+            taskGenerators[task] = (byte) generatorIndex;
+            taskPeriods[task] = periodTicks;
+            insert(task, dueTick, -1);
+        }
+
+        /**
+         * Places a task in the slot of its due tick.
+         *
+         * @param lastTick The tick being processed, or -1 before the first one.
+         */
+        private void insert(int task, long dueTick, long lastTick) {
+            int slot = (int) (dueTick & wheelMask);
+            // the slot is visited this many times before the due tick comes round
+            taskRounds[task] = (int) ((dueTick - lastTick - 1) / (wheelMask + 1));
+            int[] bucket = slots[slot];
+            if (bucket == null) {
+                bucket = slots[slot] = new int[4];
+            } else if (slotSizes[slot] == bucket.length) {
+                bucket = slots[slot] = Arrays.copyOf(bucket, bucket.length * 2);
+            }
+            bucket[slotSizes[slot]++] = task;
+        }
+
+        private void run() {
+            if (fastMode) {
+                runFast();
+                return;
+            }
+            long tick = 0;
+            while (running) {
+                long dueNanos = startNanos + tick * tickNanos;
+                long wait = dueNanos - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                maxLatenessNanos.accumulateAndGet(-wait, Math::max);
+                processTick(tick);
+                processedTicks = ++tick;
+            }
+        }
+
+        private void runFast() {
+            long tick = 0;
+            try {
+                while (running) {
+                    processTick(tick);
+                    processedTicks = ++tick;
+                    tickBarrier.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (BrokenBarrierException e) {
+                // the scheduler was closed
+            }
+        }
+
+        private void processTick(long tick) {
+            int slot = (int) (tick & wheelMask);
+            int[] bucket = slots[slot];
+            int size = slotSizes[slot];
+            int kept = 0;
+            int dueCount = 0;
+            for (int i = 0; i < size; i++) {
+                int task = bucket[i];
+                if (taskRounds[task] > 0) {
+                    taskRounds[task]--;
+                    bucket[kept++] = task;
+                } else {
+                    if (dueCount == due.length) {
+                        due = Arrays.copyOf(due, dueCount * 2);
+                    }
+                    due[dueCount++] = task;
+                }
+            }
+            slotSizes[slot] = kept;
+
+            long timestamp = startMillis + tick * tickMillis;
+            for (int i = 0; i < dueCount; i++) {
+                int task = due[i];
+                generators[taskGenerators[task]].generate(taskPatients[task], timestamp, batch);
+                insert(task, tick + taskPeriods[task], tick);
+            }
+            if (!fastMode) {
+                clock.advanceTo(timestamp);
+            }
+            if (!batch.isEmpty()) {
+                long sinkStart = System.nanoTime();
+                try {
+                    outputStrategy.outputBatch(batch);
+                } catch (RuntimeException e) {
+                    System.err.println("Error writing samples: " + e.getMessage());
+                }
+                sinkNanos += System.nanoTime() - sinkStart;
+                samples += batch.size();
+                batch.clear();
+            }
+        }
+    }
+}
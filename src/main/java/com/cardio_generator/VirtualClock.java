@@ -0,0 +1,37 @@
+package com.cardio_generator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A simulated clock that starts at a fixed time and only moves when the simulation advances it.
+ * Together with a seed this makes a run reproducible: the same seed, patient count and start time
+ * produce the same samples with the same timestamps.
+ */
+public class VirtualClock implements SimulationClock {
+    private final AtomicLong now;
+
+    /**
+     * Constructs a VirtualClock.
+     *
+     * @param startMillis The simulated start time in milliseconds since the epoch.
+     */
+    public VirtualClock(long startMillis) {
+        this.now = new AtomicLong(startMillis);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now.get();
+    }
+
+    /**
+     * Moves the clock forward to the given time. The clock never moves backwards, so workers that
+     * are at different points of the simulation may all report their progress.
+     *
+     * @param millis The simulated time in milliseconds since the epoch.
+     */
+    @Override
+    public void advanceTo(long millis) {
+        now.accumulateAndGet(millis, Math::max);
+    }
+}
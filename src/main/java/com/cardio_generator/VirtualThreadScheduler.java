@@ -0,0 +1,163 @@
+package com.cardio_generator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+/**
+ * Runs each patient as its own generator loop on a virtual thread.
+ * A patient's loop sleeps until the next of its tasks is due, runs every task due by then and
+ * writes their samples as one batch, stamped with the simulated time the tasks were due.
+ * Sleeping unmounts the virtual thread, so even 100,000 patients only occupy as many carrier
+ * threads as there are processors. Deadlines advance by whole periods, so delays do not add up.
+ * <p>
+ * Virtual threads require Java 21; see {@link VirtualThreads}. Any other thread factory may be
+ * supplied instead, which is mainly useful for testing.
+ */
+public class VirtualThreadScheduler implements PatientScheduler {
+    private final OutputStrategy outputStrategy;
+    private final ThreadFactory threadFactory;
+    private final SimulationClock clock;
+    private final Map<Integer, PatientLoop> patients = new LinkedHashMap<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Constructs a VirtualThreadScheduler using virtual threads.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     * @throws UnsupportedOperationException If the JVM has no virtual threads.
+     */
+    public VirtualThreadScheduler(OutputStrategy outputStrategy) {
+        this(outputStrategy, SimulationClock.SYSTEM);
+    }
+
+    /**
+     * Constructs a VirtualThreadScheduler using virtual threads.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     * @param clock          The clock providing the simulated start time.
+     * @throws UnsupportedOperationException If the JVM has no virtual threads.
+     */
+    public VirtualThreadScheduler(OutputStrategy outputStrategy, SimulationClock clock) {
+        this(outputStrategy, VirtualThreads.factory("patient-"), clock);
+    }
+
+    /**
+     * Constructs a VirtualThreadScheduler.
+     *
+     * @param outputStrategy The strategy receiving the generated samples.
+     * @param threadFactory  Creates the thread of each patient.
+     * @param clock          The clock providing the simulated start time.
+     */
+    public VirtualThreadScheduler(OutputStrategy outputStrategy, ThreadFactory threadFactory, SimulationClock clock) {
+        this.outputStrategy = outputStrategy;
+        this.threadFactory = threadFactory;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized void schedule(int patientId, PatientDataGenerator generator, long initialDelay, long period,
+                                      TimeUnit timeUnit) {
+        if (running) {
+            throw new IllegalStateException("Tasks must be scheduled before the scheduler starts");
+        }
+        patients.computeIfAbsent(patientId, PatientLoop::new)
+                .add(generator, timeUnit.toNanos(initialDelay), Math.max(1, timeUnit.toNanos(period)));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        long startMillis = clock.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        for (PatientLoop patient : patients.values()) {
+            Thread thread = threadFactory.newThread(() -> patient.run(startMillis, startNanos));
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The tasks of one patient, with the offset of each task's next run from the start time.
+     */
+    private class PatientLoop {
+        private final int patientId;
+        private PatientDataGenerator[] generators = new PatientDataGenerator[0];
+        private long[] periods = new long[0];
+        private long[] nextRuns = new long[0];
+
+        private PatientLoop(int patientId) {
+            this.patientId = patientId;
+        }
+
+        private void add(PatientDataGenerator generator, long initialDelayNanos, long periodNanos) {
+            int task = generators.length;
+            generators = Arrays.copyOf(generators, task + 1);
+            periods = Arrays.copyOf(periods, task + 1);
+            nextRuns = Arrays.copyOf(nextRuns, task + 1);
+            generators[task] = generator;
+            periods[task] = periodNanos;
+            nextRuns[task] = initialDelayNanos;
+        }
+
+        private void run(long startMillis, long startNanos) {
+            SampleBatch batch = new SampleBatch(8);
+            while (running) {
+                long next = Long.MAX_VALUE;
+                for (long nextRun : nextRuns) {
+                    next = Math.min(next, nextRun);
+                }
+                long wait = startNanos + next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                    continue;
+                }
+                long timestamp = startMillis + TimeUnit.NANOSECONDS.toMillis(next);
+                for (int task = 0; task < generators.length; task++) {
+                    if (nextRuns[task] <= next) {
+                        generators[task].generate(patientId, timestamp, batch);
+                        nextRuns[task] += periods[task];
+                    }
+                }
+                clock.advanceTo(timestamp);
+                if (!batch.isEmpty()) {
+                    try {
+                        outputStrategy.outputBatch(batch);
+                    } catch (RuntimeException e) {
+                        System.err.println("Error writing samples of patient " + patientId + ": " + e.getMessage());
+                    }
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -1,37 +1,59 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
 /**
  * A generator for simulating alerts for patients.
+ * Each patient's alert state and random stream live in one object of its own, so patients can be
+ * generated in parallel without sharing any mutable state.
  */
 
 public class AlertGenerator implements PatientDataGenerator {
-    public static final Random randomGenerator = new Random();
-    private boolean[] AlertStates; // false = resolved, true = pressed
+    private final PatientState[] patients;
     /**
      * Constructs a new AlertGenerator with the specified number of patients.
      *
      * @param patientCount The number of patients for which to generate alerts.
      */
     public AlertGenerator(int patientCount) {
-        AlertStates = new boolean[patientCount + 1];
+        this(PatientRandoms.unseeded(patientCount));
     }
+
     /**
-     * Generates alert data for a specific patient and outputs it using the provided output strategy.
+     * Constructs a new AlertGenerator whose alerts are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients for which to generate alerts.
+     * @param seed The simulation seed.
+     */
+    public AlertGenerator(int patientCount, long seed) {
+        this(PatientRandoms.seeded(patientCount, seed, "Alert"));
+    }
+
+    private AlertGenerator(SplittableRandom[] randoms) {
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            patients[i] = new PatientState(randoms[i]);
+        }
+    }
+    /**
+     * Generates alert data for a specific patient and appends it to the batch.
      *
      * @param patientId The ID of the patient for whom to generate data.
-     * @param outputStrategy The strategy for outputting the generated data.
+     * @param timestamp The time the alert is stamped with.
+     * @param batch The batch receiving the generated data.
      */
     @Override
-    public void generate(int patientId, OutputStrategy outputStrategy) {
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        PatientState patient = patients[patientId];
+        SplittableRandom randomGenerator = patient.random;
         try {
-            if (AlertStates[patientId]) {
+            if (patient.pressed) {
                 if (randomGenerator.nextDouble() < 0.9) { // 90% chance to resolve
-                    AlertStates[patientId] = false;
+                    patient.pressed = false;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "resolved");
+                    batch.add(patientId, timestamp, SampleType.ALERT, 0);
                 }
             } else {
                 double Lambda = 0.1; // Average rate (alerts per period), adjust based on desired frequency
@@ -39,9 +61,9 @@ public class AlertGenerator implements PatientDataGenerator {
                 boolean alertTriggered = randomGenerator.nextDouble() < p;
 
                 if (alertTriggered) {
-                    AlertStates[patientId] = true;
+                    patient.pressed = true;
                     // Output the alert
-                    outputStrategy.output(patientId, System.currentTimeMillis(), "Alert", "triggered");
+                    batch.add(patientId, timestamp, SampleType.ALERT, 1);
                 }
             }
         } catch (Exception e) {
@@ -49,4 +71,13 @@ public class AlertGenerator implements PatientDataGenerator {
             e.printStackTrace();
         }
     }
+
+    private static final class PatientState {
+        private final SplittableRandom random;
+        private boolean pressed; // false = resolved, true = pressed
+
+        private PatientState(SplittableRandom random) {
+            this.random = random;
+        }
+    }
 }
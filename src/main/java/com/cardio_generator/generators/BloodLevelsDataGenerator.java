@@ -1,45 +1,69 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
 
 public class BloodLevelsDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
-    private final double[] baselineCholesterol;
-    private final double[] baselineWhiteCells;
-    private final double[] baselineRedCells;
+    private final PatientState[] patients;
 
     public BloodLevelsDataGenerator(int patientCount) {
-        // Initialize arrays to store baseline values for each patient
-        baselineCholesterol = new double[patientCount + 1];
-        baselineWhiteCells = new double[patientCount + 1];
-        baselineRedCells = new double[patientCount + 1];
+        this(PatientRandoms.unseeded(patientCount));
+    }
+
+    /**
+     * Constructs a BloodLevelsDataGenerator whose values are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients.
+     * @param seed The simulation seed.
+     */
+    public BloodLevelsDataGenerator(int patientCount, long seed) {
+        this(PatientRandoms.seeded(patientCount, seed, "BloodLevels"));
+    }
 
+    private BloodLevelsDataGenerator(SplittableRandom[] randoms) {
         // Generate baseline values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            baselineCholesterol[i] = 150 + random.nextDouble() * 50; // Initial random baseline
-            baselineWhiteCells[i] = 4 + random.nextDouble() * 6; // Initial random baseline
-            baselineRedCells[i] = 4.5 + random.nextDouble() * 1.5; // Initial random baseline
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            patients[i] = new PatientState(randoms[i]);
         }
     }
 
     @Override
-    public void generate(int patientId, OutputStrategy outputStrategy) {
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        PatientState patient = patients[patientId];
+        SplittableRandom random = patient.random;
         try {
             // Generate values around the baseline for realism
-            double cholesterol = baselineCholesterol[patientId] + (random.nextDouble() - 0.5) * 10; // Small variation
-            double whiteCells = baselineWhiteCells[patientId] + (random.nextDouble() - 0.5) * 1; // Small variation
-            double redCells = baselineRedCells[patientId] + (random.nextDouble() - 0.5) * 0.2; // Small variation
+            double cholesterol = patient.baselineCholesterol + (random.nextDouble() - 0.5) * 10; // Small variation
+            double whiteCells = patient.baselineWhiteCells + (random.nextDouble() - 0.5) * 1; // Small variation
+            double redCells = patient.baselineRedCells + (random.nextDouble() - 0.5) * 0.2; // Small variation
 
             // Output the generated values
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Cholesterol", Double.toString(cholesterol));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "WhiteBloodCells",
-                    Double.toString(whiteCells));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "RedBloodCells", Double.toString(redCells));
+            batch.add(patientId, timestamp, SampleType.CHOLESTEROL, cholesterol);
+            batch.add(patientId, timestamp, SampleType.WHITE_BLOOD_CELLS, whiteCells);
+            batch.add(patientId, timestamp, SampleType.RED_BLOOD_CELLS, redCells);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood levels data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    /**
+     * The random stream and fixed baselines of one patient.
+     */
+    private static final class PatientState {
+        private final SplittableRandom random;
+        private final double baselineCholesterol;
+        private final double baselineWhiteCells;
+        private final double baselineRedCells;
+
+        private PatientState(SplittableRandom random) {
+            this.random = random;
+            baselineCholesterol = 150 + random.nextDouble() * 50; // Initial random baseline
+            baselineWhiteCells = 4 + random.nextDouble() * 6; // Initial random baseline
+            baselineRedCells = 4.5 + random.nextDouble() * 1.5; // Initial random baseline
+        }
+    }
 }
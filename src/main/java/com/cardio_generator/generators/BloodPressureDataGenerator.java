@@ -1,46 +1,71 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
 
 public class BloodPressureDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
-
-    private int[] lastSystolicValues;
-    private int[] lastDiastolicValues;
+    private final PatientState[] patients;
 
     public BloodPressureDataGenerator(int patientCount) {
-        lastSystolicValues = new int[patientCount + 1];
-        lastDiastolicValues = new int[patientCount + 1];
+        this(PatientRandoms.unseeded(patientCount));
+    }
+
+    /**
+     * Constructs a BloodPressureDataGenerator whose values are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients.
+     * @param seed The simulation seed.
+     */
+    public BloodPressureDataGenerator(int patientCount, long seed) {
+        this(PatientRandoms.seeded(patientCount, seed, "BloodPressure"));
+    }
 
+    private BloodPressureDataGenerator(SplittableRandom[] randoms) {
         // Initialize with baseline values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastSystolicValues[i] = 110 + random.nextInt(20); // Random baseline between 110 and 130
-            lastDiastolicValues[i] = 70 + random.nextInt(15); // Random baseline between 70 and 85
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            patients[i] = new PatientState(randoms[i]);
         }
     }
 
     @Override
-    public void generate(int patientId, OutputStrategy outputStrategy) {
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        PatientState patient = patients[patientId];
+        SplittableRandom random = patient.random;
         try {
             int systolicVariation = random.nextInt(5) - 2; // -2, -1, 0, 1, or 2
             int diastolicVariation = random.nextInt(5) - 2;
-            int newSystolicValue = lastSystolicValues[patientId] + systolicVariation;
-            int newDiastolicValue = lastDiastolicValues[patientId] + diastolicVariation;
+            int newSystolicValue = patient.lastSystolic + systolicVariation;
+            int newDiastolicValue = patient.lastDiastolic + diastolicVariation;
             // Ensure the blood pressure stays within a realistic and safe range
             newSystolicValue = Math.min(Math.max(newSystolicValue, 90), 180);
             newDiastolicValue = Math.min(Math.max(newDiastolicValue, 60), 120);
-            lastSystolicValues[patientId] = newSystolicValue;
-            lastDiastolicValues[patientId] = newDiastolicValue;
+            patient.lastSystolic = newSystolicValue;
+            patient.lastDiastolic = newDiastolicValue;
 
-            outputStrategy.output(patientId, System.currentTimeMillis(), "SystolicPressure",
-                    Double.toString(newSystolicValue));
-            outputStrategy.output(patientId, System.currentTimeMillis(), "DiastolicPressure",
-                    Double.toString(newDiastolicValue));
+            batch.add(patientId, timestamp, SampleType.SYSTOLIC_PRESSURE, newSystolicValue);
+            batch.add(patientId, timestamp, SampleType.DIASTOLIC_PRESSURE, newDiastolicValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood pressure data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    /**
+     * The random stream and last readings of one patient. Only the thread generating the patient
+     * touches it, so plain fields are enough.
+     */
+    private static final class PatientState {
+        private final SplittableRandom random;
+        private int lastSystolic;
+        private int lastDiastolic;
+
+        private PatientState(SplittableRandom random) {
+            this.random = random;
+            lastSystolic = 110 + random.nextInt(20); // Random baseline between 110 and 130
+            lastDiastolic = 70 + random.nextInt(15); // Random baseline between 70 and 85
+        }
+    }
 }
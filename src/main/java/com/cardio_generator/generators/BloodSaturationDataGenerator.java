@@ -1,14 +1,14 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
 /**
  * A generator for simulating blood saturation data for patients.
  */
 public class BloodSaturationDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
-    private int[] lastSaturationValues;
+    private final PatientState[] patients;
 
     /**
      * Constructs a new BloodSaturationDataGenerator with the specified number of patients.
@@ -16,35 +16,62 @@ public class BloodSaturationDataGenerator implements PatientDataGenerator {
      * @param patientCount The number of patients for which to generate data.
      */
     public BloodSaturationDataGenerator(int patientCount) {
-        lastSaturationValues = new int[patientCount + 1];
+        this(PatientRandoms.unseeded(patientCount));
+    }
+
+    /**
+     * Constructs a BloodSaturationDataGenerator whose values are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients for which to generate data.
+     * @param seed The simulation seed.
+     */
+    public BloodSaturationDataGenerator(int patientCount, long seed) {
+        this(PatientRandoms.seeded(patientCount, seed, "Saturation"));
+    }
 
+    private BloodSaturationDataGenerator(SplittableRandom[] randoms) {
         // Initialize with baseline saturation values for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastSaturationValues[i] = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            patients[i] = new PatientState(randoms[i]);
         }
     }
 
     /**
-     * Generates blood saturation data for a specific patient and outputs it using the provided output strategy.
+     * Generates blood saturation data for a specific patient and appends it to the batch.
      *
      * @param patientId The ID of the patient for whom to generate data.
-     * @param outputStrategy The strategy for outputting the generated data.
+     * @param timestamp The time the sample is stamped with.
+     * @param batch The batch receiving the generated data.
      */
     @Override
-    public void generate(int patientId, OutputStrategy outputStrategy) {
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        PatientState patient = patients[patientId];
         try {
             // Simulate blood saturation values
-            int variation = random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
-            int newSaturationValue = lastSaturationValues[patientId] + variation;
+            int variation = patient.random.nextInt(3) - 1; // -1, 0, or 1 to simulate small fluctuations
+            int newSaturationValue = patient.lastSaturation + variation;
 
             // Ensure the saturation stays within a realistic and healthy range
             newSaturationValue = Math.min(Math.max(newSaturationValue, 90), 100);
-            lastSaturationValues[patientId] = newSaturationValue;
-            outputStrategy.output(patientId, System.currentTimeMillis(), "Saturation",
-                    Double.toString(newSaturationValue) + "%");
+            patient.lastSaturation = newSaturationValue;
+            batch.add(patientId, timestamp, SampleType.SATURATION, newSaturationValue);
         } catch (Exception e) {
             System.err.println("An error occurred while generating blood saturation data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
+
+    /**
+     * The random stream and last reading of one patient.
+     */
+    private static final class PatientState {
+        private final SplittableRandom random;
+        private int lastSaturation;
+
+        private PatientState(SplittableRandom random) {
+            this.random = random;
+            lastSaturation = 95 + random.nextInt(6); // Initializes with a value between 95 and 100
+        }
+    }
 }
@@ -1,39 +1,53 @@
 package com.cardio_generator.generators;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
-import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
 
 public class ECGDataGenerator implements PatientDataGenerator {
-    private static final Random random = new Random();
-    private double[] lastEcgValues;
+    private final PatientState[] patients;
     private static final double PI = Math.PI;
 
     public ECGDataGenerator(int patientCount) {
-        lastEcgValues = new double[patientCount + 1];
-        // Initialize the last ECG value for each patient
-        for (int i = 1; i <= patientCount; i++) {
-            lastEcgValues[i] = 0; // Initial ECG value can be set to 0
+        this(PatientRandoms.unseeded(patientCount));
+    }
+
+    /**
+     * Constructs an ECGDataGenerator whose values are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients.
+     * @param seed The simulation seed.
+     */
+    public ECGDataGenerator(int patientCount, long seed) {
+        this(PatientRandoms.seeded(patientCount, seed, "ECG"));
+    }
+
+    private ECGDataGenerator(SplittableRandom[] randoms) {
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            patients[i] = new PatientState(randoms[i]);
         }
     }
 
     @Override
-    public void generate(int patientId, OutputStrategy outputStrategy) {
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
         // TODO Check how realistic this data is and make it more realistic if necessary
         try {
-            double ecgValue = simulateEcgWaveform(patientId, lastEcgValues[patientId]);
-            outputStrategy.output(patientId, System.currentTimeMillis(), "ECG", Double.toString(ecgValue));
-            lastEcgValues[patientId] = ecgValue;
+            PatientState patient = patients[patientId];
+            double ecgValue = simulateEcgWaveform(patient.random, timestamp, patient.lastEcgValue);
+            batch.add(patientId, timestamp, SampleType.ECG, ecgValue);
+            patient.lastEcgValue = ecgValue;
         } catch (Exception e) {
             System.err.println("An error occurred while generating ECG data for patient " + patientId);
             e.printStackTrace(); // This will print the stack trace to help identify where the error occurred.
         }
     }
 
-    private double simulateEcgWaveform(int patientId, double lastEcgValue) {
+    private double simulateEcgWaveform(SplittableRandom random, long timestamp, double lastEcgValue) {
         // Simplified ECG waveform generation based on sinusoids
         double hr = 60.0 + random.nextDouble() * 20.0; // Simulate heart rate variability between 60 and 80 bpm
-        double t = System.currentTimeMillis() / 1000.0; // Use system time to simulate continuous time
+        double t = timestamp / 1000.0; // Use the sample time to simulate continuous time
         double ecgFrequency = hr / 60.0; // Convert heart rate to Hz
 
         // Simulate different components of the ECG signal
@@ -43,4 +57,16 @@ public class ECGDataGenerator implements PatientDataGenerator {
 
         return pWave + qrsComplex + tWave + random.nextDouble() * 0.05; // Add small noise
     }
+
+    /**
+     * The random stream and last value of one patient.
+     */
+    private static final class PatientState {
+        private final SplittableRandom random;
+        private double lastEcgValue; // Initial ECG value is 0
+
+        private PatientState(SplittableRandom random) {
+            this.random = random;
+        }
+    }
 }
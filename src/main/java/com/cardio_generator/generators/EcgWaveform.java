@@ -0,0 +1,139 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Synthesizes the ECG signal of one patient, in millivolts, at a fixed sample rate.
+ * Every beat is the sum of five Gaussian waves (P, Q, R, S and T) placed around the R peak, in the
+ * manner of the ECGSYN model. The Q, R and S waves keep their width at any heart rate, while the P and
+ * T waves move with the square root of the RR interval, as they do in real recordings (Bazett).
+ * <p>
+ * The RR interval of each beat varies with breathing (respiratory sinus arrhythmia) and with a
+ * small random beat-to-beat jitter around the target heart rate, and the baseline wanders with
+ * breathing. A waveform is not thread-safe; it belongs to the thread generating its patient.
+ */
+public class EcgWaveform {
+    // P, Q, R, S, T: amplitude in mV, offset from the R peak in seconds at 60 bpm, width in seconds
+    private static final double[] AMPLITUDES = {0.15, -0.12, 1.2, -0.25, 0.3};
+    private static final double[] OFFSETS = {-0.2, -0.03, 0, 0.03, 0.3};
+    private static final double[] WIDTHS = {0.025, 0.01, 0.012, 0.012, 0.05};
+    private static final boolean[] SCALES_WITH_RR = {true, false, false, false, true};
+
+    private static final double RESPIRATION_HZ = 0.25;
+    private static final double MIN_RR = 60.0 / 220;
+    private static final double MAX_RR = 60.0 / 30;
+
+    private final SplittableRandom random;
+    private final double sampleSeconds;
+    private double heartRate;
+    private double time; // seconds since the waveform started
+    private double sinceR; // seconds since the current beat's R peak
+    private double previousRr;
+    private double currentRr;
+    private double nextRr;
+
+    /**
+     * Constructs a waveform.
+     *
+     * @param sampleRateHz The number of samples per second.
+     * @param heartRate    The initial heart rate in beats per minute.
+     * @param random       The patient's random stream.
+     */
+    public EcgWaveform(double sampleRateHz, double heartRate, SplittableRandom random) {
+        if (sampleRateHz <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + sampleRateHz);
+        }
+        this.sampleSeconds = 1 / sampleRateHz;
+        this.random = random;
+        setHeartRate(heartRate);
+        previousRr = drawRr();
+        currentRr = drawRr();
+        nextRr = drawRr();
+        sinceR = random.nextDouble() * currentRr; // start at a random point of the cycle
+    }
+
+    /**
+     * Changes the target heart rate; it takes effect from the next beats on.
+     *
+     * @param heartRate The heart rate in beats per minute.
+     */
+    public void setHeartRate(double heartRate) {
+        this.heartRate = Math.min(Math.max(heartRate, 60 / MAX_RR), 60 / MIN_RR);
+    }
+
+    public double getHeartRate() {
+        return heartRate;
+    }
+
+    /**
+     * Fills {@code out[0..count)} with the next samples of the signal.
+     *
+     * @param out   The array receiving the samples.
+     * @param count The number of samples to generate.
+     */
+    public void fill(double[] out, int count) {
+        fill(out, count, null);
+    }
+
+    /**
+     * Fills {@code out[0..count)} with the next samples of the signal and reports the R peaks.
+     *
+     * @param out   The array receiving the samples.
+     * @param count The number of samples to generate.
+     * @param peaks Receives the index of the first sample at or after each R peak, or null;
+     *              must hold {@code count} entries.
+     * @return the number of R peaks within the samples
+     */
+    public int fill(double[] out, int count, int[] peaks) {
+        int peakCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (sinceR >= currentRr) {
+                do {
+                    sinceR -= currentRr;
+                    previousRr = currentRr;
+                    currentRr = nextRr;
+                    nextRr = drawRr();
+                } while (sinceR >= currentRr);
+                if (peaks != null) {
+                    peaks[peakCount] = i;
+                }
+                peakCount++;
+            }
+            double value = beat(sinceR, currentRr) + beat(sinceR + previousRr, previousRr)
+                    + beat(sinceR - currentRr, nextRr);
+            value += 0.05 * Math.sin(2 * Math.PI * RESPIRATION_HZ * time); // baseline wander
+            value += (random.nextDouble() - 0.5) * 0.02; // measurement noise
+            out[i] = value;
+            time += sampleSeconds;
+            sinceR += sampleSeconds;
+        }
+        return peakCount;
+    }
+
+    /**
+     * The signal of one beat at a time relative to its R peak.
+     */
+    private static double beat(double t, double rr) {
+        double scale = Math.sqrt(rr);
+        double value = 0;
+        for (int wave = 0; wave < AMPLITUDES.length; wave++) {
+            double offset = SCALES_WITH_RR[wave] ? OFFSETS[wave] * scale : OFFSETS[wave];
+            double width = SCALES_WITH_RR[wave] ? WIDTHS[wave] * scale : WIDTHS[wave];
+            double d = (t - offset) / width;
+            if (d > -6 && d < 6) {
+                value += AMPLITUDES[wave] * Math.exp(-0.5 * d * d);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Draws the RR interval of the next beat around the target heart rate.
+     */
+    private double drawRr() {
+        double rr = 60 / heartRate;
+        rr *= 1 + 0.04 * Math.sin(2 * Math.PI * RESPIRATION_HZ * time); // faster when breathing in
+        rr *= 1 + (random.nextDouble() - 0.5) * 0.04;
+        return Math.min(Math.max(rr, MIN_RR), MAX_RR);
+    }
+}
@@ -0,0 +1,134 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+/**
+ * A generator for high-rate ECG signals with realistic P-QRS-T morphology, see {@link EcgWaveform}.
+ * Unlike {@link ECGDataGenerator}, which writes one value per call, every call writes all samples the
+ * patient has produced since the previous call, so the generator is scheduled at a short period
+ * (for example 100 ms) and emits blocks of samples. The samples are synthesized into per-patient
+ * primitive arrays and copied into the batch in bulk, stamped with their own sample times.
+ * <p>
+ * The signal is written as {@link SampleType#ECG_WAVEFORM}. The monitoring side reads
+ * {@link SampleType#ECG} as one record per beat, so each R peak is also written as an ECG record,
+ * at the time of the peak's sample.
+ */
+public class EcgWaveformGenerator implements PatientDataGenerator {
+    private static final int BLOCK_SIZE = 512;
+    private static final int MAX_BACKLOG_SECONDS = 10;
+
+    private final double sampleRateHz;
+    private final PatientState[] patients;
+
+    /**
+     * Constructs an EcgWaveformGenerator.
+     *
+     * @param patientCount The number of patients.
+     * @param sampleRateHz The number of samples per second and patient, typically 250 to 500.
+     */
+    public EcgWaveformGenerator(int patientCount, int sampleRateHz) {
+        this(sampleRateHz, PatientRandoms.unseeded(patientCount));
+    }
+
+    /**
+     * Constructs an EcgWaveformGenerator whose signals are reproducible for a given seed.
+     *
+     * @param patientCount The number of patients.
+     * @param sampleRateHz The number of samples per second and patient, typically 250 to 500.
+     * @param seed         The simulation seed.
+     */
+    public EcgWaveformGenerator(int patientCount, int sampleRateHz, long seed) {
+        this(sampleRateHz, PatientRandoms.seeded(patientCount, seed, "EcgWaveform"));
+    }
+
+    private EcgWaveformGenerator(int sampleRateHz, SplittableRandom[] randoms) {
+        if (sampleRateHz < 1 || sampleRateHz > 1000) {
+            // samples are stamped in milliseconds
+            throw new IllegalArgumentException("Sample rate must be between 1 and 1000 Hz: " + sampleRateHz);
+        }
+        this.sampleRateHz = sampleRateHz;
+        patients = new PatientState[randoms.length];
+        for (int i = 0; i < randoms.length; i++) {
+            double heartRate = 60 + randoms[i].nextDouble() * 30; // resting rate between 60 and 90 bpm
+            patients[i] = new PatientState(new EcgWaveform(sampleRateHz, heartRate, randoms[i]));
+        }
+    }
+
+    /**
+     * Returns the waveform of a patient, for example to change its heart rate.
+     *
+     * @param patientId The ID of the patient.
+     * @return the patient's waveform
+     */
+    public EcgWaveform getWaveform(int patientId) {
+        return patients[patientId].waveform;
+    }
+
+    /**
+     * Appends the samples of a patient that fall due up to and including the given time. The first
+     * call starts the patient's signal at that time. After a gap of more than ten seconds the missed
+     * samples are skipped rather than caught up with.
+     *
+     * @param patientId The ID of the patient.
+     * @param timestamp The current (possibly simulated) time.
+     * @param batch     The batch receiving the samples.
+     */
+    @Override
+    public void generate(int patientId, long timestamp, SampleBatch batch) {
+        PatientState patient = patients[patientId];
+        if (patient.emitted == 0) {
+            patient.originMillis = timestamp;
+        }
+        long due = (long) Math.floor((timestamp - patient.originMillis) * sampleRateHz / 1000) + 1;
+        long count = due - patient.emitted;
+        if (count <= 0) {
+            return;
+        }
+        if (count > MAX_BACKLOG_SECONDS * (long) sampleRateHz) {
+            count = MAX_BACKLOG_SECONDS * (long) sampleRateHz;
+            patient.emitted = due - count;
+        }
+        patient.ensureCapacity((int) Math.min(count, BLOCK_SIZE));
+        double[] values = patient.values;
+        long[] timestamps = patient.timestamps;
+        int[] peaks = patient.peaks;
+        while (count > 0) {
+            int block = (int) Math.min(count, values.length);
+            int peakCount = patient.waveform.fill(values, block, peaks);
+            for (int i = 0; i < block; i++) {
+                timestamps[i] = patient.originMillis + (long) ((patient.emitted + i) * 1000 / sampleRateHz);
+            }
+            batch.addBlock(patientId, timestamps, SampleType.ECG_WAVEFORM, values, block);
+            for (int p = 0; p < peakCount; p++) {
+                batch.add(patientId, timestamps[peaks[p]], SampleType.ECG, values[peaks[p]]);
+            }
+            patient.emitted += block;
+            count -= block;
+        }
+    }
+
+    private static final class PatientState {
+        private final EcgWaveform waveform;
+        private long originMillis;
+        private long emitted; // samples written since originMillis
+        // scratch arrays, grown to the largest block the patient has needed
+        private double[] values = new double[0];
+        private long[] timestamps = new long[0];
+        private int[] peaks = new int[0];
+
+        private PatientState(EcgWaveform waveform) {
+            this.waveform = waveform;
+        }
+
+        private void ensureCapacity(int size) {
+            if (values.length < size) {
+                values = new double[size];
+                timestamps = new long[size];
+                peaks = new int[size];
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.cardio_generator.generators;
 
 import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
 
 /**
  * Interface for generating artificial patient data for chosen patient, with defined output strategy.
@@ -9,9 +10,37 @@ import com.cardio_generator.outputs.OutputStrategy;
 public interface PatientDataGenerator {
     /**
      * method generating artificial patient data for chosen patient, using chosen output strategy.
+     * The samples of one call are handed over together through {@link OutputStrategy#outputBatch}.
      *
      * @param patientId The ID of the patient.
      * @param outputStrategy OutputStrategy  (interface)
      */
-    void generate(int patientId, OutputStrategy outputStrategy);
+    default void generate(int patientId, OutputStrategy outputStrategy) {
+        SampleBatch batch = new SampleBatch(4);
+        generate(patientId, batch);
+        if (!batch.isEmpty()) {
+            outputStrategy.outputBatch(batch);
+        }
+    }
+
+    /**
+     * method generating artificial patient data for chosen patient at the current time, appending
+     * the samples as primitive values to a batch instead of formatting them.
+     *
+     * @param patientId The ID of the patient.
+     * @param batch The batch receiving the generated samples.
+     */
+    default void generate(int patientId, SampleBatch batch) {
+        generate(patientId, System.currentTimeMillis(), batch);
+    }
+
+    /**
+     * method generating artificial patient data for chosen patient at a given (possibly simulated)
+     * time, appending the samples as primitive values to a batch instead of formatting them.
+     *
+     * @param patientId The ID of the patient.
+     * @param timestamp The time the samples are stamped with.
+     * @param batch The batch receiving the generated samples.
+     */
+    void generate(int patientId, long timestamp, SampleBatch batch);
 }
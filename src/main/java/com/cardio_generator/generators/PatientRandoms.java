@@ -0,0 +1,60 @@
+package com.cardio_generator.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates one random number generator per patient for a generator.
+ * With a seed, each patient's stream depends only on the seed, the generator and the patient ID,
+ * so a patient produces the same values however the patients are scheduled.
+ * <p>
+ * The streams are {@link SplittableRandom}s: they are not shared between threads, so drawing a
+ * value is a plain field update instead of a compare-and-set on a shared seed. A patient's stream
+ * must only be used by one thread at a time, which every scheduler guarantees by never running
+ * two tasks of the same generator and patient at once.
+ */
+final class PatientRandoms {
+    private PatientRandoms() {
+    }
+
+    /**
+     * Creates seeded generators for patients 1 to {@code patientCount}.
+     *
+     * @param patientCount The number of patients.
+     * @param seed         The simulation seed.
+     * @param generator    A name distinguishing the streams of different generators.
+     * @return the generators, indexed by patient ID
+     */
+    static SplittableRandom[] seeded(int patientCount, long seed, String generator) {
+        SplittableRandom[] randoms = new SplittableRandom[patientCount + 1];
+        long base = mix(seed ^ mix(generator.hashCode()));
+        for (int i = 0; i <= patientCount; i++) {
+            randoms[i] = new SplittableRandom(mix(base + i));
+        }
+        return randoms;
+    }
+
+    /**
+     * Creates independent generators for patients 1 to {@code patientCount}, split from one
+     * randomly seeded root.
+     *
+     * @param patientCount The number of patients.
+     * @return the generators, indexed by patient ID
+     */
+    static SplittableRandom[] unseeded(int patientCount) {
+        SplittableRandom root = new SplittableRandom();
+        SplittableRandom[] randoms = new SplittableRandom[patientCount + 1];
+        for (int i = 0; i <= patientCount; i++) {
+            randoms[i] = root.split();
+        }
+        return randoms;
+    }
+
+    /**
+     * The SplitMix64 finalizer; spreads similar inputs over unrelated seeds.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -5,4 +5,23 @@ public class ConsoleOutputStrategy implements OutputStrategy {
     public void output(int patientId, long timestamp, String label, String data) {
         System.out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
     }
+
+    /**
+     * Formats the whole batch into one buffer and prints it with a single write.
+     *
+     * @param batch The samples to output.
+     */
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 80);
+        for (int i = 0; i < batch.size(); i++) {
+            SampleType type = batch.getType(i);
+            text.append("Patient ID: ").append(batch.getPatientId(i))
+                    .append(", Timestamp: ").append(batch.getTimestamp(i))
+                    .append(", Label: ").append(type.getLabel())
+                    .append(", Data: ");
+            type.appendValue(text, batch.getValue(i)).append(System.lineSeparator());
+        }
+        System.out.print(text);
+    }
 }
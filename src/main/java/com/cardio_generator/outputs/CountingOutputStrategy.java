@@ -0,0 +1,46 @@
+package com.cardio_generator.outputs;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Passes every sample on to another strategy and counts them, for reporting the emitted rate.
+ */
+public class CountingOutputStrategy implements OutputStrategy {
+    private final OutputStrategy delegate;
+    private final LongAdder samples = new LongAdder();
+
+    /**
+     * Constructs a CountingOutputStrategy.
+     *
+     * @param delegate The strategy receiving the samples.
+     */
+    public CountingOutputStrategy(OutputStrategy delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        delegate.output(patientId, timestamp, label, data);
+        samples.increment();
+    }
+
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        delegate.outputBatch(batch);
+        samples.add(batch.size());
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Returns the number of samples passed on so far.
+     *
+     * @return the sample count
+     */
+    public long getSamples() {
+        return samples.sum();
+    }
+}
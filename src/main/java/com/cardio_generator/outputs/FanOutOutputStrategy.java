@@ -0,0 +1,374 @@
+package com.cardio_generator.outputs;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Composite strategy that forwards every sample to several sinks (for example files for audit,
+ * WebSocket for live monitoring and TCP for a recorder) without letting the slowest sink block
+ * the generator threads.
+ * <p>
+ * Each sample is written once into a shared ring buffer. Every sink has its own consumer thread
+ * that follows the ring at its own pace. Producers never wait: when a sink falls more than the
+ * ring capacity behind, the samples it missed are overwritten and counted as dropped for that
+ * sink only. Slots are guarded by a per-slot sequence number, so a consumer that is overtaken
+ * while copying a slot notices it and drops that sample instead of delivering a torn one.
+ * A producer takes a slot over from any earlier sample that is published, so a sample that was
+ * never written does not hold the slot, and never while another producer writes it, so two
+ * producers never write one slot together. A producer that finds an earlier sample still being
+ * written after a short spin drops its own sample and marks it as skipped, and consumers step over
+ * it at once; a sample that was claimed but does not appear within a short wait is counted as
+ * dropped as well.
+ * Samples written through {@link #outputBatch(SampleBatch)} stay primitive in the ring and reach
+ * each sink again as batches.
+ */
+public class FanOutOutputStrategy implements OutputStrategy {
+    private static final int DEFAULT_CAPACITY = 64 * 1024;
+    private static final long WRITING = Long.MIN_VALUE; // plus the sequence being written
+    private static final long WRITING_LIMIT = Long.MIN_VALUE / 2;
+    private static final byte TEXT = -1;
+    private static final int MAX_SINK_BATCH = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long PUBLISH_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long LOST_SLOT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int PUBLISH_SPINS = 64;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray skipped; // per slot, the latest sequence a producer gave up on
+    private final int[] patientIds;
+    private final long[] timestamps;
+    private final byte[] types;
+    private final double[] values;
+    private final String[] labels;
+    private final String[] data;
+    private final AtomicLong claimed = new AtomicLong();
+    private final ThreadFactory threadFactory;
+    private final List<Sink> sinks = new CopyOnWriteArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Constructs a FanOutOutputStrategy with the default ring capacity.
+     */
+    public FanOutOutputStrategy() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a FanOutOutputStrategy.
+     *
+     * @param capacity The number of samples the ring buffer holds, rounded up to a power of two.
+     *                 A sink may fall this far behind before it starts dropping samples.
+     */
+    public FanOutOutputStrategy(int capacity) {
+        this(capacity, Thread::new);
+    }
+
+    /**
+     * Constructs a FanOutOutputStrategy whose sink threads come from the given factory,
+     * for example virtual threads.
+     *
+     * @param capacity      The number of samples the ring buffer holds, rounded up to a power of two.
+     * @param threadFactory Creates the consumer thread of each sink.
+     */
+    public FanOutOutputStrategy(int capacity, ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.skipped = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i - (long) size); // no slot holds a sample yet
+            skipped.set(i, -1);
+        }
+        this.patientIds = new int[size];
+        this.timestamps = new long[size];
+        this.types = new byte[size];
+        this.values = new double[size];
+        this.labels = new String[size];
+        this.data = new String[size];
+    }
+
+    /**
+     * Registers a sink and starts its consumer thread. A sink only receives samples written
+     * after it was added.
+     *
+     * @param name   The name used for this sink in the metrics and its thread.
+     * @param output The strategy receiving the samples.
+     */
+    public synchronized void addSink(String name, OutputStrategy output) {
+        running = true;
+        Sink sink = new Sink(name, output, claimed.get());
+        sinks.add(sink);
+        sink.thread.start();
+    }
+
+    @Override
+    public void output(int patientId, long timestamp, String label, String data) {
+        publish(patientId, timestamp, TEXT, 0, label, data);
+        wakeSinks();
+    }
+
+    /**
+     * Writes the samples into the ring buffer as primitive values. Sinks receive them again as
+     * batches and format them in their own way.
+     *
+     * @param batch The samples to output.
+     */
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            publish(batch.getPatientId(i), batch.getTimestamp(i), batch.getType(i).code(), batch.getValue(i),
+                    null, null);
+        }
+        wakeSinks();
+    }
+
+    private void publish(int patientId, long timestamp, byte type, double value, String label, String data) {
+        long sequence = claimed.getAndIncrement();
+        int index = (int) sequence & mask;
+        for (int spins = 0; spins < PUBLISH_SPINS; spins++) {
+            long current = sequences.get(index);
+            if (sequenceOf(current) >= sequence) {
+                break; // a later sample already has the slot
+            }
+            if (current < WRITING_LIMIT) {
+                Thread.onSpinWait(); // an earlier sample is still being written
+            } else if (sequences.compareAndSet(index, current, WRITING + sequence)) {
+                VarHandle.storeStoreFence();
+                patientIds[index] = patientId;
+                timestamps[index] = timestamp;
+                types[index] = type;
+                values[index] = value;
+                labels[index] = label;
+                this.data[index] = data;
+                sequences.set(index, sequence);
+                return;
+            }
+        }
+        skipped.accumulateAndGet(index, sequence, Math::max); // consumers count this sample as dropped
+    }
+
+    /**
+     * Returns the sequence a slot holds or is being written with.
+     */
+    private static long sequenceOf(long slot) {
+        return slot < WRITING_LIMIT ? slot - WRITING : slot;
+    }
+
+    private void wakeSinks() {
+        for (Sink sink : sinks) {
+            if (sink.idle) {
+                LockSupport.unpark(sink.thread);
+            }
+        }
+    }
+
+    /**
+     * Lets every sink drain what is already in the ring buffer, then closes the sinks.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        for (Sink sink : sinks) {
+            LockSupport.unpark(sink.thread);
+            try {
+                sink.thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            sink.output.close();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the per-sink metrics.
+     *
+     * @return one entry per sink, in registration order
+     */
+    public synchronized List<SinkMetrics> getMetrics() {
+        List<SinkMetrics> metrics = new ArrayList<>();
+        long head = claimed.get();
+        for (Sink sink : sinks) {
+            metrics.add(new SinkMetrics(sink.name, sink.delivered.get(), sink.dropped.get(),
+                    Math.max(0, head - sink.next)));
+        }
+        return metrics;
+    }
+
+    /**
+     * Prints the per-sink metrics to the console.
+     */
+    public void printMetrics() {
+        for (SinkMetrics metrics : getMetrics()) {
+            System.out.println(metrics);
+        }
+    }
+
+    private void consume(Sink sink) {
+        long waitingFor = -1;
+        long waitStart = 0;
+        int spins = 0;
+        while (true) {
+            long sequence = sink.next;
+            int index = (int) sequence & mask;
+            long published = sequences.get(index);
+            if (published == sequence) {
+                int patientId = patientIds[index];
+                long timestamp = timestamps[index];
+                byte type = types[index];
+                double value = values[index];
+                String label = labels[index];
+                String text = data[index];
+                VarHandle.acquireFence();
+                if (sequences.get(index) != sequence) {
+                    skipTo(sink, sequence + 1);
+                } else if (type == TEXT) {
+                    deliver(sink);
+                    try {
+                        sink.output.output(patientId, timestamp, label, text);
+                    } catch (RuntimeException e) {
+                        System.err.println("Sink " + sink.name + " failed: " + e.getMessage());
+                    }
+                    sink.delivered.incrementAndGet();
+                    sink.next = sequence + 1;
+                } else {
+                    sink.batch.add(patientId, timestamp, SampleType.fromCode(type), value);
+                    sink.next = sequence + 1;
+                    if (sink.batch.size() >= MAX_SINK_BATCH) {
+                        deliver(sink);
+                    }
+                }
+                continue;
+            }
+            deliver(sink); // nothing more is ready, hand over what has been collected
+            if (sequenceOf(published) > sequence) {
+                // Overtaken by the producers: everything older than one ring is gone
+                skipTo(sink, Math.max(sequence + 1, claimed.get() - mask));
+            } else if (skipped.get(index) >= sequence) {
+                skipTo(sink, sequence + 1); // the producer gave the sample up
+            } else if (sequence < claimed.get()) {
+                // claimed but not yet published: give the producer a moment, then count the sample as lost
+                if (waitingFor != sequence) {
+                    waitingFor = sequence;
+                    waitStart = System.nanoTime();
+                    spins = 0;
+                }
+                if (System.nanoTime() - waitStart >= LOST_SLOT_NANOS) {
+                    skipTo(sink, sequence + 1);
+                } else if (++spins < PUBLISH_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(PUBLISH_PARK_NANOS);
+                }
+            } else if (!running) {
+                return;
+            } else {
+                sink.idle = true;
+                if (sequence == claimed.get() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                sink.idle = false;
+            }
+        }
+    }
+
+    private static void deliver(Sink sink) {
+        if (sink.batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.output.outputBatch(sink.batch);
+        } catch (RuntimeException e) {
+            System.err.println("Sink " + sink.name + " failed: " + e.getMessage());
+        }
+        sink.delivered.addAndGet(sink.batch.size());
+        sink.batch.clear();
+    }
+
+    private static void skipTo(Sink sink, long sequence) {
+        if (sequence > sink.next) {
+            sink.dropped.addAndGet(sequence - sink.next);
+            sink.next = sequence;
+        }
+    }
+
+    private class Sink {
+        private final String name;
+        private final OutputStrategy output;
+        private final Thread thread;
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final SampleBatch batch = new SampleBatch(MAX_SINK_BATCH);
+        private volatile long next;
+        private volatile boolean idle;
+
+        private Sink(String name, OutputStrategy output, long next) {
+            this.name = name;
+            this.output = output;
+            this.next = next;
+            this.thread = threadFactory.newThread(() -> consume(this));
+            thread.setName("fan-out-" + name);
+            if (!thread.isDaemon()) {
+                thread.setDaemon(true); // virtual threads are always daemon threads
+            }
+        }
+    }
+
+    /**
+     * Point-in-time metrics of one sink.
+     */
+    public static class SinkMetrics {
+        private final String name;
+        private final long delivered;
+        private final long dropped;
+        private final long lag;
+
+        private SinkMetrics(String name, long delivered, long dropped, long lag) {
+            this.name = name;
+            this.delivered = delivered;
+            this.dropped = dropped;
+            this.lag = lag;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Returns how many samples have been written but not yet taken by this sink.
+         *
+         * @return the lag in samples
+         */
+        public long getLag() {
+            return lag;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Sink: %s, delivered: %d, dropped: %d, lag: %d samples",
+                    name, delivered, dropped, lag);
+        }
+    }
+}
@@ -1,25 +1,154 @@
 package com.cardio_generator.outputs;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * A strategy implementation for outputting data to files.
+ * Lines are formatted on the calling thread and handed to a single writer thread through a
+ * bounded queue. The writer keeps one open file per label and commits in groups: buffered
+ * lines are flushed once {@code commitBytes} have accumulated or {@code commitIntervalMillis}
+ * have passed, whichever comes first. When the queue is full, callers wait, so no data is lost.
+ * The owner must call {@link #close()} to commit the lines still buffered.
+ * <p>
+ * Without a {@link RotationPolicy} every label is appended to {@code <label>.txt} forever.
+ * With one, each label is written to rolling segments as described by the policy.
  */
 public class FileOutputStrategy implements OutputStrategy {
+    private static final int QUEUE_CAPACITY = 65536;
+    private static final int MAX_DRAIN = 4096;
+    private static final int WRITER_BUFFER_SIZE = 64 * 1024;
+    private static final int DEFAULT_COMMIT_BYTES = 256 * 1024;
+    private static final long DEFAULT_COMMIT_INTERVAL_MILLIS = 100;
+    private static final long FSYNC_INTERVAL_MILLIS = 1000;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+    private static final Entry POISON = new Entry(null, 0, null);
+
+    /**
+     * How often committed data is forced to the storage device.
+     */
+    public enum Durability {
+        /** Never fsync; the operating system writes data back when it chooses. */
+        NONE,
+        /** Fsync at most once per second. */
+        INTERVAL,
+        /** Fsync after every group commit. */
+        COMMIT
+    }
 
     /** The base directory where files will be saved. */
     private String BaseDirectory;
 
     public final ConcurrentHashMap<String, String> file_map = new ConcurrentHashMap<>();
 
+    private final Durability durability;
+    private final RotationPolicy rotation;
+    private final ExecutorService compressor;
+    private final int commitBytes;
+    private final long commitIntervalMillis;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Map<String, LabelFile> files = new HashMap<>();
+    private final Thread writerThread;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock(); // read: queueing, write: closing
+    private boolean closed;
+
+    /**
+     * Constructs a FileOutputStrategy that does not fsync.
+     *
+     * @param baseDirectory The directory where one file per label is written.
+     */
     public FileOutputStrategy(String baseDirectory) {
+        this(baseDirectory, Durability.NONE);
+    }
 
+    /**
+     * Constructs a FileOutputStrategy with the default group commit settings.
+     *
+     * @param baseDirectory The directory where one file per label is written.
+     * @param durability    How often committed data is forced to disk.
+     */
+    public FileOutputStrategy(String baseDirectory, Durability durability) {
+        this(baseDirectory, durability, DEFAULT_COMMIT_BYTES, DEFAULT_COMMIT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Constructs a FileOutputStrategy.
+     *
+     * @param baseDirectory        The directory where one file per label is written.
+     * @param durability           How often committed data is forced to disk.
+     * @param commitBytes          The number of buffered bytes that triggers a commit.
+     * @param commitIntervalMillis The maximum time a line stays buffered before a commit.
+     */
+    public FileOutputStrategy(String baseDirectory, Durability durability, int commitBytes, long commitIntervalMillis) {
+        this(baseDirectory, durability, commitBytes, commitIntervalMillis, null);
+    }
+
+    /**
+     * Constructs a FileOutputStrategy that writes rolling segments.
+     *
+     * @param baseDirectory The directory where the segments and their indexes are written.
+     * @param durability    How often committed data is forced to disk.
+     * @param rotation      When to seal segments, or null to append to a single file per label.
+     */
+    public FileOutputStrategy(String baseDirectory, Durability durability, RotationPolicy rotation) {
+        this(baseDirectory, durability, DEFAULT_COMMIT_BYTES, DEFAULT_COMMIT_INTERVAL_MILLIS, rotation);
+    }
+
+    /**
+     * Constructs a FileOutputStrategy.
+     *
+     * @param baseDirectory        The directory where label files are written.
+     * @param durability           How often committed data is forced to disk.
+     * @param commitBytes          The number of buffered bytes that triggers a commit.
+     * @param commitIntervalMillis The maximum time a line stays buffered before a commit.
+     * @param rotation             When to seal segments, or null to append to a single file per label.
+     */
+    public FileOutputStrategy(String baseDirectory, Durability durability, int commitBytes, long commitIntervalMillis,
+                              RotationPolicy rotation) {
         this.BaseDirectory = baseDirectory;
+        this.durability = durability;
+        this.rotation = rotation;
+        this.compressor = rotation != null && rotation.isCompressSealed()
+                ? Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "file-output-compressor");
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+        this.commitBytes = commitBytes;
+        this.commitIntervalMillis = commitIntervalMillis;
+        try {
+            Files.createDirectories(Paths.get(BaseDirectory));
+        } catch (IOException e) {
+            System.err.println("Error creating base directory: " + e.getMessage());
+        }
+        writerThread = new Thread(this::writeLoop, "file-output-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
     }
 
     /**
@@ -32,22 +161,372 @@ public class FileOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
+        String line = new StringBuilder(64 + data.length())
+                .append("Patient ID: ").append(patientId)
+                .append(", Timestamp: ").append(timestamp)
+                .append(", Label: ").append(label)
+                .append(", Data: ").append(data)
+                .append(System.lineSeparator())
+                .toString();
+        closeLock.readLock().lock();
         try {
-            // Create the directory
-            Files.createDirectories(Paths.get(BaseDirectory));
+            if (closed) {
+                System.err.println("Error writing to file " + label + ".txt: output is closed");
+            } else if (!enqueue(new Entry(label, timestamp, line))) {
+                System.err.println("Error writing to file " + label + ".txt: writer has stopped");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Formats each sample straight from its primitive value into one reused buffer and queues
+     * the lines for the writer thread.
+     *
+     * @param batch The samples to output.
+     */
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        StringBuilder line = new StringBuilder(96);
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                System.err.println("Error writing to file: output is closed");
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                SampleType type = batch.getType(i);
+                line.setLength(0);
+                line.append("Patient ID: ").append(batch.getPatientId(i))
+                        .append(", Timestamp: ").append(batch.getTimestamp(i))
+                        .append(", Label: ").append(type.getLabel())
+                        .append(", Data: ");
+                type.appendValue(line, batch.getValue(i)).append(System.lineSeparator());
+                if (!enqueue(new Entry(type.getLabel(), batch.getTimestamp(i), line.toString()))) {
+                    System.err.println("Error writing to file: writer has stopped, "
+                            + (batch.size() - i) + " samples not written");
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Commits everything queued so far, forces it to disk and closes all files.
+     * In rotating mode the open segments are sealed and any pending compression completes.
+     * Further output is rejected.
+     */
+    @Override
+    public synchronized void close() {
+        closeLock.writeLock().lock(); // waits for callers already queueing, so nothing follows the poison
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        try {
+            enqueue(POISON);
+            writerThread.join();
+            if (compressor != null) {
+                compressor.shutdown();
+                compressor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues an entry, waiting while the queue is full as long as the writer is alive.
+     *
+     * @return false if the writer thread has stopped
+     */
+    private boolean enqueue(Entry entry) throws InterruptedException {
+        while (!queue.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (!writerThread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_DRAIN);
+        long pendingBytes = 0;
+        long lastCommit = System.currentTimeMillis();
+        long lastSync = lastCommit;
+        boolean running = true;
+        while (running) {
+            try {
+                long wait = pendingBytes == 0 ? commitIntervalMillis
+                        : Math.max(0, lastCommit + commitIntervalMillis - System.currentTimeMillis());
+                Entry first = queue.poll(wait, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_DRAIN - 1);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            for (Entry entry : batch) {
+                if (entry == POISON) {
+                    running = false;
+                    continue;
+                }
+                LabelFile file = file(entry.label);
+                if (file != null) {
+                    pendingBytes += file.append(entry.timestamp, entry.line);
+                }
+            }
+            batch.clear();
+
+            long now = System.currentTimeMillis();
+            if (pendingBytes > 0 && (!running || pendingBytes >= commitBytes || now - lastCommit >= commitIntervalMillis)) {
+                boolean sync = durability == Durability.COMMIT
+                        || (durability == Durability.INTERVAL && (now - lastSync >= FSYNC_INTERVAL_MILLIS || !running));
+                commit(sync);
+                pendingBytes = 0;
+                lastCommit = now;
+                if (sync) {
+                    lastSync = now;
+                }
+            }
+        }
+        closeFiles();
+    }
+
+    private LabelFile file(String label) {
+        LabelFile file = files.get(label);
+        if (file == null) {
+            if (rotation != null) {
+                file = new RollingLabelFile(label);
+            } else {
+                String filePath = file_map.computeIfAbsent(label, k -> Paths.get(BaseDirectory, label + ".txt").toString());
+                file = new LabelFile(filePath);
+            }
+            files.put(label, file);
+        }
+        return file;
+    }
+
+    private void commit(boolean sync) {
+        for (LabelFile file : files.values()) {
+            file.commit(sync);
+        }
+    }
+
+    private void closeFiles() {
+        for (LabelFile file : files.values()) {
+            file.close(durability != Durability.NONE);
+        }
+        files.clear();
+    }
+
+    /**
+     * Compresses a sealed segment to {@code <segment>.gz} and deletes the original.
+     * The compressed file only appears under its final name once it is complete.
+     */
+    private static void compress(Path segment) {
+        Path compressed = Paths.get(segment + ".gz");
+        Path temporary = Paths.get(segment + ".gz.tmp");
+        try (InputStream in = Files.newInputStream(segment);
+             OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), WRITER_BUFFER_SIZE)) {
+            in.transferTo(out);
         } catch (IOException e) {
-            System.err.println("Error creating base directory: " + e.getMessage());
+            System.err.println("Error compressing segment " + segment + ": " + e.getMessage());
             return;
         }
-        // Set the FilePath variable
-        String FilePath = file_map.computeIfAbsent(label, k -> Paths.get(BaseDirectory, label + ".txt").toString());
+        try {
+            Files.move(temporary, compressed, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segment);
+        } catch (IOException e) {
+            System.err.println("Error replacing segment " + segment + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of bytes a string takes in UTF-8, without encoding it.
+     */
+    static int utf8Length(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                bytes += 2; // a surrogate pair is 4 bytes in all
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * A line waiting to be written.
+     */
+    private static class Entry {
+        private final String label;
+        private final long timestamp;
+        private final String line;
+
+        private Entry(String label, long timestamp, String line) {
+            this.label = label;
+            this.timestamp = timestamp;
+            this.line = line;
+        }
+    }
+
+    /**
+     * An append-only label file, opened on the first write.
+     */
+    private static class LabelFile {
+        protected String path;
+        private FileChannel channel;
+        private BufferedWriter writer;
+        private boolean dirty;
+
+        private LabelFile(String path) {
+            this.path = path;
+        }
+
+        /**
+         * Appends a line, opening the file first if needed.
+         *
+         * @return the number of bytes buffered
+         */
+        int append(long timestamp, String line) {
+            try {
+                if (writer == null) {
+                    open();
+                }
+                writer.write(line);
+                dirty = true;
+                return utf8Length(line);
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + path + ": " + e.getMessage());
+                return 0;
+            }
+        }
+
+        private void open() throws IOException {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel),
+                    StandardCharsets.UTF_8), WRITER_BUFFER_SIZE);
+        }
+
+        void commit(boolean sync) {
+            if (!dirty) {
+                return;
+            }
+            try {
+                writer.flush();
+                if (sync) {
+                    channel.force(false);
+                }
+                dirty = false;
+            } catch (IOException e) {
+                System.err.println("Error writing to file " + path + ": " + e.getMessage());
+            }
+        }
+
+        void close(boolean sync) {
+            if (writer == null) {
+                return;
+            }
+            commit(sync);
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing file " + path + ": " + e.getMessage());
+            }
+            writer = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * A label written as a sequence of segments. Sealed segments are recorded in
+     * {@code <label>.index} as {@code <segment>,<min timestamp>,<max timestamp>}.
+     */
+    private class RollingLabelFile extends LabelFile {
+        private final String label;
+        private long segmentStart;
+        private long segmentBytes;
+        private long minTimestamp;
+        private long maxTimestamp;
+
+        private RollingLabelFile(String label) {
+            super(null);
+            this.label = label;
+        }
+
+        @Override
+        int append(long timestamp, String line) {
+            if (path != null && rotation.shouldRotate(segmentBytes, segmentStart, timestamp)) {
+                seal(durability != Durability.NONE);
+            }
+            if (path == null) {
+                path = segmentPath(timestamp);
+                file_map.put(label, path);
+                segmentStart = timestamp;
+                segmentBytes = 0;
+                minTimestamp = timestamp;
+                maxTimestamp = timestamp;
+            }
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+            int written = super.append(timestamp, line);
+            segmentBytes += written;
+            return written;
+        }
+
+        @Override
+        void close(boolean sync) {
+            if (path != null) {
+                seal(sync);
+            }
+        }
+
+        private String segmentPath(long timestamp) {
+            Path candidate = Paths.get(BaseDirectory, label + "-" + timestamp + ".txt");
+            for (int suffix = 1; Files.exists(candidate) || Files.exists(Paths.get(candidate + ".gz")); suffix++) {
+                candidate = Paths.get(BaseDirectory, label + "-" + timestamp + "-" + suffix + ".txt");
+            }
+            return candidate.toString();
+        }
 
-        // Write the data to the file
-        try (PrintWriter out = new PrintWriter(
-                Files.newBufferedWriter(Paths.get(FilePath), StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
-            out.printf("Patient ID: %d, Timestamp: %d, Label: %s, Data: %s%n", patientId, timestamp, label, data);
-        } catch (Exception e) {
-            System.err.println("Error writing to file " + FilePath + ": " + e.getMessage());
+        private void seal(boolean sync) {
+            super.close(sync);
+            Path segment = Paths.get(path);
+            Path index = Paths.get(BaseDirectory, label + ".index");
+            String entry = segment.getFileName() + "," + minTimestamp + "," + maxTimestamp + System.lineSeparator();
+            try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                indexChannel.write(StandardCharsets.UTF_8.encode(entry));
+                if (sync) {
+                    indexChannel.force(false);
+                }
+            } catch (IOException e) {
+                System.err.println("Error writing index " + index + ": " + e.getMessage());
+            }
+            if (compressor != null) {
+                compressor.submit(() -> compress(segment));
+            }
+            path = null;
         }
     }
-}
\ No newline at end of file
+}
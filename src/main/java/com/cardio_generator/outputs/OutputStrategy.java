@@ -13,4 +13,24 @@ public interface OutputStrategy {
      * @param data      The actual data to be output.
      */
     void output(int patientId, long timestamp, String label, String data);
+
+    /**
+     * Outputs a batch of samples. The default implementation formats each value and passes it
+     * to {@link #output(int, long, String, String)}; sinks override it to encode the batch directly.
+     *
+     * @param batch The samples to output; it is not retained after the call returns.
+     */
+    default void outputBatch(SampleBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            SampleType type = batch.getType(i);
+            output(batch.getPatientId(i), batch.getTimestamp(i), type.getLabel(), type.format(batch.getValue(i)));
+        }
+    }
+
+    /**
+     * Flushes any buffered data and releases the resources held by the strategy.
+     * Strategies that write synchronously have nothing to release.
+     */
+    default void close() {
+    }
 }
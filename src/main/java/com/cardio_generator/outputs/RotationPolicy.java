@@ -0,0 +1,76 @@
+package com.cardio_generator.outputs;
+
+/**
+ * Describes when {@link FileOutputStrategy} seals the current segment of a label file and
+ * starts a new one.
+ * Segments are named {@code <label>-<first timestamp>.txt}; once sealed they are listed in
+ * {@code <label>.index} together with the time range they cover, and are optionally gzip
+ * compressed in the background.
+ */
+public class RotationPolicy {
+    private final long maxSegmentBytes;
+    private final long maxSegmentMillis;
+    private final boolean compressSealed;
+
+    /**
+     * Constructs a RotationPolicy. A limit of 0 disables that criterion.
+     *
+     * @param maxSegmentBytes  The size at which a segment is sealed.
+     * @param maxSegmentMillis The span of sample timestamps after which a segment is sealed.
+     * @param compressSealed   Whether sealed segments are gzip compressed.
+     */
+    public RotationPolicy(long maxSegmentBytes, long maxSegmentMillis, boolean compressSealed) {
+        if (maxSegmentBytes < 0 || maxSegmentMillis < 0) {
+            throw new IllegalArgumentException("Rotation limits cannot be negative");
+        }
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegmentMillis = maxSegmentMillis;
+        this.compressSealed = compressSealed;
+    }
+
+    /**
+     * Parses a policy of the form {@code <megabytes>:<seconds>[:gzip]}, for example
+     * {@code 64:3600:gzip}.
+     *
+     * @param value The policy description.
+     * @return The parsed policy.
+     * @throws IllegalArgumentException If the description is malformed.
+     */
+    public static RotationPolicy parse(String value) {
+        String[] parts = value.split(":");
+        if (parts.length < 2 || parts.length > 3 || (parts.length == 3 && !parts[2].equals("gzip"))) {
+            throw new IllegalArgumentException("Expected <megabytes>:<seconds>[:gzip] but got " + value);
+        }
+        try {
+            return new RotationPolicy(Long.parseLong(parts[0]) * 1024 * 1024, Long.parseLong(parts[1]) * 1000,
+                    parts.length == 3);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected <megabytes>:<seconds>[:gzip] but got " + value);
+        }
+    }
+
+    /**
+     * Checks whether a segment must be sealed before the next sample is appended.
+     *
+     * @param segmentBytes    The bytes already written to the segment.
+     * @param segmentStart    The timestamp of the segment's first sample.
+     * @param sampleTimestamp The timestamp of the next sample.
+     * @return true if a new segment should be started
+     */
+    boolean shouldRotate(long segmentBytes, long segmentStart, long sampleTimestamp) {
+        return (maxSegmentBytes > 0 && segmentBytes >= maxSegmentBytes)
+                || (maxSegmentMillis > 0 && sampleTimestamp - segmentStart >= maxSegmentMillis);
+    }
+
+    public long getMaxSegmentBytes() {
+        return maxSegmentBytes;
+    }
+
+    public long getMaxSegmentMillis() {
+        return maxSegmentMillis;
+    }
+
+    public boolean isCompressSealed() {
+        return compressSealed;
+    }
+}
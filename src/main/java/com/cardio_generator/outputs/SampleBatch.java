@@ -0,0 +1,142 @@
+package com.cardio_generator.outputs;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, column-oriented batch of samples. Values are kept as primitive doubles with a
+ * {@link SampleType} code, so nothing is formatted until a sink writes the batch.
+ * A batch is not thread-safe; it is filled by one generator call and handed to
+ * {@link OutputStrategy#outputBatch(SampleBatch)}, after which it may be cleared and reused.
+ */
+public class SampleBatch {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] patientIds;
+    private long[] timestamps;
+    private byte[] types;
+    private double[] values;
+    private int size;
+
+    /**
+     * Constructs an empty batch with a small initial capacity.
+     */
+    public SampleBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param capacity The number of samples the batch holds before it grows.
+     */
+    public SampleBatch(int capacity) {
+        capacity = Math.max(1, capacity);
+        patientIds = new int[capacity];
+        timestamps = new long[capacity];
+        types = new byte[capacity];
+        values = new double[capacity];
+    }
+
+    /**
+     * Appends a sample, growing the columns if needed.
+     *
+     * @param patientId The ID of the patient.
+     * @param timestamp The timestamp of the sample.
+     * @param type      The kind of sample.
+     * @param value     The sample value.
+     */
+    public void add(int patientId, long timestamp, SampleType type, double value) {
+        if (size == patientIds.length) {
+            grow(size + 1);
+        }
+        patientIds[size] = patientId;
+        timestamps[size] = timestamp;
+        types[size] = type.code();
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Appends a block of samples of one patient and type, copying the columns in bulk.
+     *
+     * @param patientId  The ID of the patient.
+     * @param timestamps The timestamps of the samples.
+     * @param type       The kind of the samples.
+     * @param values     The sample values.
+     * @param count      The number of samples to take from the start of the arrays.
+     */
+    public void addBlock(int patientId, long[] timestamps, SampleType type, double[] values, int count) {
+        if (size + count > patientIds.length) {
+            grow(size + count);
+        }
+        Arrays.fill(patientIds, size, size + count, patientId);
+        System.arraycopy(timestamps, 0, this.timestamps, size, count);
+        Arrays.fill(types, size, size + count, type.code());
+        System.arraycopy(values, 0, this.values, size, count);
+        size += count;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, patientIds.length * 2);
+        patientIds = Arrays.copyOf(patientIds, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        types = Arrays.copyOf(types, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Removes every sample while keeping the allocated columns.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+
+    public SampleType getType(int index) {
+        return SampleType.fromCode(types[index]);
+    }
+
+    public double getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Replaces the value of a sample, for adjusting samples after they were generated.
+     *
+     * @param index The index of the sample.
+     * @param value The new value.
+     */
+    public void setValue(int index, double value) {
+        values[index] = value;
+    }
+
+    /**
+     * Appends one sample as a {@code patientId,timestamp,label,value} line without the line break,
+     * the format used by the TCP and WebSocket streams.
+     *
+     * @param index   The index of the sample.
+     * @param builder The builder to append to.
+     * @return the builder
+     */
+    public StringBuilder appendCsv(int index, StringBuilder builder) {
+        SampleType type = getType(index);
+        builder.append(patientIds[index]).append(',').append(timestamps[index]).append(',')
+                .append(type.getLabel()).append(',');
+        return type.appendValue(builder, values[index]);
+    }
+}
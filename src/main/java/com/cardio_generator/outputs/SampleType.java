@@ -0,0 +1,109 @@
+package com.cardio_generator.outputs;
+
+/**
+ * The kinds of samples produced by the generators, with the label and text form each one
+ * has always had on the wire. A {@link SampleBatch} stores the type code instead of the label,
+ * and sinks turn the value into text only when they write it.
+ */
+public enum SampleType {
+    ECG("ECG", ""),
+    SATURATION("Saturation", "%"),
+    SYSTOLIC_PRESSURE("SystolicPressure", ""),
+    DIASTOLIC_PRESSURE("DiastolicPressure", ""),
+    CHOLESTEROL("Cholesterol", ""),
+    WHITE_BLOOD_CELLS("WhiteBloodCells", ""),
+    RED_BLOOD_CELLS("RedBloodCells", ""),
+    /** 1 for a triggered alert, 0 for a resolved one. */
+    ALERT("Alert", ""),
+    /** One sample of the high-rate ECG signal, in millivolts; {@link #ECG} carries one record per beat. */
+    ECG_WAVEFORM("ECGWaveform", "");
+
+    private static final SampleType[] VALUES = values();
+
+    private final String label;
+    private final String suffix;
+
+    SampleType(String label, String suffix) {
+        this.label = label;
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns the type with the given code.
+     *
+     * @param code The code returned by {@link #code()}.
+     * @return the sample type
+     */
+    public static SampleType fromCode(int code) {
+        return VALUES[code];
+    }
+
+    /**
+     * Returns the type with the given label.
+     *
+     * @param label The label used on the wire, for example {@code Saturation}.
+     * @return the sample type, or null if the label is unknown
+     */
+    public static SampleType fromLabel(String label) {
+        for (SampleType type : VALUES) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the compact code of this type.
+     *
+     * @return the code, stable for the lifetime of the process
+     */
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Appends the text form of a value, for example {@code 95.0%} or {@code triggered}.
+     *
+     * @param builder The builder to append to.
+     * @param value   The sample value.
+     * @return the builder
+     */
+    public StringBuilder appendValue(StringBuilder builder, double value) {
+        if (this == ALERT) {
+            return builder.append(value != 0 ? "triggered" : "resolved");
+        }
+        return builder.append(value).append(suffix);
+    }
+
+    /**
+     * Returns the text form of a value, as the legacy {@link OutputStrategy#output} receives it.
+     *
+     * @param value The sample value.
+     * @return the formatted value
+     */
+    public String format(double value) {
+        if (this == ALERT) {
+            return value != 0 ? "triggered" : "resolved";
+        }
+        return suffix.isEmpty() ? Double.toString(value) : Double.toString(value) + suffix;
+    }
+
+    /**
+     * Parses the text form of a value of this type.
+     *
+     * @param data The formatted value.
+     * @return the sample value
+     * @throws NumberFormatException If the text is not a valid value.
+     */
+    public double parse(String data) {
+        if (this == ALERT) {
+            return data.equals("triggered") ? 1 : 0;
+        }
+        return Double.parseDouble(data.endsWith(suffix) ? data.substring(0, data.length() - suffix.length()) : data);
+    }
+}
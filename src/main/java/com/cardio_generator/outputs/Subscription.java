@@ -0,0 +1,136 @@
+package com.cardio_generator.outputs;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A filter a WebSocket client registers to receive only some samples.
+ * Clients send {@code subscribe patients=1-10,15;labels=Saturation,Alert}; either part may be
+ * left out to accept every patient or every label. {@code unsubscribe} restores the default of
+ * receiving everything. Subscriptions are immutable and compare equal when they accept the same
+ * samples, so connections with identical filters can share one encoded frame.
+ */
+public final class Subscription {
+    /** Accepts every sample; used for clients that never subscribed. */
+    public static final Subscription ALL = new Subscription(null, null);
+
+    private static final int MAX_PATIENT_ID = 10_000_000;
+
+    private final BitSet patients; // null accepts every patient
+    private final Set<String> labels; // null accepts every label
+
+    private Subscription(BitSet patients, Set<String> labels) {
+        this.patients = patients;
+        this.labels = labels == null ? null : Collections.unmodifiableSet(labels);
+    }
+
+    /**
+     * Parses a {@code subscribe} or {@code unsubscribe} message.
+     *
+     * @param message The message received from the client.
+     * @return The subscription described by the message.
+     * @throws IllegalArgumentException If the message is not a valid subscription.
+     */
+    public static Subscription parse(String message) {
+        String trimmed = message.trim();
+        if (trimmed.equals("unsubscribe")) {
+            return ALL;
+        }
+        if (!trimmed.startsWith("subscribe")) {
+            throw new IllegalArgumentException("Unknown command: " + message);
+        }
+        BitSet patients = null;
+        Set<String> labels = null;
+        String filters = trimmed.substring("subscribe".length()).trim();
+        for (String filter : filters.isEmpty() ? new String[0] : filters.split(";")) {
+            String[] keyValue = filter.trim().split("=", 2);
+            if (keyValue.length != 2 || keyValue[1].trim().isEmpty()) {
+                throw new IllegalArgumentException("Malformed filter: " + filter);
+            }
+            switch (keyValue[0].trim()) {
+                case "patients":
+                    patients = parsePatients(keyValue[1]);
+                    break;
+                case "labels":
+                    labels = new HashSet<>(Arrays.asList(keyValue[1].trim().split("\\s*,\\s*")));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown filter: " + keyValue[0]);
+            }
+        }
+        return new Subscription(patients, labels);
+    }
+
+    private static BitSet parsePatients(String value) {
+        BitSet patients = new BitSet();
+        try {
+            for (String range : value.trim().split("\\s*,\\s*")) {
+                int dash = range.indexOf('-');
+                int first = Integer.parseInt(dash < 0 ? range : range.substring(0, dash).trim());
+                int last = dash < 0 ? first : Integer.parseInt(range.substring(dash + 1).trim());
+                if (first < 0 || last < first || last > MAX_PATIENT_ID) {
+                    throw new IllegalArgumentException("Invalid patient range: " + range);
+                }
+                patients.set(first, last + 1);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid patient list: " + value);
+        }
+        return patients;
+    }
+
+    /**
+     * Checks whether samples with this label may be accepted.
+     *
+     * @param label The sample label.
+     * @return true if the label passes the filter
+     */
+    public boolean acceptsLabel(String label) {
+        return labels == null || labels.contains(label);
+    }
+
+    /**
+     * Checks whether samples of this patient may be accepted.
+     *
+     * @param patientId The patient ID.
+     * @return true if the patient passes the filter
+     */
+    public boolean acceptsPatient(int patientId) {
+        return patients == null || (patientId >= 0 && patients.get(patientId));
+    }
+
+    /**
+     * Returns the labels accepted by this subscription.
+     *
+     * @return the labels, or null if every label is accepted
+     */
+    public Set<String> getLabels() {
+        return labels;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Subscription)) {
+            return false;
+        }
+        Subscription that = (Subscription) other;
+        return Objects.equals(patients, that.patients) && Objects.equals(labels, that.labels);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(patients, labels);
+    }
+
+    @Override
+    public String toString() {
+        return "patients=" + (patients == null ? "all" : patients) + ";labels=" + (labels == null ? "all" : labels);
+    }
+}
@@ -1,41 +1,96 @@
 package com.cardio_generator.outputs;
 
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.concurrent.Executors;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A strategy implementation for outputting data over TCP connections.
+ * Any number of clients may connect. Callers only append the formatted line to a shared
+ * tick buffer; a single selector thread encodes that buffer once per tick and queues the
+ * same bytes to every client. Each client has a bounded outbound queue, and a client that
+ * cannot keep up is handled by the configured {@link SlowClientPolicy}, so a stalled
+ * consumer never blocks the generator threads.
  */
 public class TcpOutputStrategy implements OutputStrategy {
+    private static final int DEFAULT_CLIENT_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final long DEFAULT_TICK_MILLIS = 10;
 
-    private ServerSocket serverSocket;
-    private Socket clientSocket;
-    private PrintWriter out;
+    /**
+     * What to do with a client whose outbound queue is full.
+     */
+    public enum SlowClientPolicy {
+        /** Discard the oldest unsent ticks to make room for the newest one. */
+        DROP_OLDEST,
+        /** Close the connection. */
+        DISCONNECT
+    }
+
+    private final int clientBufferBytes;
+    private final SlowClientPolicy slowClientPolicy;
+    private final long tickMillis;
+    private final List<Client> clients = new ArrayList<>();
+    private final Object pendingLock = new Object();
+    private final AtomicLong droppedBytes = new AtomicLong();
+    private final AtomicLong disconnectedClients = new AtomicLong();
+    private StringBuilder pending = new StringBuilder();
+    private StringBuilder spare = new StringBuilder();
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+    private volatile int clientCount;
+    private volatile boolean running;
 
+    /**
+     * Constructs a TcpOutputStrategy that drops the oldest data of slow clients.
+     *
+     * @param port The port to listen on.
+     */
     public TcpOutputStrategy(int port) {
+        this(port, DEFAULT_CLIENT_BUFFER_BYTES, SlowClientPolicy.DROP_OLDEST, DEFAULT_TICK_MILLIS);
+    }
+
+    /**
+     * Constructs a TcpOutputStrategy.
+     *
+     * @param port              The port to listen on, or 0 for any free port.
+     * @param clientBufferBytes The maximum number of unsent bytes queued per client.
+     * @param slowClientPolicy  What to do when a client's queue is full.
+     * @param tickMillis        How often buffered lines are sent to the clients.
+     */
+    public TcpOutputStrategy(int port, int clientBufferBytes, SlowClientPolicy slowClientPolicy, long tickMillis) {
+        this.clientBufferBytes = clientBufferBytes;
+        this.slowClientPolicy = slowClientPolicy;
+        this.tickMillis = tickMillis;
         try {
-            serverSocket = new ServerSocket(port);
-            System.out.println("TCP Server started on port " + port);
-
-            // Accept clients in a new thread to not block the main thread
-            Executors.newSingleThreadExecutor().submit(() -> {
-                try {
-                    clientSocket = serverSocket.accept();
-                    out = new PrintWriter(clientSocket.getOutputStream(), true);
-                    System.out.println("Client connected: " + clientSocket.getInetAddress());
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            });
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            System.out.println("TCP Server started on port " + getPort());
+
+            running = true;
+            Thread thread = new Thread(this::runLoop, "tcp-output");
+            thread.setDaemon(true);
+            thread.start();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
+
     /**
-     * Outputs data to the connected client over TCP.
+     * Outputs data to the connected clients over TCP.
+     * The line is sent with the next tick; nothing is buffered while no client is connected.
      *
      * @param patientId The ID of the patient.
      * @param timestamp The timestamp of the data.
@@ -44,9 +99,287 @@ public class TcpOutputStrategy implements OutputStrategy {
      */
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        if (out != null) {
-            String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
-            out.println(message);
+        if (clientCount == 0) {
+            return;
+        }
+        synchronized (pendingLock) {
+            pending.append(patientId).append(',').append(timestamp).append(',')
+                    .append(label).append(',').append(data).append('\n');
+        }
+    }
+
+    /**
+     * Appends the whole batch to the next tick under a single lock, formatting each value
+     * directly into the tick buffer.
+     *
+     * @param batch The samples to output.
+     */
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        if (clientCount == 0) {
+            return;
+        }
+        synchronized (pendingLock) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.appendCsv(i, pending).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     *
+     * @return the local port, or -1 if the server could not be started
+     */
+    public int getPort() {
+        try {
+            return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+        } catch (IOException | NullPointerException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the number of connected clients.
+     *
+     * @return the client count
+     */
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    /**
+     * Returns the number of bytes discarded for slow clients under {@link SlowClientPolicy#DROP_OLDEST}.
+     *
+     * @return the dropped byte count, summed over all clients
+     */
+    public long getDroppedBytes() {
+        return droppedBytes.get();
+    }
+
+    /**
+     * Returns the number of clients closed under {@link SlowClientPolicy#DISCONNECT}.
+     *
+     * @return the disconnected client count
+     */
+    public long getDisconnectedClients() {
+        return disconnectedClients.get();
+    }
+
+    /**
+     * Stops the server and closes all client connections.
+     */
+    @Override
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    private void runLoop() {
+        long nextTick = System.currentTimeMillis() + tickMillis;
+        try {
+            while (running) {
+                long wait = nextTick - System.currentTimeMillis();
+                if (wait > 0) {
+                    selector.select(wait);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Client client = (Client) key.attachment();
+                        if (key.isReadable()) {
+                            discardInput(client);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(client);
+                        }
+                    }
+                }
+                if (System.currentTimeMillis() >= nextTick) {
+                    broadcastTick();
+                    nextTick = System.currentTimeMillis() + tickMillis;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("TCP output stopped: " + e.getMessage());
+        } finally {
+            for (Client client : new ArrayList<>(clients)) {
+                disconnect(client);
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing TCP server: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Client client = new Client(channel);
+        client.key = channel.register(selector, SelectionKey.OP_READ, client);
+        clients.add(client);
+        clientCount = clients.size();
+        System.out.println("Client connected: " + channel.getRemoteAddress());
+    }
+
+    /**
+     * Clients are not expected to send anything; reading only detects closed connections.
+     */
+    private void discardInput(Client client) {
+        ByteBuffer scratch = ByteBuffer.allocate(512);
+        try {
+            int read;
+            while ((read = client.channel.read(scratch)) > 0) {
+                scratch.clear();
+            }
+            if (read < 0) {
+                disconnect(client);
+            }
+        } catch (IOException e) {
+            disconnect(client);
+        }
+    }
+
+    /**
+     * Encodes the lines collected since the last tick once and queues them to every client.
+     */
+    private void broadcastTick() {
+        StringBuilder lines;
+        synchronized (pendingLock) {
+            if (pending.length() == 0) {
+                return;
+            }
+            lines = pending;
+            pending = spare;
+        }
+        ByteBuffer encoded = StandardCharsets.UTF_8.encode(lines.toString()).asReadOnlyBuffer();
+        lines.setLength(0);
+        spare = lines;
+
+        for (Client client : new ArrayList<>(clients)) {
+            if (enqueue(client, encoded.duplicate())) {
+                flush(client);
+            }
+        }
+    }
+
+    /**
+     * Adds a tick to a client's queue, applying the slow-client policy when it is full.
+     *
+     * @return false if the client was disconnected
+     */
+    private boolean enqueue(Client client, ByteBuffer tick) {
+        int size = tick.remaining();
+        if (client.queuedBytes + size > clientBufferBytes) {
+            if (slowClientPolicy == SlowClientPolicy.DISCONNECT) {
+                System.err.println("Disconnecting slow TCP client " + client.describe());
+                disconnectedClients.incrementAndGet();
+                disconnect(client);
+                return false;
+            }
+            // A partially written tick must stay, or the client would receive a broken line
+            while (client.queuedBytes + size > clientBufferBytes && client.unstartedTicks() > 0) {
+                ByteBuffer oldest = removeOldestUnstarted(client);
+                client.queuedBytes -= oldest.remaining();
+                droppedBytes.addAndGet(oldest.remaining());
+            }
+            if (client.queuedBytes + size > clientBufferBytes) {
+                droppedBytes.addAndGet(size);
+                return true;
+            }
+        }
+        client.queue.addLast(tick);
+        client.queuedBytes += size;
+        return true;
+    }
+
+    private static boolean startedHead(Client client) {
+        ByteBuffer head = client.queue.peekFirst();
+        return head != null && head.position() > 0;
+    }
+
+    private static ByteBuffer removeOldestUnstarted(Client client) {
+        if (startedHead(client)) {
+            ByteBuffer head = client.queue.pollFirst();
+            ByteBuffer oldest = client.queue.pollFirst();
+            client.queue.addFirst(head);
+            return oldest;
+        }
+        return client.queue.pollFirst();
+    }
+
+    private void flush(Client client) {
+        try {
+            while (!client.queue.isEmpty()) {
+                ByteBuffer head = client.queue.peekFirst();
+                int written = client.channel.write(head);
+                client.queuedBytes -= written;
+                if (head.hasRemaining()) {
+                    break;
+                }
+                client.queue.pollFirst();
+            }
+            int interest = client.queue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+            if (client.key.interestOps() != interest) {
+                client.key.interestOps(interest);
+            }
+        } catch (IOException e) {
+            disconnect(client);
+        }
+    }
+
+    private void disconnect(Client client) {
+        if (clients.remove(client)) {
+            clientCount = clients.size();
+            System.out.println("Client disconnected: " + client.describe());
+        }
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing client connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A connected client and its outbound queue of encoded ticks.
+     */
+    private static class Client {
+        private final SocketChannel channel;
+        private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+        private SelectionKey key;
+        private long queuedBytes;
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private int unstartedTicks() {
+            return queue.size() - (startedHead(this) ? 1 : 0);
+        }
+
+        private String describe() {
+            try {
+                return String.valueOf(channel.getRemoteAddress());
+            } catch (IOException e) {
+                return "unknown";
+            }
         }
     }
 }
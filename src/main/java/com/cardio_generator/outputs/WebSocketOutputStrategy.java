@@ -4,27 +4,278 @@ import org.java_websocket.WebSocket;
 import org.java_websocket.server.WebSocketServer;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * A strategy implementation for broadcasting data to WebSocket clients.
+ * By default every sample is sent as its own text frame. With a batch window, samples are
+ * collected for that many milliseconds and sent as a single frame of newline-separated lines,
+ * which the server encodes once and writes to every client.
+ * <p>
+ * Clients may narrow what they receive by sending a {@link Subscription} message. Connections
+ * with equal subscriptions form one group, and a routing table indexed by label lists the groups
+ * interested in each label, so a sample is only formatted and sent for the groups that want it.
+ */
 public class WebSocketOutputStrategy implements OutputStrategy {
 
-    private WebSocketServer server;
+    private SimpleWebSocketServer server;
+    private final long batchMillis;
+    private final Object batchLock = new Object();
+    private volatile RoutingTable routing = RoutingTable.EMPTY;
+    private ScheduledExecutorService flusher;
 
     public WebSocketOutputStrategy(int port) {
+        this(port, 0);
+    }
+
+    /**
+     * Constructs a WebSocketOutputStrategy.
+     *
+     * @param port        The port to listen on.
+     * @param batchMillis How long samples are collected into one frame, or 0 to send each sample at once.
+     */
+    public WebSocketOutputStrategy(int port, long batchMillis) {
+        this.batchMillis = batchMillis;
         server = new SimpleWebSocketServer(new InetSocketAddress(port));
+        server.setTcpNoDelay(true);
         System.out.println("WebSocket server created on port: " + port + ", listening for connections...");
         server.start();
+        if (batchMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "websocket-batch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(this::flushBatches, batchMillis, batchMillis, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public void output(int patientId, long timestamp, String label, String data) {
-        String message = String.format("%d,%d,%s,%s", patientId, timestamp, label, data);
-        // Broadcast the message to all connected clients
+        if (batchMillis > 0) {
+            synchronized (batchLock) { // the routing is read under the lock, so a rebuild cannot strand the sample
+                route(routing, patientId, timestamp, label, data);
+            }
+        } else {
+            route(routing, patientId, timestamp, label, data);
+        }
+    }
+
+    private void route(RoutingTable table, int patientId, long timestamp, String label, String data) {
+        String message = null;
+        for (Group group : table.groupsFor(label)) {
+            if (!group.subscription.acceptsPatient(patientId)) {
+                continue;
+            }
+            if (message == null) {
+                message = patientId + "," + timestamp + "," + label + "," + data;
+            }
+            if (batchMillis > 0) {
+                if (group.batch.length() > 0) {
+                    group.batch.append('\n');
+                }
+                group.batch.append(message);
+            } else {
+                // The frame is encoded once for every connection in the group
+                server.broadcast(message, group.connections);
+            }
+        }
+    }
+
+    /**
+     * Outputs a batch of samples. Without a batch window each sample a group subscribed to is
+     * sent as its own frame, one CSV line per frame as {@link #output} sends it; with one, the
+     * samples are appended to the group's pending frame. Each sample is formatted at most once,
+     * however many groups receive it.
+     *
+     * @param batch The samples to output.
+     */
+    @Override
+    public void outputBatch(SampleBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batchMillis > 0) {
+            synchronized (batchLock) {
+                route(routing.groups, batch);
+            }
+        } else {
+            route(routing.groups, batch);
+        }
+    }
+
+    private void route(List<Group> groups, SampleBatch batch) {
+        String[] lines = new String[batch.size()];
+        for (Group group : groups) {
+            StringBuilder frame = batchMillis > 0 ? new StringBuilder() : null;
+            for (int i = 0; i < batch.size(); i++) {
+                SampleType type = batch.getType(i);
+                if (!group.subscription.acceptsLabel(type.getLabel())
+                        || !group.subscription.acceptsPatient(batch.getPatientId(i))) {
+                    continue;
+                }
+                if (lines[i] == null) {
+                    lines[i] = batch.appendCsv(i, new StringBuilder(48)).toString();
+                }
+                if (frame == null) {
+                    server.broadcast(lines[i], group.connections);
+                } else {
+                    if (frame.length() > 0) {
+                        frame.append('\n');
+                    }
+                    frame.append(lines[i]);
+                }
+            }
+            if (frame != null && frame.length() > 0) {
+                if (group.batch.length() > 0) {
+                    group.batch.append('\n');
+                }
+                group.batch.append(frame);
+            }
+        }
+    }
+
+    /**
+     * Sends any batched samples and stops the server.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            flushBatches();
+        }
+        try {
+            server.stop(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the samples collected during the last batch window, one frame per group.
+     */
+    private void flushBatches() {
+        List<Group> groups;
+        List<String> frames;
+        synchronized (batchLock) {
+            groups = routing.groups;
+            frames = takeBatches(groups);
+        }
+        send(groups, frames);
+    }
+
+    /**
+     * Takes the samples batched for the given groups. Called with the batch lock held.
+     *
+     * @return the frame of each group, or null for a group with nothing batched
+     */
+    private static List<String> takeBatches(List<Group> groups) {
+        List<String> frames = new ArrayList<>(groups.size());
+        for (Group group : groups) {
+            frames.add(group.batch.length() == 0 ? null : group.batch.toString());
+            group.batch.setLength(0);
+        }
+        return frames;
+    }
+
+    private void send(List<Group> groups, List<String> frames) {
+        for (int i = 0; i < groups.size(); i++) {
+            if (frames.get(i) != null) {
+                try {
+                    server.broadcast(frames.get(i), groups.get(i).connections);
+                } catch (RuntimeException e) {
+                    System.err.println("Error broadcasting WebSocket batch: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the routing table after a connection opened, closed or changed its subscription.
+     * The table is swapped and the old groups' batches taken under the batch lock, under which
+     * producers also read the table, so every batched sample is sent to its old group.
+     */
+    private synchronized void rebuildRouting() {
+        Map<Subscription, List<WebSocket>> connectionsBySubscription = new LinkedHashMap<>();
         for (WebSocket conn : server.getConnections()) {
-            conn.send(message);
+            Subscription subscription = conn.getAttachment();
+            connectionsBySubscription
+                    .computeIfAbsent(subscription == null ? Subscription.ALL : subscription, k -> new ArrayList<>())
+                    .add(conn);
+        }
+        List<Group> groups = new ArrayList<>();
+        for (Map.Entry<Subscription, List<WebSocket>> entry : connectionsBySubscription.entrySet()) {
+            groups.add(new Group(entry.getKey(), entry.getValue()));
+        }
+        RoutingTable table = new RoutingTable(groups);
+        if (batchMillis == 0) {
+            routing = table;
+            return;
+        }
+        List<Group> oldGroups;
+        List<String> frames;
+        synchronized (batchLock) {
+            oldGroups = routing.groups;
+            frames = takeBatches(oldGroups);
+            routing = table;
+        }
+        send(oldGroups, frames);
+    }
+
+    /**
+     * Connections sharing one subscription, and the samples batched for them.
+     */
+    private static class Group {
+        private final Subscription subscription;
+        private final List<WebSocket> connections;
+        private final StringBuilder batch = new StringBuilder();
+
+        private Group(Subscription subscription, List<WebSocket> connections) {
+            this.subscription = subscription;
+            this.connections = Collections.unmodifiableList(connections);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the groups, indexed by the labels they accept.
+     */
+    private static class RoutingTable {
+        private static final RoutingTable EMPTY = new RoutingTable(Collections.emptyList());
+
+        private final List<Group> groups;
+        private final Map<String, List<Group>> groupsByLabel = new HashMap<>();
+        private final List<Group> allLabelGroups = new ArrayList<>();
+
+        private RoutingTable(List<Group> groups) {
+            this.groups = groups;
+            for (Group group : groups) {
+                if (group.subscription.getLabels() == null) {
+                    allLabelGroups.add(group);
+                }
+            }
+            for (Group group : groups) {
+                if (group.subscription.getLabels() != null) {
+                    for (String label : group.subscription.getLabels()) {
+                        groupsByLabel.computeIfAbsent(label, k -> new ArrayList<>(allLabelGroups)).add(group);
+                    }
+                }
+            }
+        }
+
+        private List<Group> groupsFor(String label) {
+            return groupsByLabel.getOrDefault(label, allLabelGroups);
         }
     }
 
-    private static class SimpleWebSocketServer extends WebSocketServer {
+    private class SimpleWebSocketServer extends WebSocketServer {
 
         public SimpleWebSocketServer(InetSocketAddress address) {
             super(address);
@@ -33,16 +284,28 @@ public class WebSocketOutputStrategy implements OutputStrategy {
         @Override
         public void onOpen(WebSocket conn, org.java_websocket.handshake.ClientHandshake handshake) {
             System.out.println("New connection: " + conn.getRemoteSocketAddress());
+            rebuildRouting();
         }
 
         @Override
         public void onClose(WebSocket conn, int code, String reason, boolean remote) {
             System.out.println("Closed connection: " + conn.getRemoteSocketAddress());
+            rebuildRouting();
         }
 
+        /**
+         * Handles subscription messages; anything else is rejected.
+         */
         @Override
         public void onMessage(WebSocket conn, String message) {
-            // Not used in this context
+            try {
+                Subscription subscription = Subscription.parse(message);
+                conn.setAttachment(subscription);
+                System.out.println("Connection " + conn.getRemoteSocketAddress() + " subscribed to " + subscription);
+                rebuildRouting();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Rejected message from " + conn.getRemoteSocketAddress() + ": " + e.getMessage());
+            }
         }
 
         @Override
@@ -7,8 +7,15 @@ public interface DataReader {
     /**
      * Reads data from a specified source and stores it in the data storage.
      * 
-     * @param dataStorage the storage where data will be stored
+     * @param dataStorage the storage where data will be stored, usually a {@link DataStorage}
      * @throws IOException if there is an error reading the data
      */
-    void readData(DataStorage dataStorage) throws IOException, URISyntaxException;
+    void readData(RecordSink dataStorage) throws IOException, URISyntaxException;
+
+    /**
+     * Stops reading and releases any connections held by the reader.
+     * Readers that finish within {@link #readData(RecordSink)} have nothing to release.
+     */
+    default void close() {
+    }
 }
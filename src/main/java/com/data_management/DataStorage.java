@@ -1,9 +1,10 @@
 package com.data_management;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import com.alerts.AlertGenerator;
 
 /**
@@ -12,16 +13,17 @@ import com.alerts.AlertGenerator;
  * This class serves as a repository for all patient records, organized by
  * patient IDs.
  */
-public class DataStorage {
+public class DataStorage implements RecordSink {
     private static DataStorage instance;
     private Map<String, Patient> patientMap; // Stores patient objects indexed by their unique patient ID.
+    private final List<RecordListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructs a new instance of DataStorage, initializing the underlying storage
      * structure.
      */
     public DataStorage() {
-        this.patientMap = new HashMap<>();
+        this.patientMap = new ConcurrentHashMap<>(); // read by parallel evaluations while readers add data
     }
 
     /**
@@ -50,13 +52,31 @@ public class DataStorage {
      * @param timestamp        the time at which the measurement was taken, in
      *                         milliseconds since the Unix epoch
      */
+    @Override
     public void addPatientData(String patientId, double measurementValue, String recordType, long timestamp) {
-        Patient patient = patientMap.get(patientId);
-        if (patient == null) {
-            patient = new Patient(patientId);
-            patientMap.put(patientId, patient);
+        Patient patient = patientMap.computeIfAbsent(patientId, Patient::new);
+        PatientRecord record = patient.addRecord(measurementValue, recordType, timestamp);
+        for (RecordListener listener : listeners) {
+            listener.recordAdded(record);
         }
-        patient.addRecord(measurementValue, recordType, timestamp);
+    }
+
+    /**
+     * Registers a listener that is told about every record added from now on.
+     *
+     * @param listener the listener
+     */
+    public void addRecordListener(RecordListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener the listener
+     */
+    public void removeRecordListener(RecordListener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -141,9 +161,7 @@ public class DataStorage {
         // Initialize the AlertGenerator with the storage
         AlertGenerator alertGenerator = new AlertGenerator(storage);
 
-        // Evaluate all patients' data to check for conditions that may trigger alerts
-        for (Patient patient : storage.getAllPatients()) {
-            alertGenerator.evaluateData(patient);
-        }
+        // Evaluate all patients' data, in parallel, to check for conditions that may trigger alerts
+        alertGenerator.evaluateAll();
     }
 }
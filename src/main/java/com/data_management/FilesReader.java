@@ -2,10 +2,25 @@ package com.data_management;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import com.cardio_generator.outputs.SampleType;
 
 /**
  * Reads all the files in a directory and forwards their data to dataStorage.
@@ -20,6 +35,11 @@ import java.util.List;
  * <li>WhiteBloodCells.txt</li>
  * <li>Alert.txt</li>
  * </ul>
+ * Rolling segments written by a rotating FileOutputStrategy ({@code <label>-<timestamp>.txt},
+ * optionally gzip compressed) are read as well. Sealed segments listed in {@code <label>.index}
+ * are skipped when their time range does not overlap the requested window. The segments of a
+ * label are read oldest first, so each label's records arrive in timestamp order, and a segment
+ * that is being compressed is read once, from whichever copy is complete.
  */
 public class FilesReader implements DataReader {
     public String baseDirectory;
@@ -42,33 +62,54 @@ public class FilesReader implements DataReader {
         this.baseDirectory = directory;
     }
 
+    /** The labels the simulator writes a file for, one per {@link SampleType}. */
+    private static final List<String> LABELS = new ArrayList<>();
+
+    static {
+        for (SampleType type : SampleType.values()) {
+            LABELS.add(type.getLabel());
+        }
+    }
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("([A-Za-z]+)-(\\d+)(?:-(\\d+))?\\.txt(\\.gz)?");
+
     @Override
-    public void readData(DataStorage dataStorage) throws IOException {
+    public void readData(RecordSink dataStorage) throws IOException {
+        readData(dataStorage, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads only the records whose timestamp lies within the given window.
+     * Sealed segments outside the window are not opened.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @param startTime   the start of the window, in milliseconds since the Unix epoch
+     * @param endTime     the end of the window, in milliseconds since the Unix epoch
+     * @throws IOException if the directory or a file cannot be read
+     */
+    public void readData(RecordSink dataStorage, long startTime, long endTime) throws IOException {
         File directory = new File(baseDirectory);
         if (!directory.isDirectory()) {
             throw new IOException("Base directory is not a valid directory.");
         }
 
-        // Define the list of files to parse
-        List<String> filesToParse = Arrays.asList(
-                "Cholesterol.txt",
-                "DiastolicPressure.txt",
-                "ECG.txt",
-                "RedBloodCells.txt",
-                "Saturation.txt",
-                "SystolicPressure.txt",
-                "WhiteBloodCells.txt",
-                "Alert.txt"
-        );
-
-        // Filter files based on the list
-        File[] files = directory.listFiles((dir, name) -> filesToParse.contains(name));
+        // Filter files based on the list of labels
+        File[] files = directory.listFiles((dir, name) -> isDataFile(name));
         if (files == null) {
             throw new IOException("Error listing files in directory.");
         }
 
-        for (File file : files) {
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+        Map<String, long[]> segmentRanges = new HashMap<>();
+        for (String label : LABELS) {
+            readIndex(new File(directory, label + ".index"), segmentRanges);
+        }
+
+        for (File file : inReadingOrder(files, segmentRanges)) {
+            long[] range = segmentRanges.get(file.getName().replace(".gz", ""));
+            if (range != null && (range[1] < startTime || range[0] > endTime)) {
+                continue; // sealed segment outside the requested window
+            }
+            try (BufferedReader br = openSegment(file)) {
                 String line;
                 while ((line = br.readLine()) != null) {
                     String[] parts = line.split(", ");
@@ -76,6 +117,9 @@ public class FilesReader implements DataReader {
                     if (parts.length == 4) {
                         int patientId = Integer.parseInt(parts[0].split(": ")[1]);
                         long timestamp = Long.parseLong(parts[1].split(": ")[1].trim());
+                        if (timestamp < startTime || timestamp > endTime) {
+                            continue;
+                        }
                         String label = parts[2].split(": ")[1];
 
                         double measurementValue = getMeasurementValue(parts);
@@ -87,6 +131,112 @@ public class FilesReader implements DataReader {
         }
     }
 
+    /**
+     * Orders the data files by label and, within a label, by the first timestamp of each segment:
+     * taken from the index for sealed segments, from the file name otherwise. A label's single
+     * unsegmented file comes first. A segment present both as {@code .txt} and {@code .txt.gz}
+     * is being compressed; the compressed copy is complete, so the other one is left out.
+     *
+     * @param files  the data files of the directory
+     * @param ranges the time range of each sealed segment
+     * @return the files to read, in reading order
+     */
+    private static List<File> inReadingOrder(File[] files, Map<String, long[]> ranges) {
+        Set<String> names = new HashSet<>();
+        for (File file : files) {
+            names.add(file.getName());
+        }
+        List<File> ordered = new ArrayList<>(files.length);
+        for (File file : files) {
+            if (!names.contains(file.getName() + ".gz")) {
+                ordered.add(file);
+            }
+        }
+        ordered.sort(Comparator.comparing(FilesReader::labelOf)
+                .thenComparingLong(file -> segmentStart(file, ranges))
+                .thenComparingInt(FilesReader::segmentSuffix));
+        return ordered;
+    }
+
+    private static String labelOf(File file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+        return matcher.matches() ? matcher.group(1) : file.getName().substring(0, file.getName().length() - 4);
+    }
+
+    private static long segmentStart(File file, Map<String, long[]> ranges) {
+        long[] range = ranges.get(file.getName().replace(".gz", ""));
+        if (range != null) {
+            return range[0];
+        }
+        Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : Long.MIN_VALUE;
+    }
+
+    private static int segmentSuffix(File file) {
+        Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+        return matcher.matches() && matcher.group(3) != null ? Integer.parseInt(matcher.group(3)) : 0;
+    }
+
+    /**
+     * Opens a data file. A segment compressed and deleted since the directory was listed is
+     * read from its compressed copy.
+     */
+    private static BufferedReader openSegment(File file) throws IOException {
+        try {
+            return open(file);
+        } catch (FileNotFoundException e) {
+            File compressed = new File(file.getPath() + ".gz");
+            if (!file.getName().endsWith(".txt") || !compressed.isFile()) {
+                throw e;
+            }
+            return open(compressed);
+        }
+    }
+
+    /**
+     * Checks whether a file name is a label file or a segment of one.
+     *
+     * @param name the file name
+     * @return true if the file holds patient data
+     */
+    private static boolean isDataFile(String name) {
+        if (name.endsWith(".txt") && LABELS.contains(name.substring(0, name.length() - 4))) {
+            return true;
+        }
+        Matcher matcher = SEGMENT_NAME.matcher(name);
+        return matcher.matches() && LABELS.contains(matcher.group(1));
+    }
+
+    /**
+     * Reads the {@code <segment>,<min timestamp>,<max timestamp>} lines of a segment index.
+     *
+     * @param index  the index file, which may not exist
+     * @param ranges the map receiving the time range of each segment
+     */
+    private static void readIndex(File index, Map<String, long[]> ranges) throws IOException {
+        if (!index.isFile()) {
+            return;
+        }
+        for (String line : Files.readAllLines(index.toPath(), StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",");
+            if (parts.length == 3) {
+                try {
+                    ranges.put(parts[0], new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+                } catch (NumberFormatException e) {
+                    System.err.println("Skipping malformed index entry in " + index + ": " + line);
+                }
+            }
+        }
+    }
+
+    private static BufferedReader open(File file) throws IOException {
+        if (file.getName().endsWith(".gz")) {
+            return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)),
+                    StandardCharsets.UTF_8));
+        }
+        return new BufferedReader(new FileReader(file));
+    }
+
     /**
      * Parses measurement data according to the label.
      *
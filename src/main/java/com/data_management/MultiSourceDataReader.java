@@ -0,0 +1,343 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Composite reader that merges several upstream readers (files, WebSocket, TCP) into one
+ * ingest pipeline.
+ * Every source writes into its own bounded queue, so a source is never reordered and a
+ * fast source cannot starve a slow one. A single ingest thread drains the queues round-robin,
+ * taking at most {@code quantum} records from each source per round, and is the only thread
+ * that writes to the target {@link RecordSink}.
+ * TCP sources added with {@link #addTcpSource} share one selector thread. Readers added with
+ * {@link #addSource} keep their own threads: each {@link WebSocketReader} has the connection
+ * thread of the client library and each {@link TcpDataReader} its own selector.
+ */
+public class MultiSourceDataReader implements DataReader {
+    private static final int DEFAULT_QUEUE_CAPACITY = 8192;
+    private static final int DEFAULT_QUANTUM = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Source> sources = new ArrayList<>();
+    private TcpDataReader tcpReader; // null until the first TCP source is added
+    private final int queueCapacity;
+    private final int quantum;
+    private ExecutorService starter;
+    private Thread ingestThread;
+    private volatile boolean running;
+    private volatile boolean idle;
+
+    /**
+     * Constructs a MultiSourceDataReader with default queue capacity and quantum.
+     */
+    public MultiSourceDataReader() {
+        this(DEFAULT_QUEUE_CAPACITY, DEFAULT_QUANTUM);
+    }
+
+    /**
+     * Constructs a MultiSourceDataReader.
+     *
+     * @param queueCapacity The number of records each source may buffer before it is blocked.
+     * @param quantum       The maximum number of records taken from one source per round.
+     */
+    public MultiSourceDataReader(int queueCapacity, int quantum) {
+        if (queueCapacity <= 0 || quantum <= 0) {
+            throw new IllegalArgumentException("Queue capacity and quantum must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.quantum = quantum;
+    }
+
+    /**
+     * Registers an upstream reader. Sources must be added before {@link #readData(RecordSink)}.
+     *
+     * @param name   The name used for this source in the metrics.
+     * @param reader The reader providing the data.
+     */
+    public synchronized void addSource(String name, DataReader reader) {
+        if (running) {
+            throw new IllegalStateException("Sources must be added before reading starts");
+        }
+        sources.add(new Source(name, reader, queueCapacity));
+    }
+
+    /**
+     * Registers a simulator's TCP output as a source. All TCP sources are read by one
+     * {@link TcpDataReader}, on a single selector thread, and each still has a queue of its own.
+     *
+     * @param name The name used for this source in the metrics.
+     * @param host The host the simulator's TCP output is bound to.
+     * @param port The port of the simulator's TCP output.
+     */
+    public synchronized void addTcpSource(String name, String host, int port) {
+        if (running) {
+            throw new IllegalStateException("Sources must be added before reading starts");
+        }
+        if (tcpReader == null) {
+            tcpReader = new TcpDataReader();
+        }
+        Source source = new Source(name, null, queueCapacity);
+        tcpReader.addConnection(new InetSocketAddress(host, port), source.queue);
+        sources.add(source);
+    }
+
+    /**
+     * Starts the ingest thread and every source. Sources whose {@code readData} blocks (such as
+     * {@link FilesReader}) run on a small shared pool, connection-based sources return at once.
+     *
+     * @param dataStorage the storage where merged data will be stored
+     */
+    @Override
+    public synchronized void readData(RecordSink dataStorage) {
+        if (running) {
+            throw new IllegalStateException("MultiSourceDataReader is already reading");
+        }
+        running = true;
+        ingestThread = new Thread(() -> ingest(dataStorage), "multi-source-ingest");
+        ingestThread.setDaemon(true);
+        ingestThread.start();
+
+        if (tcpReader != null) {
+            try {
+                tcpReader.start();
+            } catch (IOException e) {
+                System.err.println("TCP sources failed: " + e.getMessage());
+            }
+        }
+        List<Source> readers = new ArrayList<>();
+        for (Source source : sources) {
+            if (source.reader != null) {
+                readers.add(source);
+            }
+        }
+        if (readers.isEmpty()) {
+            return; // nothing else to start; the ingest thread idles until close()
+        }
+        starter = Executors.newFixedThreadPool(Math.min(readers.size(), 2), runnable -> {
+            Thread thread = new Thread(runnable, "multi-source-starter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Source source : readers) {
+            starter.submit(() -> {
+                try {
+                    source.reader.readData(source.queue);
+                } catch (IOException | URISyntaxException e) {
+                    System.err.println("Source " + source.name + " failed: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Closes every source and stops the ingest thread once it has drained the queues. Records a
+     * source still queues after that are dropped and counted in {@link SourceMetrics#getDropped()}.
+     */
+    @Override
+    public synchronized void close() {
+        for (Source source : sources) {
+            if (source.reader != null) {
+                source.reader.close();
+            }
+        }
+        if (tcpReader != null) {
+            tcpReader.close();
+        }
+        if (starter != null) {
+            starter.shutdownNow();
+        }
+        running = false;
+        if (ingestThread != null) {
+            LockSupport.unpark(ingestThread);
+            try {
+                ingestThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Source source : sources) {
+            int dropped = source.queue.records.size();
+            source.queue.records.clear();
+            source.dropped.addAndGet(dropped);
+            if (dropped > 0) {
+                System.err.println("Source " + source.name + ": dropped " + dropped + " records queued after close");
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the per-source metrics. Each call resets the interval used to
+     * compute the throughput.
+     *
+     * @return one entry per source, in registration order
+     */
+    public synchronized List<SourceMetrics> getMetrics() {
+        List<SourceMetrics> metrics = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Source source : sources) {
+            long ingested = source.ingested.get();
+            double seconds = (now - source.lastSnapshotNanos) / 1e9;
+            double throughput = seconds > 0 ? (ingested - source.lastSnapshotIngested) / seconds : 0;
+            source.lastSnapshotNanos = now;
+            source.lastSnapshotIngested = ingested;
+            metrics.add(new SourceMetrics(source.name, source.received.get(), ingested,
+                    source.queue.records.size(), source.dropped.get(), throughput));
+        }
+        return metrics;
+    }
+
+    /**
+     * Prints the per-source metrics to the console.
+     */
+    public void printMetrics() {
+        for (SourceMetrics metrics : getMetrics()) {
+            System.out.println(metrics);
+        }
+    }
+
+    private void ingest(RecordSink dataStorage) {
+        while (true) {
+            boolean drained = false;
+            for (Source source : sources) {
+                for (int i = 0; i < quantum; i++) {
+                    PatientRecord record = source.queue.records.poll();
+                    if (record == null) {
+                        break;
+                    }
+                    dataStorage.addPatientData(record.getPatientId(), record.getMeasurementValue(),
+                            record.getRecordType(), record.getTimestamp());
+                    source.ingested.incrementAndGet();
+                    drained = true;
+                }
+            }
+            if (!drained) {
+                if (!running) {
+                    return;
+                }
+                idle = true;
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                idle = false;
+            }
+        }
+    }
+
+    private void wakeIngest() {
+        if (idle) {
+            LockSupport.unpark(ingestThread);
+        }
+    }
+
+    /**
+     * Per-source staging area handed to the upstream reader in place of the real storage.
+     */
+    private class SourceQueue implements RecordSink {
+        private final BlockingQueue<PatientRecord> records;
+        private final Source source;
+
+        private SourceQueue(Source source, int capacity) {
+            this.source = source;
+            this.records = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void addPatientData(String patientId, double measurementValue, String recordType, long timestamp) {
+            try {
+                records.put(new PatientRecord(patientId, measurementValue, recordType, timestamp));
+                source.received.incrementAndGet();
+                wakeIngest();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class Source {
+        private final String name;
+        private final DataReader reader;
+        private final SourceQueue queue;
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong ingested = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private long lastSnapshotNanos = System.nanoTime();
+        private long lastSnapshotIngested;
+
+        private Source(String name, DataReader reader, int capacity) {
+            this.name = name;
+            this.reader = reader;
+            this.queue = new SourceQueue(this, capacity);
+        }
+    }
+
+    /**
+     * Point-in-time metrics of one source.
+     */
+    public static class SourceMetrics {
+        private final String name;
+        private final long received;
+        private final long ingested;
+        private final int queued;
+        private final long dropped;
+        private final double throughput;
+
+        private SourceMetrics(String name, long received, long ingested, int queued, long dropped,
+                              double throughput) {
+            this.name = name;
+            this.received = received;
+            this.ingested = ingested;
+            this.queued = queued;
+            this.dropped = dropped;
+            this.throughput = throughput;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getReceived() {
+            return received;
+        }
+
+        public long getIngested() {
+            return ingested;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        /**
+         * Returns the records that were still queued when the reader was closed and never ingested.
+         *
+         * @return the dropped record count
+         */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /**
+         * Returns the records ingested per second since the previous snapshot.
+         *
+         * @return the throughput in records per second
+         */
+        public double getThroughput() {
+            return throughput;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Source: %s, received: %d, ingested: %d, queued: %d, dropped: %d, "
+                    + "throughput: %.1f records/s", name, received, ingested, queued, dropped, throughput);
+        }
+    }
+}
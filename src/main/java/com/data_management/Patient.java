@@ -8,6 +8,7 @@ import java.util.List;
  * This class stores patient-specific data, allowing for the addition and
  * retrieval
  * of medical records based on specified criteria.
+ * Records may be added while other threads read them; readers get copies.
  */
 public class Patient {
     private String patientId;
@@ -34,10 +35,12 @@ public class Patient {
      *                         "BloodPressure"
      * @param timestamp        the time at which the measurement was taken, in
      *                         milliseconds since UNIX epoch
+     * @return the new record
      */
-    public void addRecord(double measurementValue, String recordType, long timestamp) {
+    public synchronized PatientRecord addRecord(double measurementValue, String recordType, long timestamp) {
         PatientRecord record = new PatientRecord(this.patientId, measurementValue, recordType, timestamp);
         this.patientRecords.add(record);
+        return record;
     }
 
     /**
@@ -51,7 +54,7 @@ public class Patient {
      * @return a list of PatientRecord objects that fall within the specified time
      *         range
      */
-    public List<PatientRecord> getRecords(long startTime, long endTime) {
+    public synchronized List<PatientRecord> getRecords(long startTime, long endTime) {
         List<PatientRecord> recordsInRange = new ArrayList<>();
         for (PatientRecord record : patientRecords) {
             if (record.getTimestamp() >= startTime && record.getTimestamp() <= endTime) {
@@ -64,10 +67,10 @@ public class Patient {
 
     /**
      * Retrieves a list of PatientRecord objects for this patient.
-     * @return  a list of PatientRecord objects
+     * @return  a copy of the list of PatientRecord objects
      */
-    public List<PatientRecord> getAllRecords() {
-        return patientRecords;
+    public synchronized List<PatientRecord> getAllRecords() {
+        return new ArrayList<>(patientRecords);
     }
 
     /**
@@ -0,0 +1,13 @@
+package com.data_management;
+
+/**
+ * Receives every record as it is added to a {@link DataStorage}.
+ */
+public interface RecordListener {
+    /**
+     * Called on the thread that added the record, after it was stored.
+     *
+     * @param record the new record
+     */
+    void recordAdded(PatientRecord record);
+}
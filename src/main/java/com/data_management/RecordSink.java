@@ -0,0 +1,19 @@
+package com.data_management;
+
+/**
+ * Receives the records a {@link DataReader} reads. {@link DataStorage} is the usual sink; a reader
+ * may also be pointed at anything else that takes records, such as a staging queue.
+ */
+public interface RecordSink {
+    /**
+     * Adds one record.
+     *
+     * @param patientId        the unique identifier of the patient
+     * @param measurementValue the value of the health metric being recorded
+     * @param recordType       the type of record, e.g., "HeartRate",
+     *                         "BloodPressure"
+     * @param timestamp        the time at which the measurement was taken, in
+     *                         milliseconds since the Unix epoch
+     */
+    void addPatientData(String patientId, double measurementValue, String recordType, long timestamp);
+}
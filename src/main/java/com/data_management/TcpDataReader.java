@@ -0,0 +1,514 @@
+package com.data_management;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.cardio_generator.outputs.SampleType;
+
+/**
+ * Non-blocking reader for the newline-delimited {@code id,timestamp,label,value} stream
+ * produced by {@code TcpOutputStrategy}.
+ * A single selector thread serves every upstream simulator, reading into direct buffers
+ * and parsing each line in place, without building an intermediate String per line.
+ * Connections that fail or close are retried periodically.
+ */
+public class TcpDataReader implements DataReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final long SELECT_TIMEOUT_MILLIS = 250;
+
+    /** Labels produced by the simulator, matched byte-wise to avoid allocating label Strings. */
+    private static final SampleType[] KNOWN_LABELS = SampleType.values();
+    private static final byte[][] KNOWN_LABEL_BYTES = new byte[KNOWN_LABELS.length][];
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        for (int i = 0; i < KNOWN_LABELS.length; i++) {
+            KNOWN_LABEL_BYTES[i] = KNOWN_LABELS[i].getLabel().getBytes(StandardCharsets.US_ASCII);
+        }
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final List<Connection> connections = new ArrayList<>();
+    private final String[] patientIdCache = new String[4096];
+    private Selector selector;
+    private Thread readerThread;
+    private volatile boolean running;
+    private volatile long recordsRead;
+    private volatile long malformedLines;
+
+    /**
+     * Constructs a TcpDataReader that reads from a single simulator.
+     *
+     * @param host The host the simulator's TCP output is bound to.
+     * @param port The port of the simulator's TCP output.
+     */
+    public TcpDataReader(String host, int port) {
+        this(Collections.singletonList(new InetSocketAddress(host, port)));
+    }
+
+    /**
+     * Constructs a TcpDataReader that reads from several simulators at once.
+     *
+     * @param sources The addresses of the upstream simulators.
+     */
+    public TcpDataReader(List<InetSocketAddress> sources) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("At least one source address is required");
+        }
+        for (InetSocketAddress address : sources) {
+            connections.add(new Connection(address));
+        }
+    }
+
+    /**
+     * Constructs a TcpDataReader without sources, to which {@link MultiSourceDataReader} adds
+     * connections that each write to their own sink.
+     */
+    TcpDataReader() {
+    }
+
+    /**
+     * Adds a connection whose records go to the given sink instead of the storage passed to
+     * {@link #readData(RecordSink)}. Connections must be added before reading starts.
+     *
+     * @param address The address of the upstream simulator.
+     * @param sink    The sink for the records of this connection.
+     */
+    synchronized void addConnection(InetSocketAddress address, RecordSink sink) {
+        if (running) {
+            throw new IllegalStateException("Connections must be added before reading starts");
+        }
+        Connection connection = new Connection(address);
+        connection.sink = sink;
+        connections.add(connection);
+    }
+
+    /**
+     * Opens connections to all sources and starts the selector thread.
+     * Records are added to the given storage from that thread only.
+     *
+     * @param dataStorage the storage where data will be stored
+     * @throws IOException if the selector cannot be opened
+     */
+    @Override
+    public synchronized void readData(RecordSink dataStorage) throws IOException {
+        for (Connection connection : connections) {
+            if (connection.sink == null) {
+                connection.sink = dataStorage;
+            }
+        }
+        start();
+    }
+
+    /**
+     * Opens connections to all sources and starts the selector thread, once every connection has
+     * a sink.
+     *
+     * @throws IOException if the selector cannot be opened
+     */
+    synchronized void start() throws IOException {
+        if (running) {
+            throw new IllegalStateException("TcpDataReader is already reading");
+        }
+        this.selector = Selector.open();
+        for (Connection connection : connections) {
+            connect(connection);
+        }
+        running = true;
+        readerThread = new Thread(this::runLoop, "tcp-data-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+    }
+
+    /**
+     * Stops the selector thread and closes all connections.
+     */
+    public synchronized void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (readerThread != null) {
+            try {
+                readerThread.join(SELECT_TIMEOUT_MILLIS * 4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records added to the storage so far.
+     *
+     * @return the record count
+     */
+    public long getRecordsRead() {
+        return recordsRead;
+    }
+
+    /**
+     * Returns the number of lines that could not be parsed.
+     *
+     * @return the malformed line count
+     */
+    public long getMalformedLines() {
+        return malformedLines;
+    }
+
+    private void runLoop() {
+        try {
+            while (running) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            finishConnect(connection);
+                        } else if (key.isReadable()) {
+                            read(connection);
+                        }
+                    } catch (IOException e) {
+                        System.err.println("TCP source " + connection.address + " failed: " + e.getMessage());
+                        disconnect(connection);
+                    }
+                }
+                reconnectDueConnections();
+            }
+        } catch (IOException e) {
+            System.err.println("TCP reader stopped: " + e.getMessage());
+        } finally {
+            for (Connection connection : connections) {
+                disconnect(connection);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                System.err.println("Error closing selector: " + e.getMessage());
+            }
+        }
+    }
+
+    private void connect(Connection connection) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            connection.channel = channel;
+            if (channel.connect(connection.address)) {
+                channel.register(selector, SelectionKey.OP_READ, connection);
+                System.out.println("Connected to TCP source " + connection.address);
+            } else {
+                channel.register(selector, SelectionKey.OP_CONNECT, connection);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not connect to " + connection.address + ": " + e.getMessage());
+            disconnect(connection);
+        }
+    }
+
+    private void finishConnect(Connection connection) throws IOException {
+        if (connection.channel.finishConnect()) {
+            connection.channel.register(selector, SelectionKey.OP_READ, connection);
+            System.out.println("Connected to TCP source " + connection.address);
+        }
+    }
+
+    private void disconnect(Connection connection) {
+        if (connection.channel != null) {
+            try {
+                connection.channel.close();
+            } catch (IOException e) {
+                System.err.println("Error closing connection to " + connection.address + ": " + e.getMessage());
+            }
+            connection.channel = null;
+        }
+        connection.buffer.clear();
+        connection.reconnectAt = System.currentTimeMillis() + RECONNECT_DELAY_MILLIS;
+    }
+
+    private void reconnectDueConnections() {
+        long now = System.currentTimeMillis();
+        for (Connection connection : connections) {
+            if (running && connection.channel == null && now >= connection.reconnectAt) {
+                connect(connection);
+            }
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.buffer;
+        int read;
+        while ((read = connection.channel.read(buffer)) > 0) {
+            buffer.flip();
+            parseLines(buffer, connection.sink);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                // A single line filled the whole buffer; it cannot be a valid record
+                malformedLines++;
+                buffer.clear();
+            }
+        }
+        if (read < 0) {
+            System.out.println("TCP source " + connection.address + " closed the connection");
+            disconnect(connection);
+        }
+    }
+
+    /**
+     * Parses every complete line between the buffer's position and limit, leaving the
+     * position at the start of the first incomplete line.
+     */
+    private void parseLines(ByteBuffer buffer, RecordSink sink) {
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart && !parseLine(buffer, lineStart, lineEnd, sink)) {
+                    malformedLines++;
+                }
+                lineStart = i + 1;
+            }
+        }
+        buffer.position(lineStart);
+    }
+
+    /**
+     * Parses one {@code id,timestamp,label,value} line and adds it to the connection's sink.
+     *
+     * @return false if the line is malformed
+     */
+    private boolean parseLine(ByteBuffer buffer, int start, int end, RecordSink sink) {
+        int firstComma = indexOf(buffer, start, end, (byte) ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, firstComma + 1, end, (byte) ',');
+        int thirdComma = secondComma < 0 ? -1 : indexOf(buffer, secondComma + 1, end, (byte) ',');
+        if (thirdComma < 0) {
+            return false;
+        }
+        long patientId = parseLong(buffer, start, firstComma);
+        long timestamp = parseLong(buffer, firstComma + 1, secondComma);
+        if (patientId < 0 || timestamp < 0) {
+            return false;
+        }
+        String label = label(buffer, secondComma + 1, thirdComma);
+        double value = parseValue(buffer, thirdComma + 1, end);
+        if (Double.isNaN(value)) {
+            return false;
+        }
+        sink.addPatientData(patientId(patientId), value, label, timestamp);
+        recordsRead++;
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buffer, int from, int end, byte target) {
+        for (int i = from; i < end; i++) {
+            if (buffer.get(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a non-negative decimal number, returning -1 if the field is not one.
+     */
+    private static long parseLong(ByteBuffer buffer, int start, int end) {
+        if (start >= end || end - start > 18) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private String patientId(long id) {
+        if (id < patientIdCache.length) {
+            String cached = patientIdCache[(int) id];
+            if (cached == null) {
+                cached = Long.toString(id);
+                patientIdCache[(int) id] = cached;
+            }
+            return cached;
+        }
+        return Long.toString(id);
+    }
+
+    private static String label(ByteBuffer buffer, int start, int end) {
+        for (int i = 0; i < KNOWN_LABEL_BYTES.length; i++) {
+            if (matches(buffer, start, end, KNOWN_LABEL_BYTES[i])) {
+                return KNOWN_LABELS[i].getLabel();
+            }
+        }
+        return ascii(buffer, start, end);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer.get(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String ascii(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static final byte[] TRIGGERED = "triggered".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RESOLVED = "resolved".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Parses the value field: a decimal number with an optional trailing '%', or the
+     * alert states "triggered" (1) and "resolved" (0).
+     * Numbers whose mantissa and exponent allow an exactly rounded result are converted
+     * in place; anything else falls back to {@link Double#parseDouble(String)}.
+     *
+     * @return the parsed value, or NaN if the field is malformed
+     */
+    private static double parseValue(ByteBuffer buffer, int start, int end) {
+        if (matches(buffer, start, end, TRIGGERED)) {
+            return 1;
+        }
+        if (matches(buffer, start, end, RESOLVED)) {
+            return 0;
+        }
+        if (end > start && buffer.get(end - 1) == '%') {
+            end--;
+        }
+        if (start >= end) {
+            return Double.NaN;
+        }
+        int i = start;
+        boolean negative = false;
+        if (buffer.get(i) == '-' || buffer.get(i) == '+') {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (seenPoint) {
+                        exponent--;
+                    }
+                    continue;
+                }
+                if (++digits > 18) {
+                    return fallbackParse(buffer, start, end);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) {
+                    exponent--;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else if (b == 'E' || b == 'e') {
+                long explicitExponent = parseSignedInt(buffer, i + 1, end);
+                if (explicitExponent == Long.MIN_VALUE || !seenDigit) {
+                    return Double.NaN;
+                }
+                exponent += (int) explicitExponent;
+                break;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (!seenDigit) {
+            return Double.NaN;
+        }
+        if (mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+            return fallbackParse(buffer, start, end);
+        }
+        double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return negative ? -value : value;
+    }
+
+    private static long parseSignedInt(ByteBuffer buffer, int start, int end) {
+        boolean negative = false;
+        if (start < end && (buffer.get(start) == '-' || buffer.get(start) == '+')) {
+            negative = buffer.get(start) == '-';
+            start++;
+        }
+        if (start >= end || end - start > 4) {
+            return Long.MIN_VALUE;
+        }
+        long result = parseLong(buffer, start, end);
+        if (result < 0) {
+            return Long.MIN_VALUE;
+        }
+        return negative ? -result : result;
+    }
+
+    private static double fallbackParse(ByteBuffer buffer, int start, int end) {
+        try {
+            return Double.parseDouble(ascii(buffer, start, end));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * State of one upstream simulator connection.
+     */
+    private static class Connection {
+        private final InetSocketAddress address;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private RecordSink sink;
+        private SocketChannel channel;
+        private long reconnectAt;
+
+        private Connection(InetSocketAddress address) {
+            this.address = address;
+        }
+    }
+
+    /**
+     * Main method for testing purposes.
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        DataStorage storage = new DataStorage();
+        TcpDataReader reader = new TcpDataReader("localhost", 8080);
+        reader.readData(storage);
+        Thread.sleep(5000);
+        reader.close();
+        System.out.println("records read: " + reader.getRecordsRead());
+    }
+}
@@ -12,7 +12,8 @@ import org.java_websocket.handshake.ServerHandshake;
  * The WebSocketReader class extends WebSocketClient and implements DataReader to read and process data from a WebSocket server.
  */
 public class WebSocketReader  extends WebSocketClient implements DataReader {
-    private DataStorage dataStorage;
+    private RecordSink dataStorage;
+    private String subscription;
 
 
     /**
@@ -32,10 +33,23 @@ public class WebSocketReader  extends WebSocketClient implements DataReader {
      * @param dataStorage The DataStorage object to store patient data.
      */
     @Override
-    public void readData(DataStorage dataStorage)  {
+    public void readData(RecordSink dataStorage)  {
         this.dataStorage = dataStorage;
         this.connect();
     }
+    /**
+     * Limits the data the server sends to this reader. The filter is sent whenever the
+     * connection opens, e.g. {@code patients=1-10,15;labels=Saturation,Alert}.
+     *
+     * @param filter The subscription filter, or null to receive everything.
+     */
+    public void setSubscription(String filter) {
+        this.subscription = filter;
+        if (filter != null && isOpen()) {
+            send("subscribe " + filter);
+        }
+    }
+
     /**
      * Called when a new WebSocket connection is opened.
      *
@@ -44,6 +58,9 @@ public class WebSocketReader  extends WebSocketClient implements DataReader {
     @Override
     public void onOpen(ServerHandshake handshake) {
         System.out.println("new connection opened");
+        if (subscription != null) {
+            send("subscribe " + subscription);
+        }
     }
     /**
      * Called when the WebSocket connection is closed.
@@ -59,13 +76,31 @@ public class WebSocketReader  extends WebSocketClient implements DataReader {
 
     /**
      * Called when a message is received from the WebSocket server.
-     * Parses message to patient record and reads it into data storage
+     * A message holds one record, or several newline-separated records when the
+     * server batches its output.
      *
      * @param message The received message as a String.
      */
     @Override
     public void onMessage(String message) {
         //System.out.println("received message: " + message);
+        int start = 0;
+        int newline;
+        while ((newline = message.indexOf('\n', start)) >= 0) {
+            onRecord(message.substring(start, newline));
+            start = newline + 1;
+        }
+        if (start < message.length()) {
+            onRecord(start == 0 ? message : message.substring(start));
+        }
+    }
+
+    /**
+     * Parses a single record line to patient record and reads it into data storage
+     *
+     * @param message The record line.
+     */
+    private void onRecord(String message) {
 
         //adding Patient record to data storage;
         String[] parts = message.split("[\\s,]+"); // Split the message into parts based on whitespace or comma
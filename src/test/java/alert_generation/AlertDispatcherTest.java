@@ -0,0 +1,154 @@
+package alert_generation;
+
+import com.alerts.decorators.Alert;
+import com.alerts.decorators.BasicAlert;
+import com.alerts.decorators.PriorityAlertDecorator;
+import com.alerts.decorators.RepeatedAlertDecorator;
+import com.alerts.dispatch.AlertDispatcher;
+import com.alerts.dispatch.RollingFileAlertSink;
+import com.alerts.dispatch.WebSocketAlertSink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertDispatcherTest {
+
+    @Test
+    void testEverySinkReceivesTheAlertsInOrder() {
+        List<String> first = Collections.synchronizedList(new ArrayList<>());
+        List<String> second = Collections.synchronizedList(new ArrayList<>());
+        AlertDispatcher dispatcher = new AlertDispatcher(8, 64, Thread::new);
+        dispatcher.addSink("first", alerts -> alerts.forEach(a -> first.add(a.getMessage())));
+        dispatcher.addSink("second", alerts -> alerts.forEach(a -> second.add(a.getMessage())));
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            BasicAlert alert = new BasicAlert(String.valueOf(i), "Low Saturation of oxygen in blood", i);
+            expected.add(alert.getMessage());
+            dispatcher.dispatch(alert);
+        }
+        dispatcher.close();
+
+        assertEquals(expected, first);
+        assertEquals(expected, second);
+        assertEquals(100, dispatcher.getDispatched());
+        for (AlertDispatcher.SinkMetrics metrics : dispatcher.getMetrics()) {
+            assertEquals(100, metrics.getDelivered());
+            assertEquals(0, metrics.getDropped());
+            assertTrue(metrics.getMaxLatencyMillis() >= metrics.getMeanLatencyMillis());
+        }
+    }
+
+    @Test
+    void testStalledSinkDropsWithoutHoldingUpTheOthers() throws InterruptedException {
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Alert> received = Collections.synchronizedList(new ArrayList<>());
+        AlertDispatcher dispatcher = new AlertDispatcher(1, 8, Thread::new);
+        dispatcher.addSink("stalled", alerts -> {
+            stuck.countDown();
+            release.await();
+        });
+        dispatcher.addSink("console", received::addAll);
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.dispatch(new BasicAlert("1", "Triggered Alert", i));
+            if (i == 0) {
+                stuck.await();
+            }
+            while (received.size() <= i) {
+                Thread.sleep(1); // the healthy sink gets every alert while the other one is stuck
+            }
+        }
+        release.countDown();
+        dispatcher.close();
+
+        AlertDispatcher.SinkMetrics stalled = dispatcher.getMetrics().get(0);
+        AlertDispatcher.SinkMetrics console = dispatcher.getMetrics().get(1);
+        assertEquals(9, stalled.getDelivered()); // the batch it was stuck on and the 8 queued behind it
+        assertEquals(41, stalled.getDropped());
+        assertEquals(50, console.getDelivered());
+        assertEquals(0, console.getDropped());
+    }
+
+    @Test
+    void testFailingSinkIsCounted() {
+        AlertDispatcher dispatcher = new AlertDispatcher();
+        dispatcher.addSink("offline", alerts -> {
+            throw new IllegalStateException("nurse station offline");
+        });
+        dispatcher.dispatch(new BasicAlert("1", "Triggered Alert", 0));
+        dispatcher.close();
+
+        assertEquals(1, dispatcher.getMetrics().get(0).getFailed());
+        assertEquals(0, dispatcher.getMetrics().get(0).getDelivered());
+    }
+
+    @Test
+    void testAlertsWithoutNurseStationAreNotDelivered() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        AlertDispatcher dispatcher = new AlertDispatcher(4, 64, Thread::new);
+        dispatcher.addSink("stations", new WebSocketAlertSink(port));
+        for (int i = 0; i < 3; i++) {
+            dispatcher.dispatch(new BasicAlert("1", "Abnormal Heart Rate", i));
+        }
+        dispatcher.close();
+
+        assertEquals(3, dispatcher.getMetrics().get(0).getFailed());
+        assertEquals(0, dispatcher.getMetrics().get(0).getDelivered());
+    }
+
+    @Test
+    void testDecoratedAlertIsPrintedAsOneLine() {
+        PrintStream console = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            new PriorityAlertDecorator(new RepeatedAlertDecorator(new BasicAlert("2", "Abnormal Heart Rate", 20), 3))
+                    .triggerAlert();
+        } finally {
+            System.setOut(console);
+        }
+        assertEquals("Priority Repeated (3x) Alert: 2 Abnormal Heart Rate 20" + System.lineSeparator(), out.toString());
+    }
+
+    @Test
+    void testRollingFileSinkStartsNewFiles(@TempDir Path directory) throws Exception {
+        AlertDispatcher dispatcher = new AlertDispatcher(1, 64, Thread::new);
+        dispatcher.addSink("log", new RollingFileAlertSink(directory, 1, 0)); // a new file per batch
+        dispatcher.dispatch(new BasicAlert("1", "Abnormal Heart Rate", 10));
+        dispatcher.dispatch(new PriorityAlertDecorator(new BasicAlert("2", "Abnormal Heart Rate", 20)));
+        dispatcher.close();
+
+        List<String> lines;
+        long files;
+        try (Stream<Path> logs = Files.list(directory)) {
+            List<Path> paths = logs.sorted().collect(Collectors.toList());
+            files = paths.size();
+            lines = new ArrayList<>();
+            for (Path path : paths) {
+                lines.addAll(Files.readAllLines(path));
+            }
+        }
+        assertEquals(2, files);
+        assertTrue(lines.contains("Alert: 1 Abnormal Heart Rate 10"), lines.toString());
+        assertTrue(lines.contains("Priority Alert: 2 Abnormal Heart Rate 20"), lines.toString());
+    }
+}
@@ -0,0 +1,118 @@
+package alert_generation;
+
+import com.alerts.AlertGenerator;
+import com.alerts.AlertStateTracker;
+import com.alerts.decorators.BasicAlert;
+import com.alerts.decorators.PriorityAlertDecorator;
+import com.alerts.decorators.RepeatedAlertDecorator;
+import com.data_management.DataStorage;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertStateTrackerTest {
+    private static final String LOW = "Low Saturation of oxygen in blood";
+
+    @Test
+    void testCooldownAndEscalation() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 2);
+        BasicAlert alert = new BasicAlert("1", LOW, 1000);
+
+        assertSame(alert, tracker.onAlert(alert));
+        assertNull(tracker.onAlert(new BasicAlert("1", LOW, 31_000))); // within the cooldown
+
+        BasicAlert repeat = tracker.onAlert(new BasicAlert("1", LOW, 61_000));
+        assertTrue(repeat instanceof RepeatedAlertDecorator);
+        assertEquals(1, ((RepeatedAlertDecorator) repeat).getRepeats());
+        assertEquals(LOW, repeat.getCondition());
+
+        BasicAlert escalated = tracker.onAlert(new BasicAlert("1", LOW, 121_000));
+        assertTrue(escalated instanceof PriorityAlertDecorator);
+        assertEquals("1", escalated.getPatientId());
+    }
+
+    @Test
+    void testAcknowledgeAndResolve() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 3);
+        BasicAlert alert = new BasicAlert("7", LOW, 1000);
+
+        tracker.onAlert(alert);
+        tracker.acknowledge("7", LOW);
+        assertNull(tracker.onAlert(new BasicAlert("7", LOW, 600_000)));
+        assertEquals(AlertStateTracker.State.ACKNOWLEDGED, tracker.getState("7", LOW));
+
+        tracker.resolveAbsent("7", List.of("Abnormal Heart Rate"));
+        assertEquals(AlertStateTracker.State.RESOLVED, tracker.getState("7", LOW));
+        BasicAlert again = new BasicAlert("7", LOW, 700_000);
+        assertSame(again, tracker.onAlert(again)); // raised afresh
+        assertNull(tracker.getState("8", LOW));
+    }
+
+    @Test
+    void testStaleAlertsAreNotRepeated() {
+        AlertStateTracker tracker = new AlertStateTracker(60_000, 2);
+        BasicAlert alert = new BasicAlert("3", LOW, 1000);
+
+        assertTrue(tracker.isCurrent(alert));
+        assertSame(alert, tracker.onAlert(alert));
+        // the next evaluations find the same reading in the history, however much time passes
+        for (int cycle = 0; cycle < 5; cycle++) {
+            assertFalse(tracker.isCurrent(alert));
+            assertNull(tracker.onAlert(alert));
+            tracker.resolveCleared("3", condition -> 1000); // no newer data
+        }
+        assertFalse(tracker.isCurrent(new BasicAlert("3", LOW, 500)));
+        assertEquals(AlertStateTracker.State.ACTIVE, tracker.getState("3", LOW));
+
+        tracker.resolveCleared("3", condition -> 2000); // a newer reading raised nothing
+        assertEquals(AlertStateTracker.State.RESOLVED, tracker.getState("3", LOW));
+        assertNull(tracker.onAlert(alert)); // still the old reading
+    }
+
+    @Test
+    void testEvaluationsWithoutNewDataKeepTheCondition() {
+        DataStorage storage = new DataStorage();
+        AlertGenerator generator = new AlertGenerator(storage);
+        AlertStateTracker tracker = generator.getAlertStateTracker();
+        List<String> messages = new ArrayList<>();
+
+        PrintStream console = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        try {
+            // one low reading a minute, and an evaluation before every reading and between them
+            for (int minute = 0; minute <= 10; minute++) {
+                storage.addPatientData("4", 85, "Saturation", minute * 60_000L);
+                generator.evaluateData(storage.getAllPatients().get(0));
+                storage.addPatientData("4", 120, "SystolicPressure", minute * 60_000L + 30_000); // another vital
+                generator.evaluateData(storage.getAllPatients().get(0));
+                assertEquals(AlertStateTracker.State.ACTIVE, tracker.getState("4", LOW));
+            }
+        } finally {
+            System.setOut(console);
+        }
+        for (String line : out.toString().split(System.lineSeparator())) {
+            if (line.contains(LOW)) {
+                messages.add(line.substring(0, line.indexOf("Alert:")));
+            }
+        }
+        // paged once, then repeated once per five-minute cooldown
+        assertEquals(List.of("", "Repeated (1x) ", "Repeated (2x) "), messages);
+
+        storage.addPatientData("4", 97, "Saturation", 11 * 60_000L);
+        generator.evaluateData(storage.getAllPatients().get(0));
+        assertEquals(AlertStateTracker.State.RESOLVED, tracker.getState("4", LOW));
+        storage.addPatientData("4", 86, "Saturation", 12 * 60_000L);
+        generator.evaluateData(storage.getAllPatients().get(0));
+        assertEquals(AlertStateTracker.State.ACTIVE, tracker.getState("4", LOW));
+    }
+}
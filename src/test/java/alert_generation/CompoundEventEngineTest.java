@@ -0,0 +1,56 @@
+package alert_generation;
+
+import com.alerts.cep.CompoundEventEngine;
+import com.alerts.cep.CompoundMatch;
+import com.alerts.cep.CompoundRule;
+import com.alerts.decorators.BasicAlert;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompoundEventEngineTest {
+
+    @Test
+    void testThreeConditionsWithinSpanPerPatient() {
+        CompoundEventEngine engine = new CompoundEventEngine();
+        engine.addRule(new CompoundRule("Shock", 10_000, false, "A", "B", "C"));
+        List<CompoundMatch> matches = new ArrayList<>();
+
+        engine.onAlert(new BasicAlert("1", "A", 0), matches::add);
+        engine.onAlert(new BasicAlert("1", "B", 4_000), matches::add);
+        engine.onAlert(new BasicAlert("2", "C", 5_000), matches::add); // another patient
+        engine.onAlert(new BasicAlert("1", "C", 12_000), matches::add); // A has expired by now
+        assertTrue(matches.isEmpty());
+
+        engine.onAlert(new BasicAlert("1", "A", 13_000), matches::add);
+        assertEquals(1, matches.size());
+        BasicAlert alert = matches.get(0).getAlert();
+        assertEquals("1", alert.getPatientId());
+        assertEquals("Shock", alert.getCondition());
+        assertEquals(4_000, alert.getTimestamp()); // the earliest of the matched alerts
+        assertEquals(3, matches.get(0).getComponents().size());
+
+        engine.onAlert(new BasicAlert("1", "B", 14_000), matches::add); // A and C were used up
+        assertEquals(1, matches.size());
+    }
+
+    @Test
+    void testEvaluateReplacesMatchedAlerts() {
+        CompoundEventEngine engine = new CompoundEventEngine();
+        engine.addRule(new CompoundRule("AB", 1_000, true, "A", "B"));
+        List<BasicAlert> alerts = List.of(new BasicAlert("1", "B", 500), new BasicAlert("1", "X", 0),
+                new BasicAlert("1", "A", 0), new BasicAlert("1", "A", 5_000));
+
+        List<BasicAlert> result = engine.evaluate(alerts);
+
+        List<String> conditions = new ArrayList<>();
+        result.forEach(a -> conditions.add(a.getCondition() + "@" + a.getTimestamp()));
+        assertEquals(List.of("X@0", "A@5000", "AB@0"), conditions);
+        assertThrows(IllegalArgumentException.class, () -> new CompoundRule("AA", 1_000, true, "A", "A"));
+    }
+}
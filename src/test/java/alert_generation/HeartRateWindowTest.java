@@ -0,0 +1,70 @@
+package alert_generation;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.streaming.HeartRateWindow;
+
+class HeartRateWindowTest {
+
+    @Test
+    void testBeatsLeaveOnlyWhenOlderThanTheWindow() {
+        HeartRateWindow window = new HeartRateWindow(1000, 2);
+        window.add(0);
+        window.add(1000);
+        assertEquals(2, window.getBeatCount()); // exactly one window old: still inside
+        assertEquals(60.0, window.getBpm(), 1e-9);
+
+        window.add(1001);
+        assertEquals(2, window.getBeatCount());
+        assertEquals(60_000.0, window.getBpm(), 1e-9);
+
+        window.add(5000);
+        assertEquals(1, window.getBeatCount());
+        assertEquals(0, window.getBpm());
+    }
+
+    @Test
+    void testGrowsPastSixteenBeatsAfterWrappingAround() {
+        HeartRateWindow window = new HeartRateWindow(1000, 2);
+        long timestamp = 0;
+        // steady beats every 100 ms move the start of the ring around it several times
+        for (int i = 0; i < 50; i++) {
+            window.add(timestamp);
+            timestamp += 100;
+        }
+        assertEquals(11, window.getBeatCount());
+
+        // a burst fills the window past its initial capacity while the ring is wrapped
+        long burstStart = timestamp - 100;
+        for (int i = 0; i < 40; i++) {
+            window.add(burstStart + 10 * (i + 1));
+        }
+        // the burst ends at 5300, so the steady beats from 4300 on are still in the window
+        assertEquals(7 + 40, window.getBeatCount());
+        assertEquals((7 + 40 - 1) * 60_000.0 / (5300 - 4300), window.getBpm(), 1e-9);
+    }
+
+    @Test
+    void testReadyOnceTheMinimumBeatsAreInTheWindow() {
+        HeartRateWindow window = new HeartRateWindow(10_000, 3);
+        window.add(0);
+        window.add(1000);
+        assertFalse(window.isReady());
+        assertEquals(60.0, window.getBpm(), 1e-9);
+
+        window.add(2000);
+        assertTrue(window.isReady());
+        assertEquals(60.0, window.getBpm(), 1e-9);
+
+        window.add(11_500); // leaves 2000 and 11500 in the window
+        assertEquals(2, window.getBeatCount());
+        assertFalse(window.isReady());
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new HeartRateWindow(0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new HeartRateWindow(1000, 1));
+    }
+}
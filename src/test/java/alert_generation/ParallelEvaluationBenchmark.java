@@ -0,0 +1,76 @@
+package alert_generation;
+
+import com.alerts.AlertGenerator;
+import com.data_management.DataStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how {@link AlertGenerator#evaluateAll(ForkJoinPool)} scales with the number of worker
+ * threads, on a ward of patients with a day of saturation and blood pressure readings each.
+ * The readings stay in the normal range, so the time is spent in the strategies and not in printing
+ * alerts. Each pool size is timed as the best of a few rounds and compared with a single worker.
+ * Not run by the build; start it with
+ * {@code java -cp target/classes:target/test-classes alert_generation.ParallelEvaluationBenchmark [patients]}.
+ */
+public class ParallelEvaluationBenchmark {
+    private static final int ROUNDS = 5;
+    private static final long START = 1_700_000_000_000L;
+
+    public static void main(String[] args) {
+        int patients = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        DataStorage storage = ward(patients);
+        AlertGenerator generator = new AlertGenerator(storage);
+
+        List<Integer> threads = new ArrayList<>();
+        for (int n = 1; n < Runtime.getRuntime().availableProcessors(); n *= 2) {
+            threads.add(n);
+        }
+        threads.add(Runtime.getRuntime().availableProcessors());
+
+        long singleNanos = 0;
+        for (int n : threads) {
+            ForkJoinPool pool = new ForkJoinPool(n);
+            long bestNanos = Long.MAX_VALUE;
+            int alerts = 0;
+            try {
+                generator.evaluateAll(pool); // warm-up
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    alerts += generator.evaluateAll(pool).size();
+                    bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+                }
+            } finally {
+                pool.shutdown();
+            }
+            if (n == 1) {
+                singleNanos = bestNanos;
+            }
+            System.out.printf("%,d patients, %2d thread(s): %,9.1f ms (%6.1f us/patient), speed-up %4.2f%s%n",
+                    patients, n, bestNanos / 1e6, bestNanos / 1e3 / patients, singleNanos / (double) bestNanos,
+                    alerts == 0 ? "" : ", unexpected alerts");
+        }
+    }
+
+    private static DataStorage ward(int patients) {
+        DataStorage storage = new DataStorage();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int patient = 1; patient <= patients; patient++) {
+            String id = String.valueOf(patient);
+            double saturation = 97;
+            for (int second = 0; second < 86_400; second += 10) {
+                long timestamp = START + second * 1000L;
+                saturation = Math.max(96, Math.min(98, saturation + random.nextInt(3) - 1));
+                storage.addPatientData(id, saturation, "Saturation", timestamp);
+                if (second % 600 == 0) {
+                    storage.addPatientData(id, 115 + random.nextInt(5), "SystolicPressure", timestamp + 500);
+                    storage.addPatientData(id, 75 + random.nextInt(5), "DiastolicPressure", timestamp + 500);
+                }
+            }
+        }
+        return storage;
+    }
+}
@@ -0,0 +1,58 @@
+package alert_generation;
+
+import com.alerts.AlertGenerator;
+import com.alerts.decorators.BasicAlert;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelEvaluationTest {
+
+    private static Set<String> keys(List<BasicAlert> alerts) {
+        Set<String> keys = new HashSet<>();
+        for (BasicAlert alert : alerts) {
+            keys.add(alert.getPatientId() + "/" + alert.getCondition() + "/" + alert.getTimestamp());
+        }
+        return keys;
+    }
+
+    @Test
+    void testEvaluateAllMatchesSerialEvaluation() {
+        DataStorage storage = new DataStorage();
+        for (int patient = 1; patient <= 200; patient++) {
+            String id = String.valueOf(patient);
+            long timestamp = 1714376789050L;
+            for (int i = 0; i < 20; i++) {
+                storage.addPatientData(id, 120 + (patient % 4 == 0 ? 80 : 0), "SystolicPressure", timestamp);
+                storage.addPatientData(id, patient % 4 == 1 ? 88 : 97, "Saturation", timestamp + 500);
+                timestamp += 60_000;
+            }
+        }
+
+        AlertGenerator generator = new AlertGenerator(storage);
+        List<BasicAlert> serial = new ArrayList<>();
+        for (Patient patient : storage.getAllPatients()) {
+            generator.evaluateData(patient);
+            serial.addAll(generator.getAlerts());
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        List<BasicAlert> parallel;
+        try {
+            parallel = generator.evaluateAll(pool);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(serial.size(), parallel.size());
+        assertEquals(keys(serial), keys(parallel));
+        assertEquals(50, keys(parallel).stream().filter(k -> k.contains("/Low Saturation")).count());
+    }
+}
@@ -0,0 +1,82 @@
+package alert_generation;
+
+import com.alerts.strategies.OxygenSaturationStrategy;
+import com.alerts.strategies.RecordSeries;
+import com.data_management.PatientRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Compares the rapid-change check of {@link OxygenSaturationStrategy}, which keeps the rolling
+ * 10-minute maximum and minimum in monotonic deques, with the nested loop it replaced, on series of
+ * one saturation reading per second over several days. The readings vary by a few points without
+ * ever changing by 5, so the nested loop scans the full 10 minutes after every reading.
+ * Not run by the build; start it with
+ * {@code java -cp target/classes:target/test-classes alert_generation.SaturationBenchmark [days...]}.
+ */
+public class SaturationBenchmark {
+    private static final long WINDOW_MILLIS = 10 * 60 * 1000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int[] days = args.length > 0 ? new int[args.length] : new int[] {1, 3, 7};
+        for (int i = 0; i < args.length; i++) {
+            days[i] = Integer.parseInt(args[i]);
+        }
+        OxygenSaturationStrategy strategy = new OxygenSaturationStrategy(null);
+        for (int day : days) {
+            List<PatientRecord> records = series(day * 86_400);
+            RecordSeries series = RecordSeries.of(records, Set.of("Saturation"));
+            long windowNanos = Long.MAX_VALUE;
+            long loopNanos = Long.MAX_VALUE;
+            int alerts = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                alerts += strategy.checkSeries("1", series).size();
+                windowNanos = Math.min(windowNanos, System.nanoTime() - start);
+                start = System.nanoTime();
+                alerts += nestedLoop(records);
+                loopNanos = Math.min(loopNanos, System.nanoTime() - start);
+            }
+            System.out.printf("%d day(s), %,d readings: monotonic window %,8.1f ms (%5.1f ns/reading),"
+                            + " nested loop %,9.1f ms (%7.1f ns/reading)%s%n", day, records.size(),
+                    windowNanos / 1e6, windowNanos / (double) records.size(), loopNanos / 1e6,
+                    loopNanos / (double) records.size(), alerts == 0 ? "" : ", unexpected alerts");
+        }
+    }
+
+    private static List<PatientRecord> series(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<PatientRecord> records = new ArrayList<>(count);
+        double value = 97;
+        for (int i = 0; i < count; i++) {
+            value = Math.max(95, Math.min(99, value + random.nextInt(3) - 1));
+            records.add(new PatientRecord("1", value, "Saturation", i * 1000L));
+        }
+        return records;
+    }
+
+    /**
+     * The former check: every reading against each later one within 10 minutes.
+     */
+    private static int nestedLoop(List<PatientRecord> records) {
+        int alerts = 0;
+        for (int i = 0; i < records.size(); i++) {
+            PatientRecord current = records.get(i);
+            for (int j = i + 1; j < records.size(); j++) {
+                PatientRecord next = records.get(j);
+                if (next.getTimestamp() - current.getTimestamp() > WINDOW_MILLIS) {
+                    break;
+                }
+                if (Math.abs(current.getMeasurementValue() - next.getMeasurementValue()) >= 5) {
+                    alerts++;
+                    break;
+                }
+            }
+        }
+        return alerts;
+    }
+}
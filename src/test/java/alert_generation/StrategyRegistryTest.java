@@ -0,0 +1,70 @@
+package alert_generation;
+
+import com.alerts.AlertGenerator;
+import com.alerts.decorators.BasicAlert;
+import com.alerts.strategies.AlertStrategy;
+import com.alerts.strategies.RecordSeries;
+import com.alerts.strategies.StrategyRegistry;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class StrategyRegistryTest {
+
+    /**
+     * Records the series it is handed.
+     */
+    private static class RecordingStrategy implements AlertStrategy {
+        private final String recordType;
+        private final List<List<PatientRecord>> seen = new ArrayList<>();
+
+        RecordingStrategy(String recordType) {
+            this.recordType = recordType;
+        }
+
+        @Override
+        public List<BasicAlert> checkAlert(Patient patient, long startTime, long endTime) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Set<String> getRecordTypes() {
+            return Set.of(recordType);
+        }
+
+        @Override
+        public List<BasicAlert> checkSeries(String patientId, RecordSeries series) {
+            seen.add(series.get(recordType));
+            return Collections.emptyList();
+        }
+    }
+
+    @Test
+    void testSeriesFetchedOnceAndShared() {
+        DataStorage storage = new DataStorage();
+        storage.addPatientData("1", 0.4, "ECG", 3000L);
+        storage.addPatientData("1", 0.1, "ECG", 1000L);
+        storage.addPatientData("1", 97, "Saturation", 2000L);
+
+        StrategyRegistry registry = new StrategyRegistry();
+        RecordingStrategy first = new RecordingStrategy("ECG");
+        RecordingStrategy second = new RecordingStrategy("ECG");
+        registry.register(first);
+        registry.register(second);
+        new AlertGenerator(storage, registry).evaluateData(storage.getPatient("1"));
+
+        List<PatientRecord> ecg = first.seen.get(0);
+        assertSame(ecg, second.seen.get(0));
+        assertEquals(2, ecg.size());
+        assertEquals(1000L, ecg.get(0).getTimestamp()); // sorted oldest first
+    }
+}
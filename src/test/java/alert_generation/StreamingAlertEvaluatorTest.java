@@ -0,0 +1,142 @@
+package alert_generation;
+
+import com.alerts.decorators.BasicAlert;
+import com.alerts.strategies.HeartRateStrategy;
+import com.alerts.strategies.RecordSeries;
+import com.alerts.streaming.HeartRateWindow;
+import com.alerts.streaming.MonotonicWindow;
+import com.alerts.streaming.StreamingAlertEvaluator;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingAlertEvaluatorTest {
+
+    private static List<String> conditions(List<BasicAlert> alerts) {
+        List<String> conditions = new ArrayList<>();
+        for (BasicAlert alert : alerts) {
+            conditions.add(alert.getCondition() + "@" + alert.getTimestamp());
+        }
+        return conditions;
+    }
+
+    @Test
+    void testBloodPressureAlertsOnArrival() {
+        List<BasicAlert> alerts = new ArrayList<>();
+        DataStorage storage = new DataStorage();
+        new StreamingAlertEvaluator(alerts::add).attach(storage);
+
+        storage.addPatientData("1", 100, "SystolicPressure", 1714376789050L);
+        storage.addPatientData("1", 120, "SystolicPressure", 1714376789051L);
+        assertTrue(alerts.isEmpty());
+        storage.addPatientData("1", 140, "SystolicPressure", 1714376789052L);
+        storage.addPatientData("1", 190, "SystolicPressure", 1714376789053L);
+        storage.addPatientData("1", 195, "SystolicPressure", 1714376789054L);
+
+        // the trend fires on the third rising reading; the critical value once while it lasts
+        assertEquals(List.of("SystolicPressure dangerous trend@1714376789052",
+                "SystolicPressure critical value reached@1714376789053"), conditions(alerts));
+    }
+
+    @Test
+    void testCompoundAndTriggeredAlerts() {
+        List<BasicAlert> alerts = new ArrayList<>();
+        DataStorage storage = new DataStorage();
+        new StreamingAlertEvaluator(alerts::add).attach(storage);
+
+        storage.addPatientData("2", 95, "Saturation", 1714376780000L);
+        storage.addPatientData("2", 85, "SystolicPressure", 1714376781000L);
+        storage.addPatientData("2", 90, "Saturation", 1714376783000L);
+        storage.addPatientData("2", 1, "Alert", 1714376784000L);
+
+        List<String> conditions = conditions(alerts);
+        assertTrue(conditions.contains("Hypotensive Hypoxemia Alert@1714376783000"), conditions.toString());
+        assertTrue(conditions.contains("Triggered Alert@1714376784000"), conditions.toString());
+    }
+
+    @Test
+    void testAbnormalHeartRate() {
+        List<BasicAlert> alerts = new ArrayList<>();
+        DataStorage storage = new DataStorage();
+        StreamingAlertEvaluator evaluator = new StreamingAlertEvaluator(alerts::add);
+        evaluator.attach(storage);
+
+        long timestamp = 1716653770000L;
+        for (int beat = 0; beat < 12; beat++) {
+            storage.addPatientData("3", 0.5, "ECG", timestamp);
+            timestamp += 400; // 150 bpm
+        }
+
+        assertEquals(12, evaluator.getRecordCount());
+        assertEquals(1, alerts.stream().filter(a -> a.getCondition().equals("Abnormal Heart Rate")).count());
+    }
+
+    @Test
+    void testIrregularBeatsRaiseOneAlertPerEpisode() {
+        List<BasicAlert> alerts = new ArrayList<>();
+        DataStorage storage = new DataStorage();
+        new StreamingAlertEvaluator(alerts::add).attach(storage);
+
+        long[] beats = {0, 1000, 2000, 3000, 4000, 5000, 5700, 6400, 7400, 8400, 9000};
+        for (long beat : beats) {
+            storage.addPatientData("1", 0.5, "ECG", beat);
+        }
+        // the two short intervals ending at 5700 and 6400 are one episode; 8400-9000 starts another
+        assertEquals(List.of("Irregular Beat Pattern@5700", "Irregular Beat Pattern@9000"), conditions(alerts));
+    }
+
+    @Test
+    void testMonotonicWindowEvictsExpiredValues() {
+        MonotonicWindow window = new MonotonicWindow(1000);
+        window.add(0, 5);
+        window.add(500, 9);
+        window.add(800, 1);
+        assertEquals(9, window.max());
+        assertEquals(1, window.min());
+        assertEquals(5, window.dropTo(4));
+        assertEquals(3, window.riseTo(4));
+
+        window.evict(1600); // the values read at 0 and 500 are older than a second
+        assertEquals(1, window.max());
+        assertEquals(800, window.maxTime());
+    }
+
+    @Test
+    void testHeartRateWindowSlidesOverTime() {
+        HeartRateWindow window = new HeartRateWindow(10_000, 3);
+        for (long t = 0; t <= 20_000; t += 1000) { // 60 bpm
+            window.add(t);
+        }
+        assertEquals(11, window.getBeatCount()); // the beats of the last ten seconds, both ends included
+        assertEquals(60, window.getBpm(), 1e-9);
+        for (long t = 20_500; t <= 30_000; t += 500) { // 120 bpm
+            window.add(t);
+        }
+        assertEquals(120, window.getBpm(), 1e-9);
+    }
+
+    @Test
+    void testHeartRateStrategyWindowIsConfigurable() {
+        List<PatientRecord> ecg = new ArrayList<>();
+        for (long t = 0; t < 30_000; t += 1000) {
+            ecg.add(new PatientRecord("1", 0.5, "ECG", t));
+        }
+        for (long t = 30_000; t < 40_000; t += 400) { // the rate jumps to 150 bpm
+            ecg.add(new PatientRecord("1", 0.5, "ECG", t));
+        }
+        RecordSeries series = RecordSeries.of(ecg, Set.of("ECG"));
+
+        List<BasicAlert> shortWindow = new HeartRateStrategy(null, 5_000, 5).checkSeries("1", series);
+        List<BasicAlert> longWindow = new HeartRateStrategy(null).checkSeries("1", series);
+        // five seconds of fast beats fill the short window; the minute-long average stays below 100
+        assertTrue(shortWindow.get(0).getTimestamp() < 36_000);
+        assertTrue(longWindow.isEmpty());
+    }
+}
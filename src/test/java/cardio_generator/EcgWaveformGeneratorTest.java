@@ -0,0 +1,69 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.generators.EcgWaveformGenerator;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+class EcgWaveformGeneratorTest {
+
+    @Test
+    void testEmitsEverySampleOnceInBlocks() {
+        EcgWaveformGenerator generator = new EcgWaveformGenerator(2, 500, 1);
+        SampleBatch batch = new SampleBatch();
+        for (long time = 0; time <= 3000; time += 100) {
+            generator.generate(1, 1_000_000 + time, batch);
+        }
+
+        // 3 seconds at 500 Hz, plus the sample at the start time
+        int samples = 0;
+        int beats = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(1, batch.getPatientId(i));
+            if (batch.getType(i) == SampleType.ECG_WAVEFORM) {
+                assertEquals(1_000_000 + 2L * samples, batch.getTimestamp(i));
+                samples++;
+            } else {
+                assertEquals(SampleType.ECG, batch.getType(i));
+                beats++;
+            }
+        }
+        assertEquals(1501, samples);
+        assertTrue(beats >= 2 && beats <= 5, "beats " + beats); // 60 to 90 bpm for 3 s
+    }
+
+    @Test
+    void testBeatsFollowTheHeartRate() {
+        EcgWaveformGenerator generator = new EcgWaveformGenerator(1, 250, 7);
+        generator.getWaveform(1).setHeartRate(120);
+        SampleBatch batch = new SampleBatch();
+        generator.generate(1, 0, batch);
+        generator.generate(1, 10_000, batch);
+
+        // count R peaks in the signal: upward crossings of half the R amplitude
+        int peaks = 0;
+        int beats = 0;
+        double previous = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.getType(i) == SampleType.ECG) {
+                beats++;
+                continue;
+            }
+            double value = batch.getValue(i);
+            if (previous < 0.6 && value >= 0.6) {
+                peaks++;
+            }
+            previous = value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        assertEquals(20, peaks, 2); // 120 bpm for 10 s
+        assertEquals(peaks, beats, 1); // one ECG record per beat of the signal
+        assertTrue(max > 1.0 && max < 1.5, "R peak " + max);
+        assertTrue(min < -0.1 && min > -0.6, "S trough " + min);
+    }
+}
@@ -0,0 +1,145 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.outputs.FanOutOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class FanOutOutputStrategyTest {
+
+    @Test
+    void testEverySinkReceivesEverySampleInOrder() throws InterruptedException {
+        FanOutOutputStrategy fanOut = new FanOutOutputStrategy(1024);
+        List<Long> first = new ArrayList<>();
+        List<Long> second = new ArrayList<>();
+        fanOut.addSink("first", (patientId, timestamp, label, data) -> first.add(timestamp));
+        fanOut.addSink("second", (patientId, timestamp, label, data) -> second.add(timestamp));
+
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int patientId = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    fanOut.output(patientId, i, "ECG", "0.5");
+                    if (i % 500 == 0) {
+                        Thread.yield(); // keep within the ring capacity
+                    }
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        fanOut.close();
+
+        for (FanOutOutputStrategy.SinkMetrics metrics : fanOut.getMetrics()) {
+            assertEquals(40000, metrics.getDelivered() + metrics.getDropped());
+            assertEquals(0, metrics.getLag());
+        }
+        assertEquals(fanOut.getMetrics().get(0).getDelivered(), first.size());
+        assertEquals(fanOut.getMetrics().get(1).getDelivered(), second.size());
+    }
+
+    @Test
+    void testSlowSinkDropsWithoutBlockingOthers() throws InterruptedException {
+        FanOutOutputStrategy fanOut = new FanOutOutputStrategy(64);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> fast = new ArrayList<>();
+        OutputStrategy stalled = (patientId, timestamp, label, data) -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        fanOut.addSink("stalled", stalled);
+        fanOut.addSink("fast", (patientId, timestamp, label, data) -> fast.add(data));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            fanOut.output(1, i, "Saturation", i + "%");
+            if (i % 16 == 0) {
+                Thread.sleep(1); // give the fast sink time to follow
+            }
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "producer was blocked");
+        release.countDown();
+        fanOut.close();
+
+        FanOutOutputStrategy.SinkMetrics stalledMetrics = fanOut.getMetrics().get(0);
+        FanOutOutputStrategy.SinkMetrics fastMetrics = fanOut.getMetrics().get(1);
+        assertTrue(stalledMetrics.getDropped() > 0);
+        assertEquals(1000, stalledMetrics.getDelivered() + stalledMetrics.getDropped());
+        assertEquals(1000, fastMetrics.getDelivered());
+        assertEquals("999%", fast.get(fast.size() - 1));
+    }
+
+    @Test
+    void testManyProducersNeverDeliverTornSamples() throws InterruptedException {
+        FanOutOutputStrategy fanOut = new FanOutOutputStrategy(16); // laps the ring constantly
+        AtomicLong torn = new AtomicLong();
+        fanOut.addSink("check", (patientId, timestamp, label, data) -> {
+            if (timestamp != patientId * 1_000_000L + Long.parseLong(data) || !label.equals("P" + patientId)) {
+                torn.incrementAndGet();
+            }
+        });
+
+        Thread[] producers = new Thread[8];
+        for (int p = 0; p < producers.length; p++) {
+            int patientId = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    fanOut.output(patientId, patientId * 1_000_000L + i, "P" + patientId, Integer.toString(i));
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        long start = System.nanoTime();
+        fanOut.close();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "close waited for a lost slot");
+        FanOutOutputStrategy.SinkMetrics metrics = fanOut.getMetrics().get(0);
+        assertEquals(160000, metrics.getDelivered() + metrics.getDropped());
+        assertEquals(0, torn.get());
+    }
+
+    @Test
+    void testStalledProducerDoesNotLoseTheSlot() throws Exception {
+        FanOutOutputStrategy fanOut = new FanOutOutputStrategy(4);
+        AtomicLong received = new AtomicLong();
+        fanOut.addSink("check", (patientId, timestamp, label, data) -> received.incrementAndGet());
+
+        fanOut.output(1, 0, "ECG", "0");
+        // a producer claims the next sequence and stalls before writing its slot
+        Field claimed = FanOutOutputStrategy.class.getDeclaredField("claimed");
+        claimed.setAccessible(true);
+        ((AtomicLong) claimed.get(fanOut)).getAndIncrement();
+
+        long start = System.nanoTime();
+        for (int i = 1; i < 40; i++) {
+            fanOut.output(1, i, "ECG", Integer.toString(i));
+            while (received.get() < i + 1) {
+                Thread.sleep(1); // keep within the ring capacity
+                assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "sample " + i + " was lost");
+            }
+        }
+        fanOut.close();
+
+        FanOutOutputStrategy.SinkMetrics metrics = fanOut.getMetrics().get(0);
+        assertEquals(40, metrics.getDelivered());
+        assertEquals(1, metrics.getDropped()); // only the stalled producer's sequence
+        assertEquals(40, received.get());
+    }
+}
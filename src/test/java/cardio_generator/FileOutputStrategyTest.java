@@ -0,0 +1,141 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.RotationPolicy;
+import com.cardio_generator.outputs.SampleType;
+import com.data_management.DataStorage;
+import com.data_management.FilesReader;
+import com.data_management.PatientRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class FileOutputStrategyTest {
+
+    @Test
+    void testWrittenFilesCanBeReadBack(@TempDir Path directory) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.COMMIT);
+        for (int i = 0; i < 1000; i++) {
+            output.output(1, 1714376789050L + i, "ECG", Double.toString(i * 0.5));
+            output.output(2, 1714376789050L + i, "Saturation", "95.0%");
+        }
+        output.close();
+
+        assertEquals(1000, Files.readAllLines(directory.resolve("ECG.txt")).size());
+        assertEquals(1000, Files.readAllLines(directory.resolve("Saturation.txt")).size());
+
+        DataStorage storage = new DataStorage();
+        new FilesReader(directory.toString()).readData(storage);
+        List<PatientRecord> ecg = storage.getAllRecords("1");
+        assertEquals(1000, ecg.size());
+        assertEquals(499.5, ecg.get(999).getMeasurementValue());
+        assertEquals(95.0, storage.getAllRecords("2").get(0).getMeasurementValue());
+    }
+
+    @Test
+    void testEveryLabelIsReadBack(@TempDir Path directory) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.COMMIT);
+        for (SampleType type : SampleType.values()) {
+            output.output(1 + type.ordinal(), 1714376789050L, type.getLabel(), type.format(1));
+        }
+        output.close();
+
+        DataStorage storage = new DataStorage();
+        new FilesReader(directory.toString()).readData(storage);
+        for (SampleType type : SampleType.values()) {
+            List<PatientRecord> records = storage.getAllRecords(Integer.toString(1 + type.ordinal()));
+            assertEquals(1, records.size(), type.getLabel());
+            assertEquals(type.getLabel(), records.get(0).getRecordType());
+        }
+    }
+
+    @Test
+    void testRotatedSegmentsAreIndexedAndFilteredByWindow(@TempDir Path directory) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.NONE,
+                new RotationPolicy(0, 100, true));
+        for (int i = 0; i < 1000; i++) {
+            output.output(1, 1000L + i, "ECG", Double.toString(i));
+        }
+        output.close();
+
+        List<String> index = Files.readAllLines(directory.resolve("ECG.index"));
+        assertEquals(10, index.size());
+        assertEquals("ECG-1300.txt,1300,1399", index.get(3));
+        assertTrue(Files.exists(directory.resolve("ECG-1300.txt.gz")));
+        assertFalse(Files.exists(directory.resolve("ECG-1300.txt")));
+
+        DataStorage storage = new DataStorage();
+        new FilesReader(directory.toString()).readData(storage, 1350, 1449);
+        List<PatientRecord> records = storage.getAllRecords("1");
+        assertEquals(100, records.size());
+        assertEquals(1350, records.stream().mapToLong(PatientRecord::getTimestamp).min().getAsLong());
+        assertEquals(1449, records.stream().mapToLong(PatientRecord::getTimestamp).max().getAsLong());
+
+        DataStorage all = new DataStorage();
+        new FilesReader(directory.toString()).readData(all);
+        assertEquals(1000, all.getAllRecords("1").size());
+    }
+
+    @Test
+    void testLinesAreCommittedWithoutClosing(@TempDir Path directory) throws IOException, InterruptedException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.NONE,
+                1 << 20, 20);
+        output.output(7, 1714376789050L, "Alert", "triggered");
+
+        Path file = directory.resolve("Alert.txt");
+        long deadline = System.currentTimeMillis() + 2000;
+        while ((!Files.exists(file) || Files.size(file) == 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("Patient ID: 7, Timestamp: 1714376789050, Label: Alert, Data: triggered",
+                Files.readAllLines(file).get(0));
+        output.close();
+    }
+
+    @Test
+    void testSegmentSizeCountsBytes(@TempDir Path directory) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.NONE,
+                new RotationPolicy(300, 0, false));
+        String note = "\u00e9".repeat(50); // 50 characters, 100 bytes
+        for (int i = 0; i < 10; i++) {
+            output.output(1, 1000L + i, "Note", note);
+        }
+        output.close();
+        output.output(1, 2000L, "Note", note); // rejected once closed
+
+        // each line is 152 bytes but only 102 characters, so a segment holds two lines, not three
+        assertEquals(5, Files.readAllLines(directory.resolve("Note.index")).size());
+        assertEquals(152 * 2, Files.size(directory.resolve("Note-1000.txt")));
+        assertFalse(Files.exists(directory.resolve("Note-2000.txt")));
+    }
+
+    @Test
+    void testSegmentsAreReadOnceInTimestampOrder(@TempDir Path directory) throws IOException {
+        FileOutputStrategy output = new FileOutputStrategy(directory.toString(), FileOutputStrategy.Durability.NONE,
+                new RotationPolicy(0, 100, true));
+        for (int i = 0; i < 1000; i++) {
+            output.output(1, 1000L + i, "ECG", Double.toString(i));
+        }
+        output.close();
+        // a segment caught between its compressed copy appearing and the original being deleted
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(directory.resolve("ECG-1300.txt.gz")))) {
+            Files.copy(in, directory.resolve("ECG-1300.txt"));
+        }
+
+        DataStorage storage = new DataStorage();
+        new FilesReader(directory.toString()).readData(storage);
+        List<PatientRecord> records = storage.getAllRecords("1");
+        assertEquals(1000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals(1000L + i, records.get(i).getTimestamp());
+        }
+    }
+}
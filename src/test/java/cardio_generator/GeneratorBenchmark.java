@@ -0,0 +1,85 @@
+package cardio_generator;
+
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how generation throughput scales with the number of threads. The ECG generator with its per-patient
+ * streams is compared with the same computation drawing from one shared {@link Random}.
+ * Each thread generates its own share of the patients, as the timing-wheel workers do.
+ * Not run by the build; start it with
+ * {@code java -cp target/classes:target/test-classes cardio_generator.GeneratorBenchmark [seconds] [patients]}.
+ */
+public class GeneratorBenchmark {
+    private static final Random SHARED = new Random();
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int patientCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int maxThreads = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+        PatientDataGenerator[] all = {
+                new ECGDataGenerator(patientCount), new BloodSaturationDataGenerator(patientCount),
+                new BloodPressureDataGenerator(patientCount), new BloodLevelsDataGenerator(patientCount),
+                new AlertGenerator(patientCount)};
+        // the same work as the ECG generator, drawing from one Random as the generators used to
+        PatientDataGenerator shared = (patientId, timestamp, batch) -> {
+            double hr = 60.0 + SHARED.nextDouble() * 20.0;
+            double t = timestamp / 1000.0;
+            double f = hr / 60.0;
+            double value = 0.1 * Math.sin(2 * Math.PI * f * t) + 0.5 * Math.sin(2 * Math.PI * 3 * f * t)
+                    + 0.2 * Math.sin(2 * Math.PI * 2 * f * t + Math.PI / 4) + SHARED.nextDouble() * 0.05;
+            batch.add(patientId, timestamp, SampleType.ECG, value);
+        };
+
+        System.out.printf("%d patients, %d processors%n", patientCount, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            double ecgRate = run(new PatientDataGenerator[] {all[0]}, patientCount, threads, seconds);
+            double sharedRate = run(new PatientDataGenerator[] {shared}, patientCount, threads, seconds);
+            double allRate = run(all, patientCount, threads, seconds);
+            System.out.printf("%3d threads: ECG %,12.0f samples/s per-patient streams, %,12.0f samples/s shared Random;"
+                    + " all generators %,12.0f samples/s%n", threads, ecgRate, sharedRate, allRate);
+        }
+    }
+
+    private static double run(PatientDataGenerator[] generators, int patientCount, int threadCount, int seconds)
+            throws InterruptedException {
+        AtomicLong samples = new AtomicLong();
+        long endNanos = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] threads = new Thread[threadCount];
+        for (int w = 0; w < threadCount; w++) {
+            int worker = w;
+            threads[w] = new Thread(() -> {
+                SampleBatch batch = new SampleBatch(1024);
+                long count = 0;
+                long timestamp = 0;
+                while (System.nanoTime() < endNanos) {
+                    timestamp += 1000;
+                    for (int patientId = worker + 1; patientId <= patientCount; patientId += threadCount) {
+                        for (PatientDataGenerator generator : generators) {
+                            generator.generate(patientId, timestamp, batch);
+                        }
+                        if (batch.size() >= 1000) {
+                            count += batch.size();
+                            batch.clear();
+                        }
+                    }
+                }
+                samples.addAndGet(count + batch.size());
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return samples.get() / (double) seconds;
+    }
+}
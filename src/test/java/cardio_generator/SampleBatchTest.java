@@ -0,0 +1,104 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.outputs.FanOutOutputStrategy;
+import com.cardio_generator.outputs.FileOutputStrategy;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class SampleBatchTest {
+
+    private static SampleBatch sampleBatch() {
+        SampleBatch batch = new SampleBatch(1);
+        batch.add(1, 1714376789050L, SampleType.ECG, -0.25);
+        batch.add(1, 1714376789051L, SampleType.SATURATION, 95);
+        batch.add(2, 1714376789052L, SampleType.ALERT, 1);
+        batch.add(2, 1714376789053L, SampleType.ALERT, 0);
+        return batch;
+    }
+
+    @Test
+    void testDefaultAdapterKeepsLegacyFormat() {
+        List<String> lines = new ArrayList<>();
+        OutputStrategy legacy = (patientId, timestamp, label, data) ->
+                lines.add(patientId + "," + timestamp + "," + label + "," + data);
+        SampleBatch batch = sampleBatch();
+        legacy.outputBatch(batch);
+
+        assertEquals(List.of("1,1714376789050,ECG,-0.25", "1,1714376789051,Saturation,95.0%",
+                "2,1714376789052,Alert,triggered", "2,1714376789053,Alert,resolved"), lines);
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(lines.get(i), batch.appendCsv(i, new StringBuilder()).toString());
+            SampleType type = batch.getType(i);
+            assertEquals(batch.getValue(i), type.parse(type.format(batch.getValue(i))));
+        }
+    }
+
+    @Test
+    void testFileBatchMatchesLegacyOutput(@TempDir Path directory) throws IOException {
+        Path legacyDirectory = Files.createDirectory(directory.resolve("legacy"));
+        Path batchDirectory = Files.createDirectory(directory.resolve("batch"));
+        FileOutputStrategy legacy = new FileOutputStrategy(legacyDirectory.toString());
+        FileOutputStrategy batched = new FileOutputStrategy(batchDirectory.toString());
+        SampleBatch batch = sampleBatch();
+        for (int i = 0; i < batch.size(); i++) {
+            SampleType type = batch.getType(i);
+            legacy.output(batch.getPatientId(i), batch.getTimestamp(i), type.getLabel(), type.format(batch.getValue(i)));
+        }
+        batched.outputBatch(batch);
+        legacy.close();
+        batched.close();
+
+        for (String file : new String[]{"ECG.txt", "Saturation.txt", "Alert.txt"}) {
+            assertEquals(Files.readAllLines(legacyDirectory.resolve(file)),
+                    Files.readAllLines(batchDirectory.resolve(file)));
+        }
+    }
+
+    @Test
+    void testFanOutForwardsBatches() {
+        List<SampleType> received = new ArrayList<>();
+        FanOutOutputStrategy fanOut = new FanOutOutputStrategy(1024);
+        fanOut.addSink("batch", new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("batched samples should not be formatted by the fan-out");
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                for (int i = 0; i < batch.size(); i++) {
+                    received.add(batch.getType(i));
+                }
+            }
+        });
+        new BloodPressureDataGenerator(3).generate(2, fanOut);
+        fanOut.close();
+
+        assertEquals(List.of(SampleType.SYSTOLIC_PRESSURE, SampleType.DIASTOLIC_PRESSURE), received);
+    }
+
+    @Test
+    void testAddBlockAppendsAfterExistingSamples() {
+        SampleBatch batch = sampleBatch();
+        batch.addBlock(3, new long[] {10, 12, 14}, SampleType.ECG, new double[] {0.1, 1.2, -0.3}, 2);
+
+        assertEquals(6, batch.size());
+        assertEquals(3, batch.getPatientId(5));
+        assertEquals(12, batch.getTimestamp(5));
+        assertEquals(SampleType.ECG, batch.getType(4));
+        assertEquals(1.2, batch.getValue(5));
+        assertEquals(2, batch.getPatientId(3));
+    }
+}
@@ -0,0 +1,116 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.alerts.decorators.BasicAlert;
+import com.alerts.strategies.BloodPressureStrategy;
+import com.alerts.strategies.OxygenSaturationStrategy;
+import com.cardio_generator.Scenario;
+import com.cardio_generator.ScenarioEngine;
+import com.cardio_generator.ScenarioEvent;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.SampleBatch;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ScenarioEngineTest {
+    private static final long START = 1_700_000_000_000L;
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void testScenariosAreAssignedReproduciblyToAFraction() {
+        ScenarioEngine engine = new ScenarioEngine(1000, 0.3, 5, START, 10 * MINUTE);
+        ScenarioEngine same = new ScenarioEngine(1000, 0.3, 5, START, 10 * MINUTE);
+        ScenarioEngine fewerPatients = new ScenarioEngine(500, 0.3, 5, START, 10 * MINUTE);
+
+        List<ScenarioEvent> events = engine.getEvents();
+        assertEquals(300, events.size(), 60);
+        for (int i = 0; i < events.size(); i++) {
+            ScenarioEvent event = events.get(i);
+            assertTrue(event.getOnsetMillis() >= START && event.getOnsetMillis() < START + 10 * MINUTE);
+            assertEquals(event.toCsv(), same.getEvents().get(i).toCsv());
+        }
+        // a patient's scenario does not depend on how many patients are simulated
+        long shared = events.stream().filter(event -> event.getPatientId() <= 500).count();
+        assertEquals(shared, fewerPatients.getEvents().size());
+    }
+
+    @Test
+    void testRangeEngineOnlyKnowsItsOwnPatients() {
+        ScenarioEngine all = new ScenarioEngine(1000, 0.3, 5, START, 10 * MINUTE);
+        ScenarioEngine range = new ScenarioEngine(401, 600, 0.3, 5, START, 10 * MINUTE);
+
+        List<String> expected = all.getEvents().stream()
+                .filter(event -> event.getPatientId() >= 401 && event.getPatientId() <= 600)
+                .map(ScenarioEvent::toCsv).collect(Collectors.toList());
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, range.getEvents().stream().map(ScenarioEvent::toCsv).collect(Collectors.toList()));
+        assertEquals(Paths.get("out", "truth-401-600.csv"),
+                ScenarioEngine.groundTruthFile(Paths.get("out", "truth.csv"), 401, 600));
+        assertEquals(Paths.get("truth-1-200"), ScenarioEngine.groundTruthFile(Paths.get("truth"), 1, 200));
+    }
+
+    @Test
+    void testDeteriorationsRaiseTheirAlertsAfterOnset() {
+        ScenarioEngine engine = new ScenarioEngine(1, 1, 9, START, 5 * MINUTE, Scenario.HYPOTENSIVE_HYPOXEMIA);
+        ScenarioEvent event = engine.getEvents().get(0);
+        DataStorage storage = run(engine, 25,
+                new BloodSaturationDataGenerator(1, 9), new BloodPressureDataGenerator(1, 9));
+        Patient patient = new Patient("1");
+
+        long fullSeverity = event.getOnsetMillis() + Scenario.HYPOTENSIVE_HYPOXEMIA.getRampMillis();
+        List<BasicAlert> saturation = new OxygenSaturationStrategy(storage).checkAlert(patient, fullSeverity,
+                event.getEndMillis() - 1);
+        List<BasicAlert> pressure = new BloodPressureStrategy(storage).checkAlert(patient, 0, Long.MAX_VALUE);
+        // every saturation reading at full severity is low
+        assertEquals(storage.getRecords("1", fullSeverity, event.getEndMillis() - 1).stream()
+                .filter(record -> record.getRecordType().equals("Saturation")).count(), saturation.stream()
+                .filter(alert -> alert.getCondition().equals("Low Saturation of oxygen in blood")).count());
+        long hypotension = firstAlert(pressure, "SystolicPressure critical value reached");
+        assertTrue(hypotension >= event.getOnsetMillis());
+        assertTrue(hypotension <= event.getOnsetMillis() + Scenario.HYPOTENSIVE_HYPOXEMIA.getRampMillis() + MINUTE);
+    }
+
+    @Test
+    void testTachycardiaRaisesTheRecordRateOfTheLegacyEcg() {
+        ScenarioEngine engine = new ScenarioEngine(1, 1, 3, START, MINUTE, Scenario.TACHYCARDIA);
+        ScenarioEvent event = engine.getEvents().get(0);
+        DataStorage storage = run(engine, 10, new ECGDataGenerator(1, 3));
+
+        long fullRate = event.getOnsetMillis() + Scenario.TACHYCARDIA.getRampMillis();
+        assertEquals(60, storage.getRecords("1", START - MINUTE, event.getOnsetMillis() - 1).size()
+                * MINUTE / (event.getOnsetMillis() - START), 2);
+        assertEquals(140, storage.getRecords("1", fullRate, fullRate + MINUTE - 1).size(), 2);
+    }
+
+    private static DataStorage run(ScenarioEngine engine, int minutes, PatientDataGenerator... generators) {
+        DataStorage storage = new DataStorage();
+        SampleBatch batch = new SampleBatch();
+        for (long time = START; time < START + minutes * MINUTE; time += 1000) {
+            for (PatientDataGenerator generator : generators) {
+                if (generator instanceof BloodPressureDataGenerator && (time - START) % MINUTE != 0) {
+                    continue; // blood pressure is read once a minute
+                }
+                engine.overlay(generator).generate(1, time, batch);
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            storage.addPatientData(String.valueOf(batch.getPatientId(i)), batch.getValue(i),
+                    batch.getType(i).getLabel(), batch.getTimestamp(i));
+        }
+        return storage;
+    }
+
+    private static long firstAlert(List<BasicAlert> alerts, String condition) {
+        return alerts.stream().filter(alert -> alert.getCondition().equals(condition))
+                .mapToLong(BasicAlert::getTimestamp).min().orElseThrow();
+    }
+}
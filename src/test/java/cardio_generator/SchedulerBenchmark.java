@@ -0,0 +1,136 @@
+package cardio_generator;
+
+import com.cardio_generator.PatientScheduler;
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.VirtualThreadScheduler;
+import com.cardio_generator.VirtualThreads;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodLevelsDataGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the simulator's schedulers with the real generators and a counting output.
+ * Not run by the build; start it with
+ * {@code java -cp target/classes:target/test-classes cardio_generator.SchedulerBenchmark [seconds] [counts...]}.
+ * The virtual thread mode is skipped on JVMs older than 21.
+ */
+public class SchedulerBenchmark {
+    private static final String[] MODES = {"executor", "wheel", "virtual"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int[] patientCounts = {10_000, 100_000};
+        if (args.length > 1) {
+            patientCounts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                patientCounts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int patientCount : patientCounts) {
+            for (String mode : MODES) {
+                if (mode.equals("virtual") && !VirtualThreads.isAvailable()) {
+                    System.out.printf("%-8s %7d patients: skipped, needs Java 21%n", mode, patientCount);
+                    continue;
+                }
+                run(mode, patientCount, seconds);
+            }
+        }
+    }
+
+    private static void run(String mode, int patientCount, int seconds) throws InterruptedException {
+        AtomicLong samples = new AtomicLong();
+        AtomicLong maxLatenessMillis = new AtomicLong();
+        OutputStrategy output = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                record(timestamp, 1);
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                record(batch.getTimestamp(0), batch.size());
+            }
+
+            private void record(long timestamp, int count) {
+                samples.addAndGet(count);
+                maxLatenessMillis.accumulateAndGet(System.currentTimeMillis() - timestamp, Math::max);
+            }
+        };
+        PatientDataGenerator[] generators = {
+                new ECGDataGenerator(patientCount), new BloodSaturationDataGenerator(patientCount),
+                new BloodPressureDataGenerator(patientCount), new BloodLevelsDataGenerator(patientCount),
+                new AlertGenerator(patientCount)};
+        long[] periodsMillis = {1000, 1000, 60_000, 120_000, 20_000};
+        Random random = new Random(42);
+
+        System.gc();
+        long heapBefore = usedHeap();
+        long startNanos = System.nanoTime();
+        ScheduledExecutorService executor = null;
+        PatientScheduler scheduler = null;
+        try {
+            if (mode.equals("executor")) {
+                executor = Executors.newScheduledThreadPool(patientCount * 4);
+                for (int patientId = 1; patientId <= patientCount; patientId++) {
+                    for (int g = 0; g < generators.length; g++) {
+                        PatientDataGenerator generator = generators[g];
+                        int id = patientId;
+                        executor.scheduleAtFixedRate(() -> generator.generate(id, output),
+                                (long) (random.nextDouble() * periodsMillis[g]), periodsMillis[g], TimeUnit.MILLISECONDS);
+                    }
+                }
+            } else {
+                scheduler = mode.equals("wheel") ? new TickScheduler(output) : new VirtualThreadScheduler(output);
+                for (int patientId = 1; patientId <= patientCount; patientId++) {
+                    for (int g = 0; g < generators.length; g++) {
+                        scheduler.schedule(patientId, generators[g], (long) (random.nextDouble() * periodsMillis[g]),
+                                periodsMillis[g], TimeUnit.MILLISECONDS);
+                    }
+                }
+                scheduler.start();
+            }
+            long setupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            Thread.sleep(2000); // warm up and let first runs spread out
+            long startSamples = samples.get();
+            maxLatenessMillis.set(0);
+            Thread.sleep(seconds * 1000L);
+            long delivered = samples.get() - startSamples;
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+            long heapMb = (usedHeap() - heapBefore) / (1024 * 1024);
+
+            double expected = patientCount * (2 + 2.0 / 60 + 3.0 / 120 + 0.05 * 0.1) * seconds;
+            System.out.printf("%-8s %7d patients: setup %5d ms, %9.0f samples/s (%.0f%% of schedule), "
+                            + "max lateness %4d ms, %6d platform threads, ~%d MB heap%n",
+                    mode, patientCount, setupMillis, delivered / (double) seconds, 100 * delivered / expected,
+                    maxLatenessMillis.get(), threads, heapMb);
+        } catch (OutOfMemoryError e) {
+            System.out.printf("%-8s %7d patients: failed, %s%n", mode, patientCount, e.getMessage());
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            }
+            if (scheduler != null) {
+                scheduler.close();
+            }
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
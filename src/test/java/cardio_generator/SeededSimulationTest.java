@@ -0,0 +1,192 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.HealthDataSimulator;
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.VirtualClock;
+import com.cardio_generator.generators.AlertGenerator;
+import com.cardio_generator.generators.BloodPressureDataGenerator;
+import com.cardio_generator.generators.BloodSaturationDataGenerator;
+import com.cardio_generator.generators.ECGDataGenerator;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SeededSimulationTest {
+
+    private static List<String> lines(SampleBatch batch) {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            lines.add(batch.appendCsv(i, new StringBuilder()).toString());
+        }
+        return lines;
+    }
+
+    @Test
+    void testSameSeedGivesSameValuesInAnyPatientOrder() {
+        PatientDataGenerator first = new ECGDataGenerator(20, 7);
+        PatientDataGenerator second = new ECGDataGenerator(20, 7);
+        SampleBatch forward = new SampleBatch();
+        SampleBatch backward = new SampleBatch();
+        for (int patientId = 1; patientId <= 20; patientId++) {
+            first.generate(patientId, 1_700_000_000_000L, forward);
+        }
+        for (int patientId = 20; patientId >= 1; patientId--) {
+            second.generate(patientId, 1_700_000_000_000L, backward);
+        }
+        List<String> reversed = lines(backward);
+        Collections.reverse(reversed);
+        assertEquals(lines(forward), reversed);
+
+        SampleBatch otherSeed = new SampleBatch();
+        PatientDataGenerator third = new ECGDataGenerator(20, 8);
+        for (int patientId = 1; patientId <= 20; patientId++) {
+            third.generate(patientId, 1_700_000_000_000L, otherSeed);
+        }
+        assertNotEquals(lines(forward), lines(otherSeed));
+    }
+
+    @Test
+    void testParallelGenerationMatchesSerial() throws InterruptedException {
+        int patients = 64;
+        int threads = 4;
+        PatientDataGenerator serial = new BloodPressureDataGenerator(patients, 3);
+        PatientDataGenerator parallel = new BloodPressureDataGenerator(patients, 3);
+        SampleBatch expected = new SampleBatch();
+        for (int round = 0; round < 100; round++) {
+            for (int patientId = 1; patientId <= patients; patientId++) {
+                serial.generate(patientId, round, expected);
+            }
+        }
+        SampleBatch[] batches = new SampleBatch[threads];
+        Thread[] workers = new Thread[threads];
+        for (int w = 0; w < threads; w++) {
+            int worker = w;
+            batches[w] = new SampleBatch();
+            workers[w] = new Thread(() -> {
+                for (int round = 0; round < 100; round++) {
+                    for (int patientId = worker + 1; patientId <= patients; patientId += threads) {
+                        parallel.generate(patientId, round, batches[worker]);
+                    }
+                }
+            });
+            workers[w].start();
+        }
+        List<String> actual = new ArrayList<>();
+        for (int w = 0; w < threads; w++) {
+            workers[w].join();
+            actual.addAll(lines(batches[w]));
+        }
+        List<String> serialLines = lines(expected);
+        Collections.sort(serialLines);
+        Collections.sort(actual);
+        assertEquals(serialLines, actual);
+    }
+
+    @Test
+    void testSeededRunsProduceIdenticalStreams() throws InterruptedException {
+        List<String> firstRun = run();
+        List<String> secondRun = run();
+        int common = Math.min(firstRun.size(), secondRun.size());
+        assertTrue(common > 100);
+        assertEquals(firstRun.subList(0, common), secondRun.subList(0, common));
+        assertTrue(firstRun.get(0).startsWith("1,1700000000000,"), firstRun.get(0));
+    }
+
+    @Test
+    void testSplitOverProcessesGivesSameStreamsAsOneProcess() throws InterruptedException {
+        List<String> whole = runRange(1, 6);
+        List<String> split = runRange(1, 3);
+        split.addAll(runRange(4, 6));
+        Collections.sort(whole);
+        Collections.sort(split);
+        assertTrue(whole.size() > 100);
+        assertEquals(whole, split);
+    }
+
+    /**
+     * Runs the patients of one process of a split, with the start offsets the simulator uses for a
+     * seed, and returns the samples of the first 30 simulated seconds.
+     */
+    private static List<String> runRange(int firstPatientId, int lastPatientId) throws InterruptedException {
+        long seed = 42;
+        long start = 1_700_000_000_000L;
+        long end = start + 30_000;
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy output = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                lines.add(patientId + "," + timestamp + "," + label + "," + data);
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                lines.addAll(lines(batch));
+            }
+        };
+        TickScheduler scheduler = new TickScheduler(output, 1, 1, 64, new VirtualClock(start));
+        scheduler.setFastMode(0);
+        PatientDataGenerator[] generators = {new ECGDataGenerator(lastPatientId, seed),
+                new BloodSaturationDataGenerator(lastPatientId, seed),
+                new BloodPressureDataGenerator(lastPatientId, seed), new AlertGenerator(lastPatientId, seed)};
+        String[] tasks = {"ECG", "Saturation", "BloodPressure", "Alert"};
+        long[] periods = {100, 1000, 5000, 2000};
+        for (int patientId = firstPatientId; patientId <= lastPatientId; patientId++) {
+            for (int g = 0; g < generators.length; g++) {
+                long offset = HealthDataSimulator.startOffsetMillis(seed, patientId, tasks[g], periods[g]);
+                scheduler.schedule(patientId, generators[g], offset, periods[g], TimeUnit.MILLISECONDS);
+            }
+        }
+        scheduler.start();
+        while (scheduler.getSimulatedMillis() <= 40_000) {
+            Thread.sleep(5);
+        }
+        scheduler.close();
+        List<String> window = new ArrayList<>();
+        for (String line : new ArrayList<>(lines)) {
+            if (Long.parseLong(line.split(",")[1]) < end) {
+                window.add(line);
+            }
+        }
+        return window;
+    }
+
+    private static List<String> run() throws InterruptedException {
+        int patients = 10;
+        long seed = 42;
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        OutputStrategy output = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                lines.add(patientId + "," + timestamp + "," + label + "," + data);
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                lines.addAll(lines(batch));
+            }
+        };
+        VirtualClock clock = new VirtualClock(1_700_000_000_000L);
+        TickScheduler scheduler = new TickScheduler(output, 1, 1, 64, clock);
+        PatientDataGenerator[] generators = {new ECGDataGenerator(patients, seed),
+                new BloodSaturationDataGenerator(patients, seed), new BloodPressureDataGenerator(patients, seed),
+                new AlertGenerator(patients, seed)};
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            for (int g = 0; g < generators.length; g++) {
+                scheduler.schedule(patientId, generators[g], 0, 5L * (g + 1), TimeUnit.MILLISECONDS);
+            }
+        }
+        scheduler.start();
+        Thread.sleep(200);
+        scheduler.close();
+        assertTrue(clock.currentTimeMillis() > 1_700_000_000_000L);
+        return new ArrayList<>(lines);
+    }
+}
@@ -0,0 +1,26 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.SimulatorCoordinator;
+
+class SimulatorCoordinatorTest {
+
+    @Test
+    void testPartitionCoversEveryPatientOnce() {
+        int[][] ranges = SimulatorCoordinator.partition(10, 3);
+
+        assertArrayEquals(new int[] {1, 4}, ranges[0]);
+        assertArrayEquals(new int[] {5, 7}, ranges[1]);
+        assertArrayEquals(new int[] {8, 10}, ranges[2]);
+    }
+
+    @Test
+    void testStatsLinesRoundTrip() {
+        assertArrayEquals(new long[] {1234, 5000},
+                SimulatorCoordinator.parseStats(SimulatorCoordinator.formatStats(1234, 5000)));
+        assertNull(SimulatorCoordinator.parseStats("TCP Server started on port 9000"));
+        assertNull(SimulatorCoordinator.parseStats("STATS many"));
+    }
+}
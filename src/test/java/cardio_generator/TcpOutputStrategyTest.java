@@ -0,0 +1,68 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.outputs.TcpOutputStrategy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+class TcpOutputStrategyTest {
+
+    private static void waitForClients(TcpOutputStrategy output, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (output.getClientCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testEveryClientReceivesEveryLine() throws IOException, InterruptedException {
+        TcpOutputStrategy output = new TcpOutputStrategy(0, 1024 * 1024, TcpOutputStrategy.SlowClientPolicy.DROP_OLDEST, 5);
+        try (Socket first = new Socket("localhost", output.getPort());
+             Socket second = new Socket("localhost", output.getPort())) {
+            waitForClients(output, 2);
+
+            for (int i = 0; i < 100; i++) {
+                output.output(i, 1714748468033L + i, "ECG", Double.toString(i));
+            }
+
+            for (Socket socket : new Socket[]{first, second}) {
+                socket.setSoTimeout(5000);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertEquals("0,1714748468033,ECG,0.0", reader.readLine());
+                String last = null;
+                for (int i = 1; i < 100; i++) {
+                    last = reader.readLine();
+                }
+                assertEquals("99,1714748468132,ECG,99.0", last);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    @Test
+    void testSlowClientIsDisconnected() throws IOException, InterruptedException {
+        TcpOutputStrategy output = new TcpOutputStrategy(0, 64 * 1024, TcpOutputStrategy.SlowClientPolicy.DISCONNECT, 1);
+        try (Socket stalled = new Socket("localhost", output.getPort())) {
+            stalled.setReceiveBufferSize(4096);
+            waitForClients(output, 1);
+
+            // the client never reads, so its socket buffers and then its queue fill up
+            String data = "x".repeat(1000);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (output.getDisconnectedClients() == 0 && System.currentTimeMillis() < deadline) {
+                output.output(1, 1714748468033L, "ECG", data);
+            }
+            assertEquals(1, output.getDisconnectedClients());
+        } finally {
+            output.close();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.TickScheduler;
+import com.cardio_generator.VirtualClock;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class TickSchedulerTest {
+
+    @Test
+    void testTasksRunOncePerPeriodAcrossWheelTurns() throws InterruptedException {
+        int patients = 50;
+        AtomicIntegerArray fastRuns = new AtomicIntegerArray(patients + 1);
+        AtomicIntegerArray slowRuns = new AtomicIntegerArray(patients + 1);
+        PatientDataGenerator fast = (patientId, timestamp, batch) -> {
+            fastRuns.incrementAndGet(patientId);
+            batch.add(patientId, 0, SampleType.ECG, 1);
+        };
+        PatientDataGenerator slow = (patientId, timestamp, batch) -> slowRuns.incrementAndGet(patientId);
+        AtomicInteger samples = new AtomicInteger();
+        OutputStrategy output = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("samples should arrive in batches");
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                samples.addAndGet(batch.size());
+            }
+        };
+
+        // a wheel of 8 ticks, so the slow task waits more than two turns between runs
+        TickScheduler scheduler = new TickScheduler(output, 1, 2, 8);
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            scheduler.schedule(patientId, fast, 0, 10, TimeUnit.MILLISECONDS);
+            scheduler.schedule(patientId, slow, 0, 40, TimeUnit.MILLISECONDS);
+        }
+        scheduler.start();
+        Thread.sleep(300);
+        scheduler.close();
+
+        long ticks = scheduler.getTicks();
+        assertTrue(ticks > 40);
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            assertEquals((ticks - 1) / 5 + 1, fastRuns.get(patientId));
+            assertEquals((ticks - 1) / 20 + 1, slowRuns.get(patientId));
+        }
+        assertEquals(patients * ((ticks - 1) / 5 + 1), samples.get());
+    }
+
+    @Test
+    void testPatientsArePartitionedAcrossWorkers() throws InterruptedException {
+        AtomicIntegerArray threadOfPatient = new AtomicIntegerArray(9);
+        AtomicInteger conflicts = new AtomicInteger();
+        PatientDataGenerator generator = (patientId, timestamp, batch) -> {
+            int thread = (int) Thread.currentThread().getId();
+            int previous = threadOfPatient.getAndSet(patientId, thread);
+            if (previous != 0 && previous != thread) {
+                conflicts.incrementAndGet();
+            }
+        };
+        TickScheduler scheduler = new TickScheduler((patientId, timestamp, label, data) -> { }, 4, 1, 64);
+        for (int patientId = 1; patientId <= 8; patientId++) {
+            scheduler.schedule(patientId, generator, patientId, 3, TimeUnit.MILLISECONDS);
+        }
+        scheduler.start();
+        Thread.sleep(100);
+        scheduler.close();
+
+        assertEquals(0, conflicts.get());
+        assertEquals(threadOfPatient.get(1), threadOfPatient.get(5));
+        assertNotEquals(threadOfPatient.get(1), threadOfPatient.get(2));
+    }
+
+    @Test
+    void testFastModeKeepsCadenceInSimulatedTime() throws InterruptedException {
+        AtomicIntegerArray runs = new AtomicIntegerArray(5);
+        AtomicInteger outOfStep = new AtomicInteger();
+        VirtualClock clock = new VirtualClock(0);
+        PatientDataGenerator generator = (patientId, timestamp, batch) -> {
+            runs.incrementAndGet(patientId);
+            if (timestamp % 1000 != 0) {
+                outOfStep.incrementAndGet();
+            }
+            batch.add(patientId, timestamp, SampleType.ECG, 1);
+        };
+        TickScheduler scheduler = new TickScheduler((patientId, timestamp, label, data) -> { }, 2, 10, 64, clock);
+        for (int patientId = 1; patientId <= 4; patientId++) {
+            scheduler.schedule(patientId, generator, 0, 1, TimeUnit.SECONDS);
+        }
+        scheduler.setFastMode(0);
+        scheduler.start();
+        Thread.sleep(300);
+        scheduler.close();
+
+        // far more than the 0.3 s of wall time, one sample per patient per simulated second
+        long seconds = scheduler.getSimulatedMillis() / 1000;
+        assertTrue(seconds > 60, "simulated " + seconds + " s");
+        assertEquals(0, outOfStep.get());
+        assertEquals(runs.get(1), runs.get(4));
+        assertEquals(seconds + 1, runs.get(1), 1);
+        assertEquals(4L * runs.get(1), scheduler.getSamples(), 4);
+        assertTrue(clock.currentTimeMillis() >= (seconds - 1) * 1000);
+    }
+
+    @Test
+    void testFastModeHoldsTargetRate() throws InterruptedException {
+        PatientDataGenerator generator = (patientId, timestamp, batch) -> batch.add(patientId, timestamp, SampleType.ECG, 1);
+        TickScheduler scheduler = new TickScheduler((patientId, timestamp, label, data) -> { }, 1, 10, 64,
+                new VirtualClock(0));
+        for (int patientId = 1; patientId <= 10; patientId++) {
+            scheduler.schedule(patientId, generator, 0, 10, TimeUnit.MILLISECONDS);
+        }
+        scheduler.setFastMode(2000);
+        scheduler.start();
+        Thread.sleep(500);
+        scheduler.close();
+
+        // 2000 samples/s is 200 ticks of 10 patients per second: about 1 simulated second in 0.5 s
+        long samples = scheduler.getSamples();
+        assertTrue(samples >= 600 && samples <= 1400, samples + " samples");
+    }
+}
@@ -0,0 +1,66 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.SimulationClock;
+import com.cardio_generator.VirtualThreadScheduler;
+import com.cardio_generator.VirtualThreads;
+import com.cardio_generator.generators.PatientDataGenerator;
+import com.cardio_generator.outputs.OutputStrategy;
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+class VirtualThreadSchedulerTest {
+
+    @Test
+    void testEachPatientRunsItsTasksOnItsOwnThread() throws InterruptedException {
+        int patients = 10;
+        AtomicIntegerArray fastRuns = new AtomicIntegerArray(patients + 1);
+        AtomicIntegerArray slowRuns = new AtomicIntegerArray(patients + 1);
+        AtomicInteger batches = new AtomicInteger();
+        PatientDataGenerator fast = (patientId, timestamp, batch) -> {
+            fastRuns.incrementAndGet(patientId);
+            batch.add(patientId, 0, SampleType.ECG, 1);
+        };
+        PatientDataGenerator slow = (patientId, timestamp, batch) -> {
+            slowRuns.incrementAndGet(patientId);
+            batch.add(patientId, 0, SampleType.ALERT, 1);
+        };
+        OutputStrategy output = new OutputStrategy() {
+            @Override
+            public void output(int patientId, long timestamp, String label, String data) {
+                fail("samples should arrive in batches");
+            }
+
+            @Override
+            public void outputBatch(SampleBatch batch) {
+                batches.incrementAndGet();
+            }
+        };
+
+        // platform threads stand in for virtual threads on JVMs older than 21
+        VirtualThreadScheduler scheduler = VirtualThreads.isAvailable()
+                ? new VirtualThreadScheduler(output) : new VirtualThreadScheduler(output, Thread::new, SimulationClock.SYSTEM);
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            scheduler.schedule(patientId, fast, 0, 10, TimeUnit.MILLISECONDS);
+            scheduler.schedule(patientId, slow, 0, 40, TimeUnit.MILLISECONDS);
+        }
+        scheduler.start();
+        Thread.sleep(400);
+        scheduler.close();
+
+        int totalRuns = 0;
+        for (int patientId = 1; patientId <= patients; patientId++) {
+            assertTrue(fastRuns.get(patientId) >= 20, "patient " + patientId + " ran " + fastRuns.get(patientId));
+            // both tasks start together, so every slow run coincides with a fast run
+            assertEquals((fastRuns.get(patientId) - 1) / 4 + 1, slowRuns.get(patientId), 1);
+            totalRuns += fastRuns.get(patientId);
+        }
+        assertEquals(totalRuns, batches.get());
+    }
+}
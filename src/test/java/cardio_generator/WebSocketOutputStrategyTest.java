@@ -0,0 +1,138 @@
+package cardio_generator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.outputs.SampleBatch;
+import com.cardio_generator.outputs.SampleType;
+import com.cardio_generator.outputs.Subscription;
+import com.cardio_generator.outputs.WebSocketOutputStrategy;
+import com.data_management.DataStorage;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.data_management.WebSocketReader;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+class WebSocketOutputStrategyTest {
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Test
+    void testSubscriptionParsing() {
+        Subscription subscription = Subscription.parse("subscribe patients=1-10,15;labels=Saturation,Alert");
+        assertTrue(subscription.acceptsPatient(1));
+        assertTrue(subscription.acceptsPatient(15));
+        assertFalse(subscription.acceptsPatient(11));
+        assertTrue(subscription.acceptsLabel("Alert"));
+        assertFalse(subscription.acceptsLabel("ECG"));
+        assertEquals(subscription, Subscription.parse("subscribe labels=Alert,Saturation;patients=15,1-10"));
+        assertEquals(Subscription.ALL, Subscription.parse("unsubscribe"));
+        assertThrows(IllegalArgumentException.class, () -> Subscription.parse("subscribe patients=ten"));
+    }
+
+    @Test
+    void testSubscribedClientOnlyReceivesMatchingSamples() throws Exception {
+        int port = freePort();
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(port, 5);
+        DataStorage filtered = new DataStorage();
+        DataStorage everything = new DataStorage();
+        WebSocketReader bedside = new WebSocketReader(new URI("ws://localhost:" + port), filtered);
+        bedside.setSubscription("patients=2;labels=Saturation,Alert");
+        WebSocketReader aggregator = new WebSocketReader(new URI("ws://localhost:" + port), everything);
+        try {
+            assertTrue(bedside.connectBlocking());
+            assertTrue(aggregator.connectBlocking());
+            Thread.sleep(200); // let the server apply the subscription
+
+            for (int patientId = 1; patientId <= 3; patientId++) {
+                output.output(patientId, 1714748468033L, "ECG", "0.5");
+                output.output(patientId, 1714748468034L, "Saturation", "95.0%");
+                output.output(patientId, 1714748468035L, "Alert", "triggered");
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (countRecords(everything) < 9 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+
+            assertEquals(9, countRecords(everything));
+            assertEquals(2, countRecords(filtered));
+            List<PatientRecord> records = filtered.getAllRecords("2");
+            assertEquals("Saturation", records.get(0).getRecordType());
+            assertEquals("Alert", records.get(1).getRecordType());
+        } finally {
+            bedside.closeBlocking();
+            aggregator.closeBlocking();
+            output.close();
+        }
+    }
+
+    @Test
+    void testUnbatchedOutputSendsOneLinePerFrame() throws Exception {
+        int port = freePort();
+        WebSocketOutputStrategy output = new WebSocketOutputStrategy(port);
+        List<String> frames = Collections.synchronizedList(new ArrayList<>());
+        WebSocketClient client = new WebSocketClient(new URI("ws://localhost:" + port)) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+            }
+
+            @Override
+            public void onMessage(String message) {
+                frames.add(message);
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onError(Exception ex) {
+            }
+        };
+        try {
+            assertTrue(client.connectBlocking());
+            Thread.sleep(200); // let the server add the connection to its routing table
+
+            SampleBatch batch = new SampleBatch();
+            batch.add(1, 1714748468033L, SampleType.ECG, 0.5);
+            batch.add(1, 1714748468034L, SampleType.SATURATION, 95);
+            batch.add(2, 1714748468035L, SampleType.ECG, -0.25);
+            output.outputBatch(batch);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (frames.size() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(3, frames.size());
+            for (String frame : frames) {
+                assertFalse(frame.contains("\n"), frame);
+            }
+            assertTrue(frames.get(0).startsWith("1,1714748468033,ECG,"), frames.get(0));
+        } finally {
+            client.closeBlocking();
+            output.close();
+        }
+    }
+
+    private static int countRecords(DataStorage storage) {
+        int count = 0;
+        for (Patient patient : storage.getAllPatients()) {
+            count += patient.getAllRecords().size();
+        }
+        return count;
+    }
+}
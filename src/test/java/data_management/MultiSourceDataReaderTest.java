@@ -0,0 +1,127 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.data_management.DataStorage;
+import com.data_management.FilesReader;
+import com.data_management.MultiSourceDataReader;
+import com.data_management.Patient;
+import com.data_management.PatientRecord;
+import com.data_management.RecordSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class MultiSourceDataReaderTest {
+
+    @Test
+    void testMergesSourcesInOrder() throws InterruptedException {
+        DataStorage storage = new DataStorage();
+        // small queues and quantum force the sources to interleave
+        MultiSourceDataReader reader = new MultiSourceDataReader(16, 4);
+        reader.addSource("ward-1", new FilesReader("src/test/java/data_management/testFiles"));
+        reader.addSource("ward-2", new FilesReader("src/test/java/alert_generation/ECG_test_2"));
+        reader.readData(storage);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        List<MultiSourceDataReader.SourceMetrics> metrics = reader.getMetrics();
+        while (System.currentTimeMillis() < deadline
+                && (metrics.get(0).getIngested() < 16 || metrics.get(1).getIngested() < 197)) {
+            Thread.sleep(20);
+            metrics = reader.getMetrics();
+        }
+        reader.close();
+        metrics = reader.getMetrics();
+
+        assertEquals("ward-1", metrics.get(0).getName());
+        assertEquals(16, metrics.get(0).getIngested());
+        assertEquals(197, metrics.get(1).getIngested());
+        assertEquals(0, metrics.get(1).getQueued());
+
+        long total = 0;
+        for (Patient patient : storage.getAllPatients()) {
+            total += patient.getAllRecords().size();
+        }
+        assertEquals(metrics.get(0).getIngested() + metrics.get(1).getIngested(), total);
+
+        // records of one source keep their original order
+        List<PatientRecord> ecg = storage.getAllRecords("1");
+        for (int i = 1; i < ecg.size(); i++) {
+            assertTrue(ecg.get(i - 1).getTimestamp() <= ecg.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void testTcpSourcesShareOneSelectorThread() throws IOException, InterruptedException {
+        try (ServerSocket first = new ServerSocket(0); ServerSocket second = new ServerSocket(0)) {
+            DataStorage storage = new DataStorage();
+            MultiSourceDataReader reader = new MultiSourceDataReader();
+            reader.addTcpSource("ward-1", "localhost", first.getLocalPort());
+            reader.addTcpSource("ward-2", "localhost", second.getLocalPort());
+            reader.readData(storage);
+
+            try (Socket a = first.accept(); Socket b = second.accept()) {
+                assertEquals(1, Thread.getAllStackTraces().keySet().stream()
+                        .filter(thread -> thread.getName().equals("tcp-data-reader")).count());
+                OutputStream outA = a.getOutputStream();
+                OutputStream outB = b.getOutputStream();
+                outA.write("1,1714748468033,ECG,0.5\n1,1714748468034,ECG,0.6\n".getBytes(StandardCharsets.US_ASCII));
+                outB.write("2,1714748468035,Saturation,95.0%\n".getBytes(StandardCharsets.US_ASCII));
+                outA.flush();
+                outB.flush();
+
+                long deadline = System.currentTimeMillis() + 5000;
+                while (storage.getAllRecords("1").size() + storage.getAllRecords("2").size() < 3
+                        && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                reader.close();
+            }
+
+            List<MultiSourceDataReader.SourceMetrics> metrics = reader.getMetrics();
+            assertEquals(2, metrics.get(0).getIngested());
+            assertEquals(1, metrics.get(1).getIngested());
+            assertEquals(95.0, storage.getAllRecords("2").get(0).getMeasurementValue());
+        }
+    }
+
+    @Test
+    void testCloseIngestsQueuedRecords() {
+        // a target this slow needs longer than a second to take the queued records
+        RecordSink slowStorage = (patientId, measurementValue, recordType, timestamp) -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        MultiSourceDataReader reader = new MultiSourceDataReader(1024, 4);
+        reader.addSource("ward-2", new FilesReader("src/test/java/alert_generation/ECG_test_2"));
+        reader.readData(slowStorage);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reader.getMetrics().get(0).getQueued() < 50 && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        reader.close();
+
+        MultiSourceDataReader.SourceMetrics metrics = reader.getMetrics().get(0);
+        assertTrue(metrics.getReceived() >= 50);
+        assertEquals(metrics.getReceived(), metrics.getIngested() + metrics.getDropped());
+        assertEquals(0, metrics.getDropped());
+        assertEquals(0, metrics.getQueued());
+    }
+
+    @Test
+    void testReadsWithoutSources() {
+        MultiSourceDataReader reader = new MultiSourceDataReader();
+        reader.readData(new DataStorage());
+        reader.close();
+        assertTrue(reader.getMetrics().isEmpty());
+    }
+}
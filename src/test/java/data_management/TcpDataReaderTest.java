@@ -0,0 +1,113 @@
+package data_management;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+import com.cardio_generator.outputs.SampleType;
+import com.data_management.DataStorage;
+import com.data_management.PatientRecord;
+import com.data_management.TcpDataReader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+class TcpDataReaderTest {
+
+    private static void waitForRecords(TcpDataReader reader, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (reader.getRecordsRead() + reader.getMalformedLines() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testReadsLinesFromSeveralSources() throws IOException, InterruptedException {
+        try (ServerSocket first = new ServerSocket(0); ServerSocket second = new ServerSocket(0)) {
+            DataStorage storage = new DataStorage();
+            TcpDataReader reader = new TcpDataReader(Arrays.asList(
+                    new InetSocketAddress("localhost", first.getLocalPort()),
+                    new InetSocketAddress("localhost", second.getLocalPort())));
+            reader.readData(storage);
+
+            try (Socket a = first.accept(); Socket b = second.accept()) {
+                OutputStream outA = a.getOutputStream();
+                OutputStream outB = b.getOutputStream();
+                // a line split across two writes must still be parsed once complete
+                outA.write("10,1714748468033,ECG,-0.34656395320945643\n1,17147484680".getBytes(StandardCharsets.US_ASCII));
+                outA.flush();
+                Thread.sleep(50);
+                outA.write("34,Saturation,95.0%\n".getBytes(StandardCharsets.US_ASCII));
+                outB.write("2,1714748468035,Alert,triggered\n2,1714748468036,SystolicPressure,1.2E2\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                outA.flush();
+                outB.flush();
+
+                waitForRecords(reader, 4);
+            } finally {
+                reader.close();
+            }
+
+            PatientRecord ecg = storage.getAllRecords("10").get(0);
+            assertEquals("ECG", ecg.getRecordType());
+            assertEquals(1714748468033L, ecg.getTimestamp());
+            assertEquals(-0.34656395320945643, ecg.getMeasurementValue());
+
+            PatientRecord saturation = storage.getAllRecords("1").get(0);
+            assertEquals("Saturation", saturation.getRecordType());
+            assertEquals(95.0, saturation.getMeasurementValue());
+
+            List<PatientRecord> records = storage.getAllRecords("2");
+            assertEquals(2, records.size());
+            assertEquals(1.0, records.get(0).getMeasurementValue());
+            assertEquals(120.0, records.get(1).getMeasurementValue());
+        }
+    }
+
+    @Test
+    void testSkipsMalformedLines() throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            DataStorage storage = new DataStorage();
+            TcpDataReader reader = new TcpDataReader("localhost", server.getLocalPort());
+            reader.readData(storage);
+
+            try (Socket socket = server.accept()) {
+                socket.getOutputStream().write("Invalid message format\n3,1714748468033,ECG,0.05\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                socket.getOutputStream().flush();
+                waitForRecords(reader, 2);
+            } finally {
+                reader.close();
+            }
+
+            assertEquals(1, reader.getMalformedLines());
+            assertEquals(0.05, storage.getAllRecords("3").get(0).getMeasurementValue());
+        }
+    }
+
+    @Test
+    void testSharesTheLabelsOfEverySampleType() throws IOException, InterruptedException {
+        try (ServerSocket server = new ServerSocket(0)) {
+            DataStorage storage = new DataStorage();
+            TcpDataReader reader = new TcpDataReader("localhost", server.getLocalPort());
+            reader.readData(storage);
+
+            try (Socket socket = server.accept()) {
+                socket.getOutputStream().write("4,1714748468033,ECGWaveform,0.125\n".getBytes(StandardCharsets.US_ASCII));
+                socket.getOutputStream().flush();
+                waitForRecords(reader, 1);
+            } finally {
+                reader.close();
+            }
+
+            PatientRecord waveform = storage.getAllRecords("4").get(0);
+            assertSame(SampleType.ECG_WAVEFORM.getLabel(), waveform.getRecordType());
+            assertEquals(0.125, waveform.getMeasurementValue());
+        }
+    }
+}
@@ -35,6 +35,15 @@ public class WebSocketReaderTest {
         assertEquals("ECG", record.getRecordType());
         assertEquals(-0.34656395320945643, record.getMeasurementValue(), 0.01);
     }
+    @Test
+    public void testOnMessage_batchedMessage() {
+        String message = "10,1714748468033,ECG,-0.34656395320945643\n10,1714748468034,Saturation,95.0%\n11,1714748468035,Alert,triggered";
+        client.onMessage(message);
+        assertEquals(2, mockStorage.getAllRecords("10").size());
+        assertEquals(95.0, mockStorage.getAllRecords("10").get(1).getMeasurementValue(), 0.01);
+        assertEquals(1.0, mockStorage.getAllRecords("11").get(0).getMeasurementValue(), 0.01);
+    }
+
     @Test
     public void testOnMessage_invalidMessageFormat() {
         String message = "Invalid message format";